@@ -0,0 +1,140 @@
+package com.typesafe.config.impl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigBeanFactory;
+import com.typesafe.config.ConfigMemorySize;
+
+/**
+ * ConfigBeanFactory.create() for one generated service, which has a
+ * nested bean, a list, a duration and a memory size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanBenchmark {
+    private Config service;
+
+    @Setup
+    public void setup() {
+        service = BenchmarkConfigs.parseResolved(BenchmarkConfigs.services(1)).getConfig("service-0");
+    }
+
+    @Benchmark
+    public ServiceBean create() {
+        return ConfigBeanFactory.create(service, ServiceBean.class);
+    }
+
+    public static class NestedBean {
+        private boolean enabled;
+        private double ratio;
+        private int retries;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(double ratio) {
+            this.ratio = ratio;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public void setRetries(int retries) {
+            this.retries = retries;
+        }
+    }
+
+    public static class ServiceBean {
+        private String host;
+        private int port;
+        private Duration timeout;
+        private ConfigMemorySize buffer;
+        private String url;
+        private List<String> tags;
+        private NestedBean nested;
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public ConfigMemorySize getBuffer() {
+            return buffer;
+        }
+
+        public void setBuffer(ConfigMemorySize buffer) {
+            this.buffer = buffer;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public NestedBean getNested() {
+            return nested;
+        }
+
+        public void setNested(NestedBean nested) {
+            this.nested = nested;
+        }
+    }
+}
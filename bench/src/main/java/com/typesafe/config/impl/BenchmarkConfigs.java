@@ -0,0 +1,116 @@
+package com.typesafe.config.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+
+/**
+ * The inputs the benchmarks run over, picked with a "size" parameter:
+ *
+ * <ul>
+ * <li>small: a handful of generated services
+ * <li>medium: the akka reference config from the tests (test04.conf) plus a
+ * few hundred generated services
+ * <li>huge: thousands of generated services, tens of thousands of values
+ * </ul>
+ *
+ * Every generated service has the same shape, with strings, numbers,
+ * durations, sizes, lists, a nested object and substitutions, so the same
+ * paths can be looked up in every size.
+ */
+final class BenchmarkConfigs {
+    private BenchmarkConfigs() {
+    }
+
+    static String text(String size) {
+        if (size.equals("medium"))
+            return resource("test04.conf") + "\n" + services(serviceCount(size));
+        else
+            return services(serviceCount(size));
+    }
+
+    private static int serviceCount(String size) {
+        if (size.equals("small"))
+            return 10;
+        else if (size.equals("medium"))
+            return 500;
+        else if (size.equals("huge"))
+            return 5000;
+        else
+            throw new IllegalArgumentException("unknown size " + size);
+    }
+
+    static String services(int count) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("defaults {\n");
+        sb.append("  timeout = 30s\n");
+        sb.append("  buffer = 64M\n");
+        sb.append("}\n");
+        for (int i = 0; i < count; ++i) {
+            sb.append("# service number ").append(i).append('\n');
+            sb.append("service-").append(i).append(" {\n");
+            sb.append("  host = \"host-").append(i).append(".example.com\"\n");
+            sb.append("  port = ").append(8000 + i % 1000).append('\n');
+            sb.append("  timeout = ${defaults.timeout}\n");
+            sb.append("  buffer = ${defaults.buffer}\n");
+            sb.append("  url = \"http://\"${service-").append(i).append(".host}\":\"${service-").append(i)
+                    .append(".port}\n");
+            sb.append("  tags = [ alpha, beta, \"gamma delta\" ]\n");
+            sb.append("  tags += service-").append(i).append('\n');
+            sb.append("  nested {\n");
+            sb.append("    enabled = ").append(i % 2 == 0).append('\n');
+            sb.append("    ratio = 0.").append(i % 10).append('\n');
+            sb.append("    retries = ").append(i % 5).append('\n');
+            sb.append("  }\n");
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+
+    // the same services with a couple of settings changed, to merge
+    // over the original
+    static String overrides(String size) {
+        int count = serviceCount(size);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i += 2) {
+            sb.append("service-").append(i).append(" { port = 9999, nested.ratio = 1.0 }\n");
+        }
+        return sb.toString();
+    }
+
+    static Config parse(String text) {
+        return ConfigFactory.parseString(text, ConfigParseOptions.defaults().setOriginDescription("benchmark"));
+    }
+
+    static Config parseResolved(String text) {
+        return parse(text).resolve();
+    }
+
+    private static String resource(String name) {
+        InputStream stream = BenchmarkConfigs.class.getClassLoader().getResourceAsStream(name);
+        if (stream == null)
+            throw new IllegalStateException("missing benchmark resource " + name);
+        try {
+            Reader reader = new InputStreamReader(stream, "UTF-8");
+            StringBuilder sb = new StringBuilder();
+            char[] buf = new char[8192];
+            int n;
+            while ((n = reader.read(buf)) > 0)
+                sb.append(buf, 0, n);
+            return sb.toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to read " + name, e);
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
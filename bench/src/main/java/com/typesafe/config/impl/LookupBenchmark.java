@@ -0,0 +1,88 @@
+package com.typesafe.config.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValue;
+
+/**
+ * The getters on a resolved config: a sample of every path in it, the
+ * typed getters that parse durations and sizes, and missing paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+    @Param({ "small", "medium", "huge" })
+    public String size;
+
+    private Config config;
+    private String[] paths;
+    private String[] missingPaths;
+
+    @Setup
+    public void setup() {
+        config = BenchmarkConfigs.parseResolved(BenchmarkConfigs.text(size));
+        List<String> all = new ArrayList<String>();
+        for (Map.Entry<String, ConfigValue> entry : config.entrySet())
+            all.add(entry.getKey());
+        // spread the sample over the whole config
+        int count = Math.min(1000, all.size());
+        paths = new String[count];
+        missingPaths = new String[count];
+        for (int i = 0; i < count; ++i) {
+            paths[i] = all.get((int) ((long) i * all.size() / count));
+            missingPaths[i] = paths[i] + ".missing";
+        }
+    }
+
+    @Benchmark
+    public void getValue(Blackhole bh) {
+        for (String path : paths)
+            bh.consume(config.getValue(path));
+    }
+
+    @Benchmark
+    public void hasPathMissing(Blackhole bh) {
+        for (String path : missingPaths)
+            bh.consume(config.hasPath(path));
+    }
+
+    @Benchmark
+    public void typedGetters(Blackhole bh) {
+        bh.consume(config.getString("service-0.host"));
+        bh.consume(config.getInt("service-0.port"));
+        bh.consume(config.getString("service-0.url"));
+        bh.consume(config.getDuration("service-0.timeout"));
+        bh.consume(config.getDuration("service-0.timeout", TimeUnit.MILLISECONDS));
+        bh.consume(config.getBytes("service-0.buffer"));
+        bh.consume(config.getMemorySize("service-0.buffer"));
+        bh.consume(config.getStringList("service-0.tags"));
+        bh.consume(config.getBoolean("service-0.nested.enabled"));
+        bh.consume(config.getDouble("service-0.nested.ratio"));
+    }
+
+    @Benchmark
+    public Config getConfig() {
+        return config.getConfig("service-0.nested");
+    }
+}
@@ -0,0 +1,59 @@
+package com.typesafe.config.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.typesafe.config.Config;
+
+/**
+ * withFallback() of overrides for half the services over the whole config,
+ * resolved and unresolved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeBenchmark {
+    @Param({ "small", "medium", "huge" })
+    public String size;
+
+    private Config overrides;
+    private Config resolved;
+    private Config unresolved;
+
+    @Setup
+    public void setup() {
+        String text = BenchmarkConfigs.text(size);
+        overrides = BenchmarkConfigs.parseResolved(BenchmarkConfigs.overrides(size));
+        unresolved = BenchmarkConfigs.parse(text);
+        resolved = unresolved.resolve();
+    }
+
+    @Benchmark
+    public Config withFallbackResolved() {
+        return overrides.withFallback(resolved);
+    }
+
+    @Benchmark
+    public Config withFallbackUnresolved() {
+        return overrides.withFallback(unresolved);
+    }
+
+    @Benchmark
+    public Config withFallbackAndResolve() {
+        return overrides.withFallback(unresolved).resolve();
+    }
+}
@@ -0,0 +1,78 @@
+package com.typesafe.config.impl;
+
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigSyntax;
+
+/**
+ * Each stage of parsing on its own (tokenizing, building the document tree,
+ * building values from it) and all of them together.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({ "small", "medium", "huge" })
+    public String size;
+
+    private String text;
+    private ConfigOrigin origin;
+    private ConfigParseOptions options;
+    private ConfigNodeRoot document;
+    private Parseable parseable;
+
+    @Setup
+    public void setup() {
+        text = BenchmarkConfigs.text(size);
+        origin = SimpleConfigOrigin.newSimple("benchmark");
+        options = ConfigParseOptions.defaults().setSyntax(ConfigSyntax.CONF);
+        parseable = Parseable.newString(text, options);
+        document = ConfigDocumentParser.parse(tokenize(), origin, options);
+    }
+
+    private Iterator<Token> tokenize() {
+        return Tokenizer.tokenize(origin, new StringReader(text), ConfigSyntax.CONF);
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole bh) {
+        Iterator<Token> tokens = tokenize();
+        while (tokens.hasNext())
+            bh.consume(tokens.next());
+    }
+
+    @Benchmark
+    public ConfigNodeRoot parseDocument() {
+        return ConfigDocumentParser.parse(tokenize(), origin, options);
+    }
+
+    @Benchmark
+    public AbstractConfigValue parseValues() {
+        return ConfigParser.parse(document, origin, options, parseable.includeContext());
+    }
+
+    @Benchmark
+    public Object parseString() {
+        return Parseable.newString(text, options).parse();
+    }
+}
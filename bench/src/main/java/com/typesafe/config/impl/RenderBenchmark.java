@@ -0,0 +1,55 @@
+package com.typesafe.config.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigRenderOptions;
+
+/**
+ * Rendering a resolved config with the default options (comments and
+ * origins), as concise JSON, and as formatted HOCON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+    @Param({ "small", "medium", "huge" })
+    public String size;
+
+    private ConfigObject root;
+
+    @Setup
+    public void setup() {
+        root = BenchmarkConfigs.parseResolved(BenchmarkConfigs.text(size)).root();
+    }
+
+    @Benchmark
+    public String renderDefaults() {
+        return root.render();
+    }
+
+    @Benchmark
+    public String renderConcise() {
+        return root.render(ConfigRenderOptions.concise());
+    }
+
+    @Benchmark
+    public String renderHocon() {
+        return root.render(ConfigRenderOptions.defaults().setOriginComments(false).setJson(false));
+    }
+}
@@ -0,0 +1,147 @@
+package com.typesafe.config.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.ConfigResolveSession;
+
+/**
+ * Resolving substitutions in a freshly parsed tree. The resolved configs
+ * are thrown away, so every iteration starts from the same unresolved tree;
+ * resolveWithSession instead alternates between two different overrides
+ * layered onto that tree, with a ConfigResolveSession which has already
+ * resolved the tree, so each iteration redoes what its override affects.
+ *
+ * Each kind of input is its own state with its own parameters, so that
+ * resolveChain, resolveManySubstitutions and loadPlainData aren't repeated
+ * for every size; run with -prof gc to see what each resolve allocates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolveBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Tree {
+        @Param({ "small", "medium", "huge" })
+        public String size;
+
+        Config unresolved;
+        AbstractConfigObject root;
+        Config[] layered;
+        int next;
+        ConfigResolveOptions withSession;
+
+        @Setup
+        public void setup() {
+            unresolved = BenchmarkConfigs.parse(BenchmarkConfigs.text(size));
+            root = ((SimpleConfig) unresolved).root();
+            layered = new Config[] { ConfigFactory.parseString("defaults.timeout = 10s").withFallback(unresolved),
+                    ConfigFactory.parseString("defaults.timeout = 20s").withFallback(unresolved) };
+            withSession = ConfigResolveOptions.defaults().setResolveSession(ConfigResolveSession.create());
+            unresolved.resolve(withSession);
+        }
+    }
+
+    // one long chain of substitutions, each pointing at the one before, so
+    // resolving goes deep and follows many substitutions in a row
+    @State(Scope.Benchmark)
+    public static class Chain {
+        @Param({ "300", "3000" })
+        public int length;
+
+        Config unresolved;
+
+        @Setup
+        public void setup() {
+            StringBuilder sb = new StringBuilder("v0 = 0\n");
+            for (int i = 1; i <= length; ++i)
+                sb.append("v").append(i).append(" = ${v").append(i - 1).append("}\n");
+            unresolved = BenchmarkConfigs.parse(sb.toString());
+        }
+    }
+
+    // many substitutions which each resolve quickly, so the time goes into
+    // memoizing what they resolved to
+    @State(Scope.Benchmark)
+    public static class Substitutions {
+        @Param({ "10000" })
+        public int count;
+
+        Config unresolved;
+
+        @Setup
+        public void setup() {
+            StringBuilder sb = new StringBuilder("base = 1\n");
+            for (int i = 1; i <= count; ++i)
+                sb.append("a.k").append(i).append(" = ${base}\n");
+            unresolved = BenchmarkConfigs.parse(sb.toString());
+        }
+    }
+
+    // no substitutions anywhere, so load() only has to merge it with the
+    // system properties and reference config, and resolving is a no-op
+    @State(Scope.Benchmark)
+    public static class PlainData {
+        @Param({ "200" })
+        public int count;
+
+        Config unresolved;
+
+        @Setup
+        public void setup() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 1; i <= count; ++i)
+                sb.append("s").append(i).append(" { x = ").append(i).append(", y = str").append(i)
+                        .append(", z = [1, 2, 3] }\n");
+            unresolved = BenchmarkConfigs.parse(sb.toString());
+        }
+    }
+
+    @Benchmark
+    public AbstractConfigValue resolveContext(Tree tree) {
+        return ResolveContext.resolve(tree.root, tree.root, ConfigResolveOptions.defaults());
+    }
+
+    @Benchmark
+    public Config resolve(Tree tree) {
+        return tree.unresolved.resolve();
+    }
+
+    @Benchmark
+    public Config resolveWithSession(Tree tree) {
+        tree.next = 1 - tree.next;
+        return tree.layered[tree.next].resolve(tree.withSession);
+    }
+
+    @Benchmark
+    public Config resolveChain(Chain chain) {
+        return chain.unresolved.resolve();
+    }
+
+    @Benchmark
+    public Config resolveManySubstitutions(Substitutions substitutions) {
+        return substitutions.unresolved.resolve();
+    }
+
+    @Benchmark
+    public Config loadPlainData(PlainData plain) {
+        return ConfigFactory.load(plain.unresolved);
+    }
+}
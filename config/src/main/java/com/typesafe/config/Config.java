@@ -310,6 +310,71 @@ public interface Config extends ConfigMergeable {
      */
     Config resolveWith(Config source, ConfigResolveOptions options);
 
+    /**
+     * Returns a {@code Config} with the same contents as this one, plus an
+     * index from every full path to its value, so that the getters find a
+     * value with one hash lookup instead of walking one nested object per
+     * path element. This is worthwhile for a large config which is read
+     * often and then kept around; building the index visits every value
+     * once and keeps an extra map entry per value.
+     *
+     * <p>
+     * The returned config behaves exactly like this one, including null
+     * values, exceptions and origins. The index only applies to the returned
+     * instance; a {@code Config} derived from it, for example with
+     * {@link #withValue} or {@link #withFallback}, is not indexed.
+     *
+     * @return an indexed copy of this config (or this config, if it's
+     *         already indexed)
+     * @throws ConfigException.NotResolved
+     *             if the config is not resolved
+     * @since 1.5.0
+     */
+    Config toIndexed();
+
+    /**
+     * Returns a {@code Config} with the same contents as this one, stored in
+     * less memory. Each object keeps its keys in a sorted array rather than
+     * a hash table, keys are interned so that every object with a given key
+     * shares one string, and values whose origins are equal share one
+     * origin. This is worthwhile for a config which is kept around for a
+     * long time, especially when there are many of them in one JVM; it
+     * visits every value once, and lookups in a compact config are about as
+     * fast as before.
+     *
+     * <p>
+     * The returned config is equal to this one and behaves exactly like it,
+     * including origins and rendering. A {@code Config} derived from it, for
+     * example with {@link #withValue} or {@link #withFallback}, keeps the
+     * compact representation for the objects it didn't change. An index
+     * built by {@link #toIndexed()} is not carried over to the compact copy,
+     * so compact first and index afterward if you want both.
+     *
+     * @return a compact copy of this config (or this config, if it's
+     *         already compact)
+     * @throws ConfigException.NotResolved
+     *             if the config is not resolved
+     * @since 1.5.0
+     */
+    Config compact();
+
+    /**
+     * Returns the substitutions in this config and the settings they depend
+     * on, without resolving anything. The graph shows which settings a
+     * {@link #resolve()} will have to resolve and in what order, the length
+     * of each chain of substitutions, and any cycles, which make the resolve
+     * fail. See {@link ConfigSubstitutionGraph} for how it relates settings
+     * to each other.
+     *
+     * <p>
+     * This visits every value in the config, so it costs about as much as
+     * rendering it; the graph of a resolved config is empty.
+     *
+     * @return the substitution graph of this config
+     * @since 1.5.0
+     */
+    ConfigSubstitutionGraph substitutionGraph();
+
     /**
      * Validates this config against a reference config, throwing an exception
      * if it is invalid. The purpose of this method is to "fail early" with a
@@ -492,6 +557,27 @@ public interface Config extends ConfigMergeable {
      */
     Set<Map.Entry<String, ConfigValue>> entrySet();
 
+    /**
+     * Compares this config with another one, usually a newer version of
+     * the same config, and returns the paths which were added, removed or
+     * changed, as if comparing the {@link #entrySet()} of both configs. The
+     * two trees are walked together and any object which is the same
+     * instance in both is skipped without looking inside it; a config
+     * derived from another one with {@link #withValue}, {@link #withFallback}
+     * and so on shares everything that wasn't changed, so diffing it against
+     * the original costs time proportional to what changed rather than to
+     * the size of the config.
+     *
+     * @param other
+     *            the config to compare with this one
+     * @return the differences, with values from this config as "before"
+     *         and values from {@code other} as "after"
+     * @throws ConfigException.NotResolved
+     *             if either config is not resolved
+     * @since 1.5.0
+     */
+    ConfigDiff diff(Config other);
+
     /**
      * Checks whether a value is set to null at the given path,
      * but throws an exception if the value is entirely
@@ -1136,4 +1222,620 @@ public interface Config extends ConfigMergeable {
      * @return the new instance with the new map entry
      */
     Config withValue(String path, ConfigValue value);
+
+    /**
+     * Like {@link #hasPath(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return true if a non-null value is present at the path
+     */
+    boolean hasPath(ConfigPath path);
+
+    /**
+     * Like {@link #hasPathOrNull(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return true if a value is present at the path, even if the value is null
+     */
+    boolean hasPathOrNull(ConfigPath path);
+
+    /**
+     * Like {@link #getIsNull(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return true if the value exists and is null, false if it exists and is not null
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     */
+    boolean getIsNull(ConfigPath path);
+
+    /**
+     * Like {@link #getBoolean(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the boolean value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to boolean
+     */
+    boolean getBoolean(ConfigPath path);
+
+    /**
+     * Like {@link #getNumber(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the numeric value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to number
+     */
+    Number getNumber(ConfigPath path);
+
+    /**
+     * Like {@link #getInt(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the 32-bit integer value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to an int (for example it is out of the range of an int or it's not a number)
+     */
+    int getInt(ConfigPath path);
+
+    /**
+     * Like {@link #getLong(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the 64-bit long value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a long
+     */
+    long getLong(ConfigPath path);
+
+    /**
+     * Like {@link #getDouble(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the floating-point value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a double
+     */
+    double getDouble(ConfigPath path);
+
+    /**
+     * Like {@link #getString(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the string value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a string
+     */
+    String getString(ConfigPath path);
+
+    /**
+     * Like {@link #getEnum(Class, String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param enumClass
+     *            an enum class
+     * @param <T>
+     *            a generic denoting a specific type of enum
+     * @param path
+     *            compiled path expression
+     * @return the {@code Enum} value at the requested path
+     *              of the requested enum class
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to an Enum
+     */
+    <T extends Enum<T>> T getEnum(Class<T> enumClass, ConfigPath path);
+
+    /**
+     * Like {@link #getObject(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the {@link ConfigObject} value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to an object
+     */
+    ConfigObject getObject(ConfigPath path);
+
+    /**
+     * Like {@link #getConfig(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the nested {@code Config} value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a Config
+     */
+    Config getConfig(ConfigPath path);
+
+    /**
+     * Like {@link #getAnyRef(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the unwrapped value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     */
+    Object getAnyRef(ConfigPath path);
+
+    /**
+     * Like {@link #getValue(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     */
+    ConfigValue getValue(ConfigPath path);
+
+    /**
+     * Like {@link #getBytes(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the value at the requested path, in bytes
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to Long or String
+     * @throws ConfigException.BadValue
+     *             if value cannot be parsed as a size in bytes
+     */
+    Long getBytes(ConfigPath path);
+
+    /**
+     * Like {@link #getMemorySize(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the value at the requested path, in bytes
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to Long or String
+     * @throws ConfigException.BadValue
+     *             if value cannot be parsed as a size in bytes
+     */
+    ConfigMemorySize getMemorySize(ConfigPath path);
+
+    /**
+     * Like {@link #getDuration(String, TimeUnit)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @param unit
+     *            convert the return value to this time unit
+     * @return the duration value at the requested path, in the given TimeUnit
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to Long or String
+     * @throws ConfigException.BadValue
+     *             if value cannot be parsed as a number of the given TimeUnit
+     */
+    long getDuration(ConfigPath path, TimeUnit unit);
+
+    /**
+     * Like {@link #getDuration(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the duration value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to Long or String
+     * @throws ConfigException.BadValue
+     *             if value cannot be parsed as a number of the given TimeUnit
+     */
+    Duration getDuration(ConfigPath path);
+
+    /**
+     * Like {@link #getPeriod(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the period value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to Long or String
+     * @throws ConfigException.BadValue
+     *             if value cannot be parsed as a period
+     */
+    Period getPeriod(ConfigPath path);
+
+    /**
+     * Like {@link #getTemporal(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the temporal value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to Long or String
+     * @throws ConfigException.BadValue
+     *             if value cannot be parsed as a duration or a period
+     */
+    TemporalAmount getTemporal(ConfigPath path);
+
+    /**
+     * Like {@link #getList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the {@link ConfigList} value at the requested path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list
+     */
+    ConfigList getList(ConfigPath path);
+
+    /**
+     * Like {@link #getBooleanList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of booleans
+     */
+    List<Boolean> getBooleanList(ConfigPath path);
+
+    /**
+     * Like {@link #getNumberList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of numbers
+     */
+    List<Number> getNumberList(ConfigPath path);
+
+    /**
+     * Like {@link #getIntList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of ints
+     */
+    List<Integer> getIntList(ConfigPath path);
+
+    /**
+     * Like {@link #getLongList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of longs
+     */
+    List<Long> getLongList(ConfigPath path);
+
+    /**
+     * Like {@link #getDoubleList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of doubles
+     */
+    List<Double> getDoubleList(ConfigPath path);
+
+    /**
+     * Like {@link #getStringList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of strings
+     */
+    List<String> getStringList(ConfigPath path);
+
+    /**
+     * Like {@link #getEnumList(Class, String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param <T>
+     *            a generic denoting a specific type of enum
+     * @param enumClass
+     *            an enum class
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of strings
+     * @throws ConfigException.BadValue
+     *             if value cannot be converted to the enum
+     */
+    <T extends Enum<T>> List<T> getEnumList(Class<T> enumClass, ConfigPath path);
+
+    /**
+     * Like {@link #getObjectList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of objects
+     */
+    List<? extends ConfigObject> getObjectList(ConfigPath path);
+
+    /**
+     * Like {@link #getConfigList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of objects
+     */
+    List<? extends Config> getConfigList(ConfigPath path);
+
+    /**
+     * Like {@link #getAnyRefList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list
+     */
+    List<? extends Object> getAnyRefList(ConfigPath path);
+
+    /**
+     * Like {@link #getBytesList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of memory sizes
+     * @throws ConfigException.BadValue
+     *             if a value cannot be parsed as a number of bytes
+     */
+    List<Long> getBytesList(ConfigPath path);
+
+    /**
+     * Like {@link #getMemorySizeList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of memory sizes
+     * @throws ConfigException.BadValue
+     *             if a value cannot be parsed as a memory size
+     */
+    List<ConfigMemorySize> getMemorySizeList(ConfigPath path);
+
+    /**
+     * Like {@link #getDurationList(String, TimeUnit)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @param unit
+     *            time units of the returned values
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of durations
+     * @throws ConfigException.BadValue
+     *             if a value cannot be parsed as a duration
+     */
+    List<Long> getDurationList(ConfigPath path, TimeUnit unit);
+
+    /**
+     * Like {@link #getDurationList(String)} but takes a path compiled with
+     * {@link ConfigUtil#compilePath(String)}, so the path expression is not
+     * parsed again on each call.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            compiled path expression
+     * @return the list at the path
+     * @throws ConfigException.Missing
+     *             if value is absent or null
+     * @throws ConfigException.WrongType
+     *             if value is not convertible to a list of durations
+     * @throws ConfigException.BadValue
+     *             if a value cannot be parsed as a duration
+     */
+    List<Duration> getDurationList(ConfigPath path);
 }
@@ -0,0 +1,82 @@
+package com.typesafe.config;
+
+import com.typesafe.config.impl.ConfigBuilderImpl;
+
+/**
+ * Applies many edits to a {@link Config} at once. Chaining
+ * {@link Config#withValue(String, ConfigValue)} creates a new config, and a
+ * new object for each level of the edited path, on every call; a builder
+ * instead collects the edits and creates each changed object only once, in
+ * {@link #build()}. Unchanged objects are shared with the original config.
+ *
+ * <p>
+ * The config built is exactly the one you'd get by calling
+ * {@link Config#withValue(String, ConfigValue)} for each {@link #set} and
+ * {@link Config#withoutPath(String)} for each {@link #remove}, in the same
+ * order, including the origins of any objects created along the way.
+ *
+ * <p>
+ * Unlike everything else in this library, a builder is mutable and not
+ * thread-safe. The {@link Config}s it builds are immutable as usual, and
+ * editing the builder after {@link #build()} doesn't affect them.
+ *
+ * @since 1.5.0
+ */
+public final class ConfigBuilder {
+    final private ConfigBuilderImpl impl;
+
+    private ConfigBuilder(ConfigBuilderImpl impl) {
+        this.impl = impl;
+    }
+
+    /**
+     * Starts editing a config.
+     *
+     * @param config
+     *            the config to start from; it isn't modified
+     * @return a builder holding the same paths and values as the config
+     */
+    public static ConfigBuilder from(Config config) {
+        return new ConfigBuilder(ConfigBuilderImpl.fromInternal(config));
+    }
+
+    /**
+     * Sets the value at a path, like
+     * {@link Config#withValue(String, ConfigValue)}.
+     *
+     * @param path
+     *            path expression for the value's new location
+     * @param value
+     *            value at the new path
+     * @return this builder
+     * @throws ConfigException.BadPath
+     *             if the path expression is invalid
+     */
+    public ConfigBuilder set(String path, ConfigValue value) {
+        impl.set(path, value);
+        return this;
+    }
+
+    /**
+     * Removes the value at a path, like {@link Config#withoutPath(String)}.
+     *
+     * @param path
+     *            path expression for the value to remove
+     * @return this builder
+     * @throws ConfigException.BadPath
+     *             if the path expression is invalid
+     */
+    public ConfigBuilder remove(String path) {
+        impl.remove(path);
+        return this;
+    }
+
+    /**
+     * Creates a config with all the edits made so far.
+     *
+     * @return the edited config
+     */
+    public Config build() {
+        return impl.build();
+    }
+}
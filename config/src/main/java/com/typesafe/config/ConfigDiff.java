@@ -0,0 +1,106 @@
+package com.typesafe.config;
+
+import java.util.Set;
+
+/**
+ * The differences between two {@link Config}s, as returned by
+ * {@link Config#diff(Config)}. A diff is made of the paths whose values were
+ * added, removed or changed, in the same terms as {@link Config#entrySet()}:
+ * paths are <em>path expressions</em> leading to leaf values, and null values
+ * count as missing. Values are compared with {@link Object#equals(Object)},
+ * so a value which only moved to another file is not a change. The values on
+ * either side are available, with their origins, from {@link #before(String)}
+ * and {@link #after(String)}.
+ *
+ * <p>
+ * The path sets are sorted, and like everything in this library a diff is
+ * immutable.
+ *
+ * <p>
+ * <em>Do not implement {@code ConfigDiff}</em>; it should only be implemented
+ * by the config library. Arbitrary implementations will not work because the
+ * library internals assume a specific concrete implementation. Also, this
+ * interface is likely to grow new methods over time, so third-party
+ * implementations will break.
+ *
+ * @since 1.5.0
+ */
+public interface ConfigDiff {
+    /**
+     * Returns true if the two configs have the same paths and values.
+     *
+     * @return true if nothing was added, removed or changed
+     */
+    boolean isEmpty();
+
+    /**
+     * The paths set in the second config but not in the first.
+     *
+     * @return paths that were added
+     */
+    Set<String> added();
+
+    /**
+     * The paths set in the first config but not in the second.
+     *
+     * @return paths that were removed
+     */
+    Set<String> removed();
+
+    /**
+     * The paths set in both configs, to values which are not equal.
+     *
+     * @return paths whose values changed
+     */
+    Set<String> changed();
+
+    /**
+     * All the added, removed and changed paths.
+     *
+     * @return every path that differs
+     */
+    Set<String> paths();
+
+    /**
+     * Returns true if the value at a path, or any value below it, differs.
+     * For example, if {@code a.b.c} changed then {@code a.b}, {@code a.b.c}
+     * and {@code a} are affected, and {@code a.x} and {@code a.b.c.d} are
+     * not. A component configured from {@code a.b} would check
+     * {@code affects("a.b")}.
+     *
+     * <p>
+     * A path which changed from an object to a leaf value, or the other way
+     * around, shows up as the leaf paths which went away and came along, so
+     * {@code affects} is true for the path itself and for the paths below it
+     * which were removed or added.
+     *
+     * @param path
+     *            a path expression
+     * @return true if a value at or below the path differs
+     * @throws ConfigException.BadPath
+     *             if the path expression is invalid
+     */
+    boolean affects(String path);
+
+    /**
+     * The value at a path in the first config, for a path which was removed
+     * or changed.
+     *
+     * @param path
+     *            a path returned by {@link #removed()} or {@link #changed()}
+     * @return the value in the first config, or null if the path is not a
+     *         removed or changed path
+     */
+    ConfigValue before(String path);
+
+    /**
+     * The value at a path in the second config, for a path which was added
+     * or changed.
+     *
+     * @param path
+     *            a path returned by {@link #added()} or {@link #changed()}
+     * @return the value in the second config, or null if the path is not an
+     *         added or changed path
+     */
+    ConfigValue after(String path);
+}
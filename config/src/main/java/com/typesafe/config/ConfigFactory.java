@@ -4,6 +4,7 @@
 package com.typesafe.config;
 
 import com.typesafe.config.impl.ConfigImpl;
+import com.typesafe.config.impl.ConfigSnapshotImpl;
 import com.typesafe.config.impl.Parseable;
 
 import java.io.File;
@@ -40,6 +41,7 @@ import java.util.concurrent.Callable;
 public final class ConfigFactory {
     private static final String STRATEGY_PROPERTY_NAME = "config.strategy";
     private static final String OVERRIDE_WITH_ENV_PROPERTY_NAME = "config.override_with_env_vars";
+    private static final String SNAPSHOT_PROPERTY_NAME = "config.snapshot";
 
     private ConfigFactory() {
     }
@@ -229,6 +231,13 @@ public final class ConfigFactory {
      * This method may return a cached singleton so will not see changes to
      * system properties or config files. (Use {@link #invalidateCaches()} to
      * force it to reload.)
+     * <p>
+     * If the {@code config.snapshot} system property names a file written by
+     * {@link ConfigSnapshot#writeDefault(ClassLoader, File)}, and the
+     * application and reference config files have not changed since it was
+     * written, the snapshot is used instead of parsing those files. A snapshot
+     * is ignored if {@code config.resource}, {@code config.file},
+     * {@code config.url} or {@code config.strategy} is set.
      *
      * @return configuration for an application
      */
@@ -261,11 +270,27 @@ public final class ConfigFactory {
         return ConfigImpl.computeCachedConfig(loader, "load", new Callable<Config>() {
             @Override
             public Config call() {
+                Config snapshot = loadSnapshotOrNull(loader);
+                if (snapshot != null)
+                    return defaultOverrides(loader).withFallback(snapshot).resolve();
                 return load(loader, defaultApplication(withLoader));
             }
         });
     }
 
+    private static Config loadSnapshotOrNull(ClassLoader loader) {
+        String snapshot = System.getProperty(SNAPSHOT_PROPERTY_NAME);
+        if (snapshot == null)
+            return null;
+        // the snapshot only holds the default application and reference
+        // config, so anything that replaces those means we can't use it
+        if (System.getProperty("config.resource") != null || System.getProperty("config.file") != null
+                || System.getProperty("config.url") != null
+                || System.getProperty(STRATEGY_PROPERTY_NAME) != null)
+            return null;
+        return ConfigSnapshotImpl.readIfCurrentInternal(new File(snapshot), loader);
+    }
+
     /**
      * Like {@link #load()} but allows specifying a class loader other than the
      * thread's current context class loader and also specify parse options.
@@ -0,0 +1,36 @@
+package com.typesafe.config;
+
+/**
+ * How much of each parsed value's origin to keep, set with
+ * {@link ConfigParseOptions#setOriginTracking(ConfigOriginTracking)}. The
+ * levels are in order from least to most detail. Less detail means fewer
+ * distinct {@link ConfigOrigin}s, and so a smaller config, for apps which
+ * never render their config with origins or look at
+ * {@link ConfigValue#origin()}. Errors found while parsing still give the
+ * line number at every level, but errors found later, such as a value with
+ * the wrong type, can only give as much as was kept.
+ *
+ * @since 1.5.0
+ */
+public enum ConfigOriginTracking {
+    /**
+     * Keep nothing; every parsed value shares one origin which only says
+     * that its origin wasn't tracked.
+     */
+    NONE,
+    /**
+     * Keep the file, resource or URL each value came from, but not the line
+     * number or comments; every value parsed from a file shares the file's
+     * origin.
+     */
+    FILE,
+    /**
+     * Keep the file and line number of each value, but not comments.
+     */
+    LINE,
+    /**
+     * Keep the file, line number and comments of each value. This is the
+     * default.
+     */
+    FULL;
+}
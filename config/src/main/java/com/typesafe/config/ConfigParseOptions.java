@@ -28,14 +28,19 @@ public final class ConfigParseOptions {
     final boolean allowMissing;
     final ConfigIncluder includer;
     final ClassLoader classLoader;
+    final boolean parallelResources;
+    final ConfigOriginTracking originTracking;
 
     private ConfigParseOptions(ConfigSyntax syntax, String originDescription, boolean allowMissing,
-            ConfigIncluder includer, ClassLoader classLoader) {
+            ConfigIncluder includer, ClassLoader classLoader, boolean parallelResources,
+            ConfigOriginTracking originTracking) {
         this.syntax = syntax;
         this.originDescription = originDescription;
         this.allowMissing = allowMissing;
         this.includer = includer;
         this.classLoader = classLoader;
+        this.parallelResources = parallelResources;
+        this.originTracking = originTracking;
     }
 
     /**
@@ -45,7 +50,7 @@ public final class ConfigParseOptions {
      * @return the default parse options
      */
     public static ConfigParseOptions defaults() {
-        return new ConfigParseOptions(null, null, true, null, null);
+        return new ConfigParseOptions(null, null, true, null, null, false, ConfigOriginTracking.FULL);
     }
 
     /**
@@ -61,7 +66,7 @@ public final class ConfigParseOptions {
             return this;
         else
             return new ConfigParseOptions(syntax, this.originDescription, this.allowMissing,
-                    this.includer, this.classLoader);
+                    this.includer, this.classLoader, this.parallelResources, this.originTracking);
     }
 
     /**
@@ -103,7 +108,7 @@ public final class ConfigParseOptions {
             return this;
         else
             return new ConfigParseOptions(this.syntax, originDescription, this.allowMissing,
-                    this.includer, this.classLoader);
+                    this.includer, this.classLoader, this.parallelResources, this.originTracking);
     }
 
     /**
@@ -136,7 +141,7 @@ public final class ConfigParseOptions {
             return this;
         else
             return new ConfigParseOptions(this.syntax, this.originDescription, allowMissing,
-                    this.includer, this.classLoader);
+                    this.includer, this.classLoader, this.parallelResources, this.originTracking);
     }
 
     /**
@@ -159,7 +164,7 @@ public final class ConfigParseOptions {
             return this;
         else
             return new ConfigParseOptions(this.syntax, this.originDescription, this.allowMissing,
-                    includer, this.classLoader);
+                    includer, this.classLoader, this.parallelResources, this.originTracking);
     }
 
     /**
@@ -223,7 +228,7 @@ public final class ConfigParseOptions {
             return this;
         else
             return new ConfigParseOptions(this.syntax, this.originDescription, this.allowMissing,
-                    this.includer, loader);
+                    this.includer, loader, this.parallelResources, this.originTracking);
     }
 
     /**
@@ -239,4 +244,82 @@ public final class ConfigParseOptions {
         else
             return this.classLoader;
     }
+
+    /**
+     * Set to true to parse all the resources with the requested name in
+     * parallel, when parsing a classpath resource which several jars or
+     * directories provide (as is common for <code>reference.conf</code>).
+     * Each resource is parsed on the common {@link java.util.concurrent.ForkJoinPool},
+     * and the results are merged in the same order as when parsing them one
+     * at a time, so the resulting config is the same either way. This can
+     * also be enabled for every resource parse, including the
+     * <code>reference.conf</code> loaded by {@link ConfigFactory#load()}, by
+     * setting the system property <code>config.parallel-resources</code> to
+     * <code>true</code>.
+     *
+     * @since 1.5.0
+     *
+     * @param parallelResources true to parse resources in parallel
+     * @return options with the "parallel resources" flag set
+     */
+    public ConfigParseOptions setParallelResourceParsing(boolean parallelResources) {
+        if (this.parallelResources == parallelResources)
+            return this;
+        else
+            return new ConfigParseOptions(this.syntax, this.originDescription, this.allowMissing,
+                    this.includer, this.classLoader, parallelResources, this.originTracking);
+    }
+
+    /**
+     * Gets the current "parallel resources" flag; note that the
+     * <code>config.parallel-resources</code> system property can enable
+     * parallel parsing even when this is false.
+     *
+     * @since 1.5.0
+     *
+     * @return whether resources are parsed in parallel
+     */
+    public boolean getParallelResourceParsing() {
+        return parallelResources;
+    }
+
+    /**
+     * Set how much of each parsed value's origin to keep; see
+     * {@link ConfigOriginTracking}. The default is
+     * {@link ConfigOriginTracking#FULL}, which keeps line numbers and
+     * comments. Apps which never look at origins, or only at the file a
+     * value came from, can keep less and end up with a smaller config. This
+     * can also be set for every parse, including the ones done by
+     * {@link ConfigFactory#load()}, by setting the system property
+     * <code>config.origin-tracking</code> to <code>NONE</code>,
+     * <code>FILE</code>, <code>LINE</code> or <code>FULL</code>; when both
+     * are set, the one which keeps less applies.
+     *
+     * @since 1.5.0
+     *
+     * @param originTracking how much of each origin to keep
+     * @return options with the origin tracking set
+     */
+    public ConfigParseOptions setOriginTracking(ConfigOriginTracking originTracking) {
+        if (originTracking == null)
+            throw new NullPointerException("null originTracking passed to setOriginTracking");
+        if (this.originTracking == originTracking)
+            return this;
+        else
+            return new ConfigParseOptions(this.syntax, this.originDescription, this.allowMissing,
+                    this.includer, this.classLoader, this.parallelResources, originTracking);
+    }
+
+    /**
+     * Gets the current origin tracking; note that the
+     * <code>config.origin-tracking</code> system property can keep less
+     * than this.
+     *
+     * @since 1.5.0
+     *
+     * @return how much of each origin is kept
+     */
+    public ConfigOriginTracking getOriginTracking() {
+        return originTracking;
+    }
 }
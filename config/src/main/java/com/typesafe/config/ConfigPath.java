@@ -0,0 +1,45 @@
+package com.typesafe.config;
+
+import java.util.List;
+
+/**
+ * A path expression which has already been parsed, obtained from
+ * {@link ConfigUtil#compilePath(String)}. Passing a {@code ConfigPath} to the
+ * getters on {@link Config} (for example {@link Config#getInt(ConfigPath)})
+ * means the path expression is not parsed again on every call, which is
+ * useful when the same setting is looked up many times. Every getter which
+ * takes a string path has a {@code ConfigPath} overload, apart from the
+ * deprecated {@code getMilliseconds}/{@code getNanoseconds} family.
+ *
+ * <p>
+ * A {@code ConfigPath} is immutable and can be shared across threads and
+ * across different {@code Config} instances; lookups with it behave exactly
+ * like lookups with the path expression it was compiled from, including the
+ * path shown in exception messages.
+ *
+ * <p>
+ * <em>Do not implement this interface</em>; it should only be implemented by
+ * the config library. Arbitrary implementations will not work because the
+ * library internals assume a specific concrete implementation. Also, this
+ * interface is likely to grow new methods over time, so third-party
+ * implementations will break.
+ *
+ * @since 1.5.0
+ */
+public interface ConfigPath {
+    /**
+     * Returns the path expression this path was compiled from, exactly as it
+     * was passed to {@link ConfigUtil#compilePath(String)}.
+     *
+     * @return the original path expression
+     */
+    String expression();
+
+    /**
+     * Returns the individual keys in the path, as
+     * {@link ConfigUtil#splitPath(String)} would return them.
+     *
+     * @return the keys in the path, never empty
+     */
+    List<String> keys();
+}
@@ -30,12 +30,17 @@ public final class ConfigResolveOptions {
     private final boolean useSystemEnvironment;
     private final boolean allowUnresolved;
     private final ConfigResolver resolver;
+    private final boolean parallelResolution;
+    private final ConfigResolveSession resolveSession;
 
     private ConfigResolveOptions(boolean useSystemEnvironment, boolean allowUnresolved,
-                                 ConfigResolver resolver) {
+                                 ConfigResolver resolver, boolean parallelResolution,
+                                 ConfigResolveSession resolveSession) {
         this.useSystemEnvironment = useSystemEnvironment;
         this.allowUnresolved = allowUnresolved;
         this.resolver = resolver;
+        this.parallelResolution = parallelResolution;
+        this.resolveSession = resolveSession;
     }
 
     /**
@@ -45,7 +50,7 @@ public final class ConfigResolveOptions {
      * @return the default resolve options
      */
     public static ConfigResolveOptions defaults() {
-        return new ConfigResolveOptions(true, false, NULL_RESOLVER);
+        return new ConfigResolveOptions(true, false, NULL_RESOLVER, false, null);
     }
 
     /**
@@ -67,7 +72,7 @@ public final class ConfigResolveOptions {
      * @return options with requested setting for use of environment variables
      */
     public ConfigResolveOptions setUseSystemEnvironment(boolean value) {
-        return new ConfigResolveOptions(value, allowUnresolved, resolver);
+        return new ConfigResolveOptions(value, allowUnresolved, resolver, parallelResolution, resolveSession);
     }
 
     /**
@@ -94,7 +99,7 @@ public final class ConfigResolveOptions {
      * @since 1.2.0
      */
     public ConfigResolveOptions setAllowUnresolved(boolean value) {
-        return new ConfigResolveOptions(useSystemEnvironment, value, resolver);
+        return new ConfigResolveOptions(useSystemEnvironment, value, resolver, parallelResolution, resolveSession);
     }
 
     /**
@@ -129,7 +134,7 @@ public final class ConfigResolveOptions {
             return this;
         } else {
             return new ConfigResolveOptions(useSystemEnvironment, allowUnresolved,
-                    this.resolver.withFallback(value));
+                    this.resolver.withFallback(value), parallelResolution, resolveSession);
         }
     }
 
@@ -156,6 +161,69 @@ public final class ConfigResolveOptions {
         return allowUnresolved;
     }
 
+    /**
+     * Returns options with "parallel resolution" set to the given value. When
+     * it's set, resolving a config splits the children of the root object
+     * into groups whose substitutions only refer to each other, and resolves
+     * the groups in parallel on the common
+     * {@link java.util.concurrent.ForkJoinPool}. This helps with large
+     * configs made of many independent sections, such as one per tenant.
+     * The result is the same as resolving one child at a time, and if
+     * several groups fail, the exception is the one resolving one child at
+     * a time would have thrown. A {@link ConfigResolver} added with
+     * {@link #appendResolver(ConfigResolver)} may be called from several
+     * threads at once.
+     *
+     * @since 1.5.0
+     *
+     * @param value
+     *            true to resolve independent parts of a config in parallel
+     * @return options with requested setting for parallel resolution
+     */
+    public ConfigResolveOptions setParallelResolution(boolean value) {
+        return new ConfigResolveOptions(useSystemEnvironment, allowUnresolved, resolver, value, resolveSession);
+    }
+
+    /**
+     * Returns whether the options enable parallel resolution. This method is
+     * mostly used by the config lib internally, not by applications.
+     *
+     * @return true if independent parts of a config are resolved in parallel
+     * @since 1.5.0
+     */
+    public boolean getParallelResolution() {
+        return parallelResolution;
+    }
+
+    /**
+     * Returns options which resolve with the given session, or without one
+     * if it's null, which is the default. A session remembers how each
+     * config resolved with it was resolved, so resolving a config which
+     * shares most of its values with an earlier one only redoes what could
+     * have changed; see {@link ConfigResolveSession}.
+     *
+     * @since 1.5.0
+     *
+     * @param value
+     *            the session to resolve with, or null for none
+     * @return options with the requested session
+     */
+    public ConfigResolveOptions setResolveSession(ConfigResolveSession value) {
+        return new ConfigResolveOptions(useSystemEnvironment, allowUnresolved, resolver, parallelResolution, value);
+    }
+
+    /**
+     * Returns the session to resolve with, or null if there isn't one. This
+     * method is mostly used by the config lib internally, not by
+     * applications.
+     *
+     * @return the session, or null
+     * @since 1.5.0
+     */
+    public ConfigResolveSession getResolveSession() {
+        return resolveSession;
+    }
+
     /**
      * Singleton resolver that never resolves paths.
      */
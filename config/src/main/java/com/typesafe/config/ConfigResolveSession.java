@@ -0,0 +1,61 @@
+package com.typesafe.config;
+
+import com.typesafe.config.impl.ResolveSessionImpl;
+
+/**
+ * Remembers how the configs resolved with it were resolved, so that
+ * resolving another config which shares most of its values with one of them
+ * only redoes the substitutions whose lookups could now find something
+ * different. Pass a session to
+ * {@link ConfigResolveOptions#setResolveSession(ConfigResolveSession)} and
+ * use the same options for each resolve:
+ *
+ * <pre>
+ *     ConfigResolveOptions options = ConfigResolveOptions.defaults()
+ *         .setResolveSession(ConfigResolveSession.create());
+ *     Config base = ConfigFactory.parseFile(file);
+ *     Config a = overridesA.withFallback(base).resolve(options);
+ *     Config b = overridesB.withFallback(base).resolve(options);
+ * </pre>
+ *
+ * This is worthwhile when many configs are made by layering different
+ * overrides onto one large unresolved config, such as one per tenant. The
+ * values of the unresolved config are shared by every layered copy, so
+ * after the first resolve, the others only resolve what the overrides
+ * affect. The results are the same as resolving each config without a
+ * session.
+ *
+ * <p>
+ * A session keeps the unresolved and resolved values of the last few
+ * configs resolved with it, so it holds on to them for as long as the
+ * session itself is kept; drop the session, or {@link #clear()} it, to let
+ * them go. A session can be used from several threads at once. Only a
+ * resolve of a whole config against itself, without
+ * {@link ConfigResolveOptions#setAllowUnresolved(boolean) allowUnresolved}
+ * or parallel resolution, uses the session.
+ *
+ * <p>
+ * <em>Do not implement this interface</em>; it should only be implemented by
+ * the config library. Arbitrary implementations will not work because the
+ * library internals assume a specific concrete implementation. Also, this
+ * interface is likely to grow new methods over time, so third-party
+ * implementations will break.
+ *
+ * @since 1.5.0
+ */
+public interface ConfigResolveSession {
+    /**
+     * Creates an empty session.
+     *
+     * @return a new session
+     */
+    static ConfigResolveSession create() {
+        return ResolveSessionImpl.createInternal();
+    }
+
+    /**
+     * Forgets everything the session remembers, so the next resolve with it
+     * starts from scratch.
+     */
+    void clear();
+}
@@ -0,0 +1,139 @@
+package com.typesafe.config;
+
+import java.io.File;
+
+import com.typesafe.config.impl.ConfigSnapshotImpl;
+
+/**
+ * Writes and reads binary snapshots of a config tree. Reading a snapshot
+ * skips tokenizing and parsing entirely, so it can be much faster at startup
+ * than parsing the same HOCON files again.
+ *
+ * <p>
+ * A snapshot records the URLs of the files its values came from together with
+ * a hash of their contents, so a stale snapshot can be detected (see
+ * {@link #isCurrent(File, ClassLoader)}). The usual way to use this is to run
+ * {@link #main(String[])} at build time with the application's classpath, then
+ * start the application with {@code -Dconfig.snapshot=<file>}; {@link
+ * ConfigFactory#load()} then uses the snapshot in place of
+ * {@code application.conf} and {@code reference.conf} for as long as those
+ * files are unchanged, and parses them as usual otherwise.
+ *
+ * <p>
+ * The snapshot format is private to this library and may change between
+ * versions; a snapshot written by another version is treated as out of date.
+ *
+ * @since 1.5.0
+ */
+public final class ConfigSnapshot {
+    private ConfigSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the unresolved application config merged over the
+     * unresolved reference config, that is, what {@link ConfigFactory#load()}
+     * would resolve before adding system property and environment overrides.
+     * Overrides and substitutions are applied when the snapshot is loaded.
+     *
+     * @param loader
+     *            class loader to find {@code application.conf} and
+     *            {@code reference.conf} with
+     * @param file
+     *            the file to write
+     * @throws ConfigException.IO
+     *             if the file can't be written
+     */
+    public static void writeDefault(ClassLoader loader, File file) {
+        ConfigSnapshotImpl.writeDefaultInternal(loader, file);
+    }
+
+    /**
+     * Writes a snapshot of any config, resolved or not. Its inputs are the
+     * files and URLs named by the origins of its values.
+     *
+     * @param config
+     *            the config to write
+     * @param file
+     *            the file to write
+     * @throws ConfigException.IO
+     *             if the file can't be written
+     */
+    public static void write(Config config, File file) {
+        ConfigSnapshotImpl.writeInternal(config, file);
+    }
+
+    /**
+     * Reads a snapshot without checking whether its inputs have changed. The
+     * returned config has the same values and origins as the config that was
+     * written, and is resolved only if that config was.
+     *
+     * @param file
+     *            the snapshot to read
+     * @return the config in the snapshot
+     * @throws ConfigException.IO
+     *             if the file can't be read or is not a snapshot
+     */
+    public static Config read(File file) {
+        return ConfigSnapshotImpl.readInternal(file);
+    }
+
+    /**
+     * Memory-maps a snapshot rather than reading it, and decodes values only
+     * as they are accessed: looking up a path decodes just the objects along
+     * that path, so for a very large config only the parts the application
+     * uses end up on the heap. Objects that are not yet resolved are decoded
+     * in full when they are reached. Like {@link #read(File)}, this does not
+     * check whether the snapshot's inputs have changed.
+     *
+     * <p>
+     * The file must not be modified while the returned config is in use;
+     * {@link #write(Config, File)} and {@link #writeDefault(ClassLoader, File)}
+     * replace a snapshot with a new file rather than writing over it, so it's
+     * safe to rewrite a snapshot that is mapped.
+     *
+     * @param file
+     *            the snapshot to map
+     * @return the config in the snapshot
+     * @throws ConfigException.IO
+     *             if the file can't be read or is not a snapshot
+     */
+    public static Config map(File file) {
+        return ConfigSnapshotImpl.mapInternal(file);
+    }
+
+    /**
+     * Checks whether the inputs of a snapshot still have the content they
+     * had when it was written, and for a snapshot from
+     * {@link #writeDefault(ClassLoader, File)}, that the class loader finds
+     * the same application and reference config files.
+     *
+     * @param file
+     *            the snapshot to check
+     * @param loader
+     *            class loader to look for application and reference config
+     *            with
+     * @return true if the snapshot is up to date; false if it isn't, or if it
+     *         was written in a different version of the snapshot format
+     * @throws ConfigException.IO
+     *             if the file can't be read or is not a snapshot
+     */
+    public static boolean isCurrent(File file, ClassLoader loader) {
+        return ConfigSnapshotImpl.isCurrentInternal(file, loader);
+    }
+
+    /**
+     * Writes the default snapshot for the current classpath, as
+     * {@link #writeDefault(ClassLoader, File)} does, to the file given as the
+     * only argument. Intended to be run from a build.
+     *
+     * @param args
+     *            the file to write
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: " + ConfigSnapshot.class.getName() + " <snapshot-file>");
+            System.exit(1);
+        }
+        writeDefault(Thread.currentThread().getContextClassLoader(), new File(args[0]));
+    }
+}
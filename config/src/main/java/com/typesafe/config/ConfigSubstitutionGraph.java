@@ -0,0 +1,107 @@
+package com.typesafe.config;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The substitutions in an unresolved {@link Config} and the settings each of
+ * them depends on, as returned by {@link Config#substitutionGraph()}. Use it
+ * to see what resolving a config will have to do before resolving it: which
+ * settings contain substitutions, the order they can be resolved in, how
+ * long the chains of substitutions are, and which settings depend on each
+ * other in a cycle.
+ *
+ * <p>
+ * The graph's nodes are the settings which contain substitutions, named by
+ * their paths. Objects are not nodes themselves; the settings in them are.
+ * Anything else containing a substitution is one node, including a list, a
+ * string with a substitution in it, and a setting defined more than once
+ * where one of the definitions has a substitution. A setting depends on the
+ * node each of its substitutions refers to, on any node inside the object a
+ * substitution refers to, and on the node which defines the object a
+ * substitution refers into. If the config itself is such a setting, as
+ * {@link Config#getConfig(String)} returns for an object defined as
+ * <code>${x} { ... }</code>, the graph has one node, at the empty path
+ * <code>""</code>.
+ *
+ * <p>
+ * The graph is worked out from the config without resolving anything, so
+ * it's a little more pessimistic than the resolver. A substitution of the
+ * setting's own path, such as <code>a = ${a} x</code>, refers to the value
+ * the setting overrides and isn't a dependency; but a substitution in an
+ * included file counts as depending on both its path inside the including
+ * object and the path as written, since the resolver tries one and then the
+ * other. Environment variables aren't settings, so aren't in the graph. A
+ * cycle made only of optional substitutions, such as
+ * <code>${?a}</code>, is reported even though the resolver leaves those
+ * substitutions undefined rather than failing.
+ *
+ * <p>
+ * <em>Do not implement this interface</em>; it should only be implemented by
+ * the config library. Arbitrary implementations will not work because the
+ * library internals assume a specific concrete implementation. Also, this
+ * interface is likely to grow new methods over time, so third-party
+ * implementations will break.
+ *
+ * @since 1.5.0
+ */
+public interface ConfigSubstitutionGraph {
+    /**
+     * The paths of the settings which contain substitutions, each after the
+     * paths of the settings it depends on; settings in a cycle come together,
+     * in no particular order. Empty for a resolved config.
+     *
+     * @return the path of each setting with substitutions, in an order they
+     *         could be resolved in
+     */
+    List<String> paths();
+
+    /**
+     * The paths the substitutions in a setting refer to, in the order they
+     * appear. Paths are in the form used by {@link Config#getValue(String)},
+     * and for a substitution in an included file include the path of the
+     * object the file was included into.
+     *
+     * @param path
+     *            the path of a setting, as in {@link #paths()}
+     * @return the paths the setting's substitutions refer to, or an empty set
+     *         if there's no setting with substitutions at that path
+     */
+    Set<String> substitutions(String path);
+
+    /**
+     * The settings in the graph which a setting depends on, directly.
+     *
+     * @param path
+     *            the path of a setting, as in {@link #paths()}
+     * @return the paths of the settings it depends on, in the order of
+     *         {@link #paths()}, or an empty set if there's no setting with
+     *         substitutions at that path
+     */
+    Set<String> dependencies(String path);
+
+    /**
+     * The number of settings in the longest chain of dependencies starting
+     * at a setting, counting the setting itself; a setting whose
+     * substitutions only refer to settings without substitutions has depth
+     * 1. Settings in a cycle count once.
+     *
+     * @param path
+     *            the path of a setting, as in {@link #paths()}
+     * @return the depth of the setting, or 0 if there's no setting with
+     *         substitutions at that path
+     */
+    int depth(String path);
+
+    /**
+     * The cycles in the graph. Each cycle is the paths of settings which all
+     * depend on each other, directly or indirectly; a setting which depends
+     * on itself, such as <code>a { b = ${a} }</code>, is a cycle of one.
+     * Resolving a config with a cycle fails unless the substitutions that
+     * close it are optional.
+     *
+     * @return each cycle, in the order of {@link #paths()}; empty if there
+     *         are none
+     */
+    List<List<String>> cycles();
+}
@@ -80,4 +80,22 @@ public final class ConfigUtil {
     public static List<String> splitPath(String path) {
         return ConfigImplUtil.splitPath(path);
     }
+
+    /**
+     * Parses a path expression once, so it can be passed to the getters on
+     * {@link Config} that take a {@link ConfigPath} without being parsed again
+     * on every call. Use this for settings which are looked up repeatedly,
+     * for example in a request-handling code path.
+     *
+     * @since 1.5.0
+     *
+     * @param path
+     *            a path expression
+     * @return the parsed path
+     * @throws ConfigException
+     *             if the path expression is invalid
+     */
+    public static ConfigPath compilePath(String path) {
+        return ConfigImplUtil.compilePath(path);
+    }
 }
@@ -0,0 +1,71 @@
+package com.typesafe.config;
+
+import com.typesafe.config.impl.ConfigViewImpl;
+
+/**
+ * Factory for typed, read-only views of a {@link Config}, which implement
+ * an interface made of getters. See {@link #create(Config,Class)}.
+ *
+ * @since 1.5.0
+ */
+public final class ConfigViews {
+
+    private ConfigViews() {
+    }
+
+    /**
+     * Creates an instance of an interface, with each of its getters
+     * returning a setting from a {@link Config}.
+     *
+     * Example usage:
+     *
+     * <pre>
+     * interface FooConfig {
+     *     String getName();
+     *     Duration timeout();
+     * }
+     *
+     * Config configSource = ConfigFactory.load().getConfig("foo");
+     * FooConfig config = ConfigViews.create(configSource, FooConfig.class);
+     * </pre>
+     *
+     * The interface may only have getters: methods with no parameters which
+     * return a value. The getter types supported are the ones {@link
+     * ConfigBeanFactory#create(Config,Class)} supports for bean properties,
+     * including <code>java.time.Duration</code> and {@link
+     * ConfigMemorySize}, plus other view interfaces and lists of them.
+     * Getters marked {@link Optional} return null if their setting is
+     * missing.
+     *
+     * Getters are mapped to config keys the way bean properties are, so
+     * <code>getFooBar()</code> reads the key <code>fooBar</code> or
+     * <code>foo-bar</code>; a getter without a <code>get</code> or
+     * <code>is</code> prefix, such as <code>fooBar()</code>, reads the same
+     * keys.
+     *
+     * Unlike a bean, a view is created without reflection on each call:
+     * what the library needs to know about the interface is worked out the
+     * first time it's used, and every setting is looked up and converted
+     * when the view is created, so a getter only returns a value it already
+     * has. Since a {@code Config} is immutable the view never changes.
+     * Collections returned by the getters can't be modified. Views are
+     * equal if they implement the same interface and all their getters
+     * return equal values.
+     *
+     * @since 1.5.0
+     *
+     * @param config source of config information
+     * @param iface interface to be implemented
+     * @param <T> the type of the interface
+     * @return an instance of the interface backed by the config
+     * @throws ConfigException.BadBean
+     *     If something is wrong with the interface
+     * @throws ConfigException.ValidationFailed
+     *     If the config doesn't conform to the interface's implied schema
+     * @throws ConfigException
+     *     Can throw the same exceptions as the getters on <code>Config</code>
+     */
+    public static <T> T create(Config config, Class<T> iface) {
+        return ConfigViewImpl.createInternal(config, iface);
+    }
+}
@@ -0,0 +1,169 @@
+package com.typesafe.config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import com.typesafe.config.impl.ConfigWatcherImpl;
+
+/**
+ * Keeps a {@link Config} up to date with the files it was loaded from. A
+ * watcher calls a loader you supply (for example {@code ConfigFactory::load}),
+ * remembers every file the loader parsed, including files pulled in with
+ * {@code include} and classpath resources which live in a directory rather
+ * than a jar, and watches them with a {@link java.nio.file.WatchService}. When
+ * some of them change, it waits until no more changes arrive for a short
+ * while, calls the loader again and publishes the new config to its
+ * listeners.
+ *
+ * <p>
+ * Reloading only reparses the files which changed since the last load; the
+ * values parsed from the other files are reused. While the loader runs, the
+ * configs {@link ConfigFactory#load()} and
+ * {@link ConfigFactory#defaultReference()} cache for the rest of the JVM are
+ * bypassed rather than cleared, so loaders which use them see the changes
+ * without affecting other code. System properties and environment variables
+ * are not reread; use {@link ConfigFactory#invalidateCaches()} and
+ * {@link #reload()} for those.
+ *
+ * <p>
+ * Each {@link Config} published by a watcher is immutable as usual; code
+ * holding on to an old one keeps seeing the old values. Listeners are only
+ * called when the reloaded config is different from the current one, in the
+ * order the reloads happened, on the watcher's thread or on the thread which
+ * called {@link #reload()}. If a reload fails, for example because a file
+ * has a syntax error, the current config stays as it is and the failure is
+ * passed to {@link Listener#reloadFailed(ConfigException)}.
+ *
+ * <p>
+ * Files on other filesystems than the default one, URLs other than
+ * {@code file:} URLs, and resources inside jars are not watched; call
+ * {@link #reload()} to pick up changes to those.
+ *
+ * @since 1.5.0
+ */
+public final class ConfigWatcher implements AutoCloseable {
+    /**
+     * The default time to wait for more changes before reloading, in
+     * milliseconds.
+     */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+    /**
+     * Receives the configs published by a {@link ConfigWatcher}.
+     *
+     * @since 1.5.0
+     */
+    public interface Listener {
+        /**
+         * Called after a reload produced a config different from the
+         * previous one.
+         *
+         * @param previous
+         *            the config before the reload
+         * @param current
+         *            the config after the reload, now returned by
+         *            {@link ConfigWatcher#current()}
+         */
+        void configChanged(Config previous, Config current);
+
+        /**
+         * Called when a reload done by the watcher's thread failed. The
+         * watcher keeps its current config and tries again when the files
+         * change again.
+         *
+         * @param e
+         *            the reason the reload failed
+         */
+        void reloadFailed(ConfigException e);
+    }
+
+    final private ConfigWatcherImpl impl;
+
+    private ConfigWatcher(ConfigWatcherImpl impl) {
+        this.impl = impl;
+    }
+
+    /**
+     * Loads a config and starts watching the files it came from, waiting
+     * {@link #DEFAULT_DEBOUNCE_MILLIS} for changes to settle before reloading.
+     *
+     * @param loader
+     *            loads the config; called now and after every change
+     * @return a watcher holding the loaded config
+     * @throws ConfigException
+     *             if the first load fails
+     */
+    public static ConfigWatcher watch(Callable<Config> loader) {
+        return watch(loader, DEFAULT_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Like {@link #watch(Callable)} but with the time to wait for changes to
+     * settle before reloading. Several changes within that time cause only
+     * one reload.
+     *
+     * @param loader
+     *            loads the config; called now and after every change
+     * @param debounce
+     *            how long no more changes must arrive before reloading
+     * @param unit
+     *            the unit of {@code debounce}
+     * @return a watcher holding the loaded config
+     * @throws ConfigException
+     *             if the first load fails
+     */
+    public static ConfigWatcher watch(Callable<Config> loader, long debounce, TimeUnit unit) {
+        return new ConfigWatcher(ConfigWatcherImpl.watchInternal(loader, unit.toNanos(debounce)));
+    }
+
+    /**
+     * The most recently loaded config.
+     *
+     * @return the current config
+     */
+    public Config current() {
+        return impl.current();
+    }
+
+    /**
+     * Calls the loader again now, without waiting for a change to be
+     * noticed, and publishes the result if it's different from the current
+     * config.
+     *
+     * @return the current config after the reload
+     * @throws ConfigException
+     *             if the reload fails; the current config is then unchanged
+     */
+    public Config reload() {
+        return impl.reload();
+    }
+
+    /**
+     * Adds a listener to call when the config changes.
+     *
+     * @param listener
+     *            the listener to add
+     */
+    public void addListener(Listener listener) {
+        impl.addListener(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addListener(Listener)}.
+     *
+     * @param listener
+     *            the listener to remove
+     */
+    public void removeListener(Listener listener) {
+        impl.removeListener(listener);
+    }
+
+    /**
+     * Stops watching files. The current config stays available, and
+     * {@link #reload()} still works but no longer starts watching anything.
+     */
+    @Override
+    public void close() {
+        impl.close();
+    }
+}
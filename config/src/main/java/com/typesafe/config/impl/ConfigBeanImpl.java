@@ -4,6 +4,10 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -16,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.time.Duration;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigObject;
@@ -32,6 +37,125 @@ import com.typesafe.config.Optional;
  */
 public class ConfigBeanImpl {
 
+    // everything about a bean class we can figure out without a config,
+    // computed the first time the class is used as a bean
+    private static final ClassValue<BeanBinder> binders = new ClassValue<BeanBinder>() {
+        @Override
+        protected BeanBinder computeValue(Class<?> clazz) {
+            return new BeanBinder(clazz);
+        }
+    };
+
+    private static final class BeanProperty {
+        final String name;
+        final Method setter;
+        // null if we can't get a handle, in which case we call the setter
+        // with reflection and report whatever goes wrong when we do
+        final MethodHandle setterHandle;
+        final Type parameterType;
+        final Class<?> parameterClass;
+        // null if we can't easily say
+        final ConfigValueType expectedType;
+        final boolean optional;
+
+        BeanProperty(Class<?> beanClass, PropertyDescriptor beanProp) {
+            this.name = beanProp.getName();
+            this.setter = beanProp.getWriteMethod();
+            this.setterHandle = setterHandleOrNull(setter);
+            this.parameterType = setter.getGenericParameterTypes()[0];
+            this.parameterClass = setter.getParameterTypes()[0];
+            this.expectedType = getValueTypeOrNull(parameterClass);
+            this.optional = isOptionalProperty(beanClass, beanProp);
+        }
+
+        private static MethodHandle setterHandleOrNull(Method setter) {
+            try {
+                return MethodHandles.publicLookup().unreflect(setter)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                return null;
+            }
+        }
+
+        void set(Object bean, Object value) throws IllegalAccessException, InvocationTargetException {
+            if (setterHandle == null) {
+                setter.invoke(bean, value);
+            } else {
+                try {
+                    setterHandle.invokeExact(bean, value);
+                } catch (Throwable t) {
+                    // what Method.invoke() would have thrown
+                    throw new InvocationTargetException(t);
+                }
+            }
+        }
+    }
+
+    private static final class BeanBinder {
+        // if we can't cache a key's camel case name, we work it out again
+        private static final int MAX_CAMEL_NAMES = 1024;
+
+        final Class<?> clazz;
+        // null if getBeanInfo() failed
+        final IntrospectionException introspectionFailure;
+        // properties with both a getter and a setter
+        final BeanProperty[] properties;
+        final Map<String, Integer> propertyIndex;
+        // null if there isn't a no-args constructor
+        final Constructor<?> constructor;
+        final ConcurrentHashMap<String, String> camelNames;
+
+        BeanBinder(Class<?> clazz) {
+            this.clazz = clazz;
+            this.camelNames = new ConcurrentHashMap<String, String>();
+
+            BeanInfo beanInfo = null;
+            IntrospectionException failure = null;
+            try {
+                beanInfo = Introspector.getBeanInfo(clazz);
+            } catch (IntrospectionException e) {
+                failure = e;
+            }
+            this.introspectionFailure = failure;
+
+            List<BeanProperty> beanProps = new ArrayList<BeanProperty>();
+            if (beanInfo != null) {
+                for (PropertyDescriptor beanProp : beanInfo.getPropertyDescriptors()) {
+                    if (beanProp.getReadMethod() == null || beanProp.getWriteMethod() == null) {
+                        continue;
+                    }
+                    beanProps.add(new BeanProperty(clazz, beanProp));
+                }
+            }
+            this.properties = beanProps.toArray(new BeanProperty[beanProps.size()]);
+            this.propertyIndex = new HashMap<String, Integer>();
+            for (int i = 0; i < properties.length; ++i)
+                propertyIndex.put(properties[i].name, i);
+
+            Constructor<?> noArgs = null;
+            try {
+                noArgs = clazz.getDeclaredConstructor();
+            } catch (NoSuchMethodException e) {
+                // reported when we try to make a bean
+            }
+            this.constructor = noArgs;
+        }
+
+        boolean hasBeanProperties() {
+            return properties.length > 0;
+        }
+
+        String camelName(String originalName) {
+            String camelName = camelNames.get(originalName);
+            if (camelName == null) {
+                camelName = ConfigImplUtil.toCamelCase(originalName);
+                if (camelNames.size() < MAX_CAMEL_NAMES)
+                    camelNames.put(originalName, camelName);
+            }
+            return camelName;
+        }
+    }
+
     /**
      * This is public ONLY for use by the "config" package, DO NOT USE this ABI
      * may change.
@@ -45,57 +169,45 @@ public class ConfigBeanImpl {
             throw new ConfigException.NotResolved(
                     "need to Config#resolve() a config before using it to initialize a bean, see the API docs for Config#resolve()");
 
-        Map<String, AbstractConfigValue> configProps = new HashMap<String, AbstractConfigValue>();
-        Map<String, String> originalNames = new HashMap<String, String>();
-        for (Map.Entry<String, ConfigValue> configProp : config.root().entrySet()) {
-            String originalName = configProp.getKey();
-            String camelName = ConfigImplUtil.toCamelCase(originalName);
+        BeanBinder binder = binders.get(clazz);
+        if (binder.introspectionFailure != null)
+            throw new ConfigException.BadBean("Could not get bean information for class " + clazz.getName(),
+                    binder.introspectionFailure);
+        BeanProperty[] beanProps = binder.properties;
+
+        // the config key used for each property
+        String[] originalNames = new String[beanProps.length];
+        for (String originalName : config.root().keySet()) {
+            String camelName = binder.camelName(originalName);
+            Integer index = binder.propertyIndex.get(camelName);
+            if (index == null)
+                continue;
             // if a setting is in there both as some hyphen name and the camel name,
             // the camel one wins
-            if (originalNames.containsKey(camelName) && !originalName.equals(camelName)) {
+            if (originalNames[index] != null && !originalName.equals(camelName)) {
                 // if we aren't a camel name to start with, we lose.
                 // if we are or we are the first matching key, we win.
             } else {
-                configProps.put(camelName, (AbstractConfigValue) configProp.getValue());
-                originalNames.put(camelName, originalName);
+                originalNames[index] = originalName;
             }
         }
 
-        BeanInfo beanInfo = null;
         try {
-            beanInfo = Introspector.getBeanInfo(clazz);
-        } catch (IntrospectionException e) {
-            throw new ConfigException.BadBean("Could not get bean information for class " + clazz.getName(), e);
-        }
-
-        try {
-            List<PropertyDescriptor> beanProps = new ArrayList<PropertyDescriptor>();
-            for (PropertyDescriptor beanProp : beanInfo.getPropertyDescriptors()) {
-                if (beanProp.getReadMethod() == null || beanProp.getWriteMethod() == null) {
-                    continue;
-                }
-                beanProps.add(beanProp);
-            }
-
             // Try to throw all validation issues at once (this does not comprehensively
             // find every issue, but it should find common ones).
             List<ConfigException.ValidationProblem> problems = new ArrayList<ConfigException.ValidationProblem>();
-            for (PropertyDescriptor beanProp : beanProps) {
-                Method setter = beanProp.getWriteMethod();
-                Class<?> parameterClass = setter.getParameterTypes()[0];
-
-                ConfigValueType expectedType = getValueTypeOrNull(parameterClass);
+            for (int i = 0; i < beanProps.length; ++i) {
+                BeanProperty beanProp = beanProps[i];
+                ConfigValueType expectedType = beanProp.expectedType;
                 if (expectedType != null) {
-                    String name = originalNames.get(beanProp.getName());
-                    if (name == null)
-                        name = beanProp.getName();
-                    Path path = Path.newKey(name);
-                    AbstractConfigValue configValue = configProps.get(beanProp.getName());
-                    if (configValue != null) {
-                        SimpleConfig.checkValid(path, expectedType, configValue, problems);
+                    String name = originalNames[i];
+                    if (name != null) {
+                        AbstractConfigValue configValue = (AbstractConfigValue) config.root().get(name);
+                        SimpleConfig.checkValid(Path.newKey(name), expectedType, configValue, problems);
                     } else {
-                        if (!isOptionalProperty(clazz, beanProp)) {
-                            SimpleConfig.addMissing(problems, expectedType, path, config.origin());
+                        if (!beanProp.optional) {
+                            SimpleConfig.addMissing(problems, expectedType, Path.newKey(beanProp.name),
+                                    config.origin());
                         }
                     }
                 }
@@ -106,23 +218,24 @@ public class ConfigBeanImpl {
             }
 
             // Fill in the bean instance
-            T bean = clazz.getDeclaredConstructor().newInstance();
-            for (PropertyDescriptor beanProp : beanProps) {
-                Method setter = beanProp.getWriteMethod();
-                Type parameterType = setter.getGenericParameterTypes()[0];
-                Class<?> parameterClass = setter.getParameterTypes()[0];
-                String configPropName = originalNames.get(beanProp.getName());
+            if (binder.constructor == null)
+                throw new NoSuchMethodException(clazz.getName() + ".<init>()");
+            T bean = clazz.cast(binder.constructor.newInstance());
+            for (int i = 0; i < beanProps.length; ++i) {
+                BeanProperty beanProp = beanProps[i];
+                String configPropName = originalNames[i];
                 // Is the property key missing in the config?
                 if (configPropName == null) {
                     // If so, continue if the field is marked as @{link Optional}
-                    if (isOptionalProperty(clazz, beanProp)) {
+                    if (beanProp.optional) {
                         continue;
                     }
                     // Otherwise, raise a {@link Missing} exception right here
-                    throw new ConfigException.Missing(beanProp.getName());
+                    throw new ConfigException.Missing(beanProp.name);
                 }
-                Object unwrapped = getValue(clazz, parameterType, parameterClass, config, configPropName);
-                setter.invoke(bean, unwrapped);
+                Object unwrapped = getValue(clazz, beanProp.parameterType, beanProp.parameterClass, config,
+                        configPropName);
+                beanProp.set(bean, unwrapped);
             }
             return bean;
         } catch (NoSuchMethodException e) {
@@ -144,7 +257,7 @@ public class ConfigBeanImpl {
     // setting. So, instead, we only support a limited number of
     // types plus you can always use Object, ConfigValue, Config,
     // ConfigObject, etc.  as an escape hatch.
-    private static Object getValue(Class<?> beanClass, Type parameterType, Class<?> parameterClass, Config config,
+    static Object getValue(Class<?> beanClass, Type parameterType, Class<?> parameterClass, Config config,
             String configPropName) {
         if (parameterClass == Boolean.class || parameterClass == boolean.class) {
             return config.getBoolean(configPropName);
@@ -238,7 +351,7 @@ public class ConfigBeanImpl {
     }
 
     // null if we can't easily say; this is heuristic/best-effort
-    private static ConfigValueType getValueTypeOrNull(Class<?> parameterClass) {
+    static ConfigValueType getValueTypeOrNull(Class<?> parameterClass) {
         if (parameterClass == Boolean.class || parameterClass == boolean.class) {
             return ConfigValueType.BOOLEAN;
         } else if (parameterClass == Integer.class || parameterClass == int.class) {
@@ -269,20 +382,7 @@ public class ConfigBeanImpl {
     }
 
     private static boolean hasAtLeastOneBeanProperty(Class<?> clazz) {
-        BeanInfo beanInfo = null;
-        try {
-            beanInfo = Introspector.getBeanInfo(clazz);
-        } catch (IntrospectionException e) {
-            return false;
-        }
-
-        for (PropertyDescriptor beanProp : beanInfo.getPropertyDescriptors()) {
-            if (beanProp.getReadMethod() != null && beanProp.getWriteMethod() != null) {
-                return true;
-            }
-        }
-
-        return false;
+        return binders.get(clazz).hasBeanProperties();
     }
 
     private static boolean isOptionalProperty(Class beanClass, PropertyDescriptor beanProp) {
@@ -0,0 +1,172 @@
+package com.typesafe.config.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigValue;
+
+/**
+ * Internal implementation detail, not ABI stable, do not touch.
+ * For use only by the {@link com.typesafe.config} package.
+ *
+ * Edits go into a tree of mutable nodes, one for each object on an edited
+ * path, which only records the changed keys; build() then creates one new
+ * object per node. The result is the same as calling Config.withValue() and
+ * Config.withoutPath() for each edit in turn, origins included.
+ */
+public final class ConfigBuilderImpl {
+
+    // marks a key removed from a node
+    private static final Object REMOVED = new Object();
+
+    // an object being edited: either an existing SimpleConfigObject or a
+    // new object created by set()
+    private static final class Node {
+        final SimpleConfigObject base;
+        final ConfigOrigin origin;
+        // values are AbstractConfigValue, Node, or REMOVED
+        final Map<String, Object> edits = new HashMap<String, Object>();
+
+        Node(SimpleConfigObject base) {
+            this.base = base;
+            this.origin = base.origin();
+        }
+
+        Node(ConfigOrigin origin) {
+            this.base = null;
+            this.origin = origin;
+        }
+
+        // the current value for a key, as a Node or AbstractConfigValue
+        Object get(String key) {
+            Object edit = edits.get(key);
+            if (edit == REMOVED)
+                return null;
+            else if (edit != null)
+                return edit;
+            else if (base != null)
+                return base.attemptPeekWithPartialResolve(key);
+            else
+                return null;
+        }
+
+        // like get() but turns an existing SimpleConfigObject into a node
+        // so it can be edited
+        Object edit(String key) {
+            Object v = get(key);
+            if (v instanceof SimpleConfigObject) {
+                Node node = new Node((SimpleConfigObject) v);
+                edits.put(key, node);
+                return node;
+            } else {
+                return v;
+            }
+        }
+
+        AbstractConfigObject build() {
+            Map<String, AbstractConfigValue> children = new HashMap<String, AbstractConfigValue>();
+            for (Map.Entry<String, Object> e : edits.entrySet()) {
+                Object v = e.getValue();
+                if (v == REMOVED) {
+                    if (base != null)
+                        children.put(e.getKey(), null);
+                } else if (v instanceof Node) {
+                    children.put(e.getKey(), ((Node) v).build());
+                } else {
+                    children.put(e.getKey(), (AbstractConfigValue) v);
+                }
+            }
+            if (base != null)
+                return base.withChildren(children);
+            else
+                return new SimpleConfigObject(origin, children);
+        }
+    }
+
+    // a Node, or an object which isn't a SimpleConfigObject, which we edit
+    // with its own withValue() and withoutPath()
+    private Object root;
+
+    private ConfigBuilderImpl(AbstractConfigObject root) {
+        this.root = root instanceof SimpleConfigObject ? new Node((SimpleConfigObject) root) : root;
+    }
+
+    /** For use ONLY by library internals, DO NOT TOUCH not guaranteed ABI */
+    public static ConfigBuilderImpl fromInternal(Config config) {
+        return new ConfigBuilderImpl(((SimpleConfig) config).root());
+    }
+
+    /** For use ONLY by library internals, DO NOT TOUCH not guaranteed ABI */
+    public void set(String pathExpression, ConfigValue value) {
+        if (value == null)
+            throw new ConfigException.BugOrBroken("Trying to store null ConfigValue in a ConfigObject");
+        Path path = Path.newPath(pathExpression);
+        if (!(root instanceof Node)) {
+            root = ((AbstractConfigObject) root).withValue(path, value);
+            return;
+        }
+
+        Node node = (Node) root;
+        while (path.remainder() != null) {
+            String key = path.first();
+            Path next = path.remainder();
+            Object child = node.edit(key);
+            if (child instanceof Node) {
+                node = (Node) child;
+                path = next;
+            } else if (child instanceof AbstractConfigObject) {
+                node.edits.put(key, ((AbstractConfigObject) child).withValue(next, value));
+                return;
+            } else {
+                // as soon as we have a non-object, replace it entirely, with
+                // the same origin as Config.withValue() would give
+                ConfigOrigin origin = SimpleConfigOrigin.newSimple("withValue(" + next.render() + ")");
+                for (; path.remainder() != null; path = path.remainder()) {
+                    Node created = new Node(origin);
+                    node.edits.put(path.first(), created);
+                    node = created;
+                }
+            }
+        }
+        node.edits.put(path.first(), value);
+    }
+
+    /** For use ONLY by library internals, DO NOT TOUCH not guaranteed ABI */
+    public void remove(String pathExpression) {
+        Path path = Path.newPath(pathExpression);
+        if (!(root instanceof Node)) {
+            root = ((AbstractConfigObject) root).withoutPath(path);
+            return;
+        }
+
+        Node node = (Node) root;
+        while (path.remainder() != null) {
+            String key = path.first();
+            Path next = path.remainder();
+            Object child = node.get(key);
+            if (child instanceof SimpleConfigObject || child instanceof Node) {
+                node = (Node) node.edit(key);
+                path = next;
+            } else if (child instanceof AbstractConfigObject) {
+                node.edits.put(key, ((AbstractConfigObject) child).withoutPath(next));
+                return;
+            } else {
+                // can't descend, nothing to remove
+                return;
+            }
+        }
+        if (node.get(path.first()) != null)
+            node.edits.put(path.first(), REMOVED);
+    }
+
+    /** For use ONLY by library internals, DO NOT TOUCH not guaranteed ABI */
+    public Config build() {
+        if (root instanceof Node)
+            return new SimpleConfig(((Node) root).build());
+        else
+            return new SimpleConfig((AbstractConfigObject) root);
+    }
+}
@@ -0,0 +1,105 @@
+package com.typesafe.config.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.typesafe.config.ConfigOrigin;
+
+/**
+ * Rewrites a resolved tree to take less memory, for Config.compact(). Each
+ * object gets a CompactMap with interned keys, lists get an exactly-sized
+ * backing array, and values whose origins are equal (comments included) end
+ * up sharing one origin instance. Parsing makes a new origin for every
+ * value, even for values on the same line, and merging makes one for every
+ * merged object, so there are usually many equal copies.
+ *
+ * Values which don't need to change are kept, and a value which appears in
+ * several places in the tree is only compacted once, so the result shares
+ * as much as the original did. Compacting a compacted tree returns it as-is.
+ */
+final class ConfigCompactor {
+
+    // SimpleConfigOrigin.equals() ignores comments, but two values with
+    // equal origins can have different comments, so they are part of the key
+    private static final class OriginKey {
+        final ConfigOrigin origin;
+        final List<String> comments;
+
+        OriginKey(ConfigOrigin origin) {
+            this.origin = origin;
+            this.comments = origin.comments();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof OriginKey && origin.equals(((OriginKey) other).origin)
+                    && comments.equals(((OriginKey) other).comments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 41 * origin.hashCode() + comments.hashCode();
+        }
+    }
+
+    final private Map<OriginKey, ConfigOrigin> origins = new HashMap<OriginKey, ConfigOrigin>();
+    final private Map<AbstractConfigValue, AbstractConfigValue> compacted = new IdentityHashMap<AbstractConfigValue, AbstractConfigValue>();
+
+    private ConfigCompactor() {
+    }
+
+    static AbstractConfigObject compactTree(AbstractConfigObject root) {
+        return (AbstractConfigObject) new ConfigCompactor().compact(root);
+    }
+
+    // the first origin seen which is equal to this one
+    ConfigOrigin origin(ConfigOrigin origin) {
+        OriginKey key = new OriginKey(origin);
+        ConfigOrigin shared = origins.get(key);
+        if (shared == null) {
+            origins.put(key, origin);
+            return origin;
+        } else {
+            return shared;
+        }
+    }
+
+    AbstractConfigValue compact(AbstractConfigValue v) {
+        AbstractConfigValue done = compacted.get(v);
+        if (done != null)
+            return done;
+
+        if (v instanceof SimpleConfigObject) {
+            done = ((SimpleConfigObject) v).compacted(this);
+        } else if (v instanceof SimpleConfigList) {
+            done = compactList((SimpleConfigList) v);
+        } else if (v instanceof AbstractConfigObject) {
+            // a snapshot object, which is compact already and only decodes
+            // its children when they're looked up; leave it lazy
+            done = v;
+        } else {
+            done = v.withOrigin(origin(v.origin()));
+        }
+        compacted.put(v, done);
+        return done;
+    }
+
+    private SimpleConfigList compactList(SimpleConfigList list) {
+        AbstractConfigValue[] elements = new AbstractConfigValue[list.size()];
+        boolean changed = false;
+        for (int i = 0; i < elements.length; ++i) {
+            AbstractConfigValue element = (AbstractConfigValue) list.get(i);
+            elements[i] = compact(element);
+            if (elements[i] != element)
+                changed = true;
+        }
+        ConfigOrigin origin = origin(list.origin());
+        if (!changed && origin == list.origin())
+            return list;
+        else
+            return new SimpleConfigList(origin, Arrays.asList(elements), list.resolveStatus());
+    }
+}
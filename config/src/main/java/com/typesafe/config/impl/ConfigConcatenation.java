@@ -81,6 +81,10 @@ final class ConfigConcatenation extends AbstractConfigValue implements Unmergeab
         return Collections.singleton(this);
     }
 
+    List<AbstractConfigValue> pieces() {
+        return pieces;
+    }
+
     private static boolean isIgnoredWhitespace(AbstractConfigValue value) {
         return (value instanceof ConfigString) && !((ConfigString)value).wasQuoted();
     }
@@ -114,6 +114,7 @@ final class ConfigDelayedMerge extends AbstractConfigValue implements Unmergeabl
                             + sourceForEnd);
 
                 sourceForEnd = sourceForEnd.resetParents();
+                newContext.replaced(source.root, sourceForEnd.root, remainder);
             } else {
                 if (ConfigImpl.traceSubstitutionsEnabled())
                     ConfigImpl.trace(newContext.depth(),
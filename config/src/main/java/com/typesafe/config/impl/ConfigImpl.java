@@ -4,6 +4,8 @@
 package com.typesafe.config.impl;
 
 import java.io.File;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.time.Duration;
@@ -12,9 +14,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigException;
@@ -22,6 +29,7 @@ import com.typesafe.config.ConfigIncluder;
 import com.typesafe.config.ConfigMemorySize;
 import com.typesafe.config.ConfigObject;
 import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigOriginTracking;
 import com.typesafe.config.ConfigParseOptions;
 import com.typesafe.config.ConfigParseable;
 import com.typesafe.config.ConfigValue;
@@ -35,47 +43,213 @@ public class ConfigImpl {
     private static final String ENV_VAR_OVERRIDE_PREFIX = "CONFIG_FORCE_";
 
     private static class LoaderCache {
-        private Config currentSystemProperties;
-        private WeakReference<ClassLoader> currentLoader;
-        private Map<String, Config> cache;
+        // a config being computed, or computed, for one key; knows which
+        // thread is computing it so that thread can't end up waiting for
+        // itself
+        private static final class LoadTask extends FutureTask<Config> {
+            private volatile Thread runner;
+
+            LoadTask(Callable<Config> updater) {
+                super(updater);
+            }
+
+            @Override
+            public void run() {
+                runner = Thread.currentThread();
+                try {
+                    super.run();
+                } finally {
+                    runner = null;
+                }
+            }
+
+            boolean runningOn(Thread thread) {
+                return runner == thread;
+            }
+        }
+
+        // weak reference to a class loader which can be a map key; two keys
+        // are equal if they refer to the same (still live) loader, so a
+        // lookup key finds the key that's stored in the map.
+        private static final class LoaderKey extends WeakReference<ClassLoader> {
+            private final int hash;
+
+            LoaderKey(ClassLoader loader, ReferenceQueue<ClassLoader> queue) {
+                super(loader, queue);
+                this.hash = System.identityHashCode(loader);
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+
+            @Override
+            public boolean equals(Object other) {
+                if (this == other) {
+                    return true;
+                } else if (other instanceof LoaderKey) {
+                    ClassLoader loader = get();
+                    return loader != null && loader == ((LoaderKey) other).get();
+                } else {
+                    return false;
+                }
+            }
+        }
+
+        // one map of cached configs per class loader; the loaders are only
+        // weakly referenced, so a discarded loader's configs go away with it.
+        private final ConcurrentHashMap<LoaderKey, ConcurrentHashMap<String, LoadTask>> caches;
+        // a null loader can't be weakly referenced, so it gets its own map
+        private final ConcurrentHashMap<String, LoadTask> nullLoaderCache;
+        private final ReferenceQueue<ClassLoader> collectedLoaders;
+        private volatile Config currentSystemProperties;
+
+        private final LongAdder hits;
+        private final LongAdder misses;
+        private final LongAdder evictions;
 
         LoaderCache() {
+            this.caches = new ConcurrentHashMap<LoaderKey, ConcurrentHashMap<String, LoadTask>>();
+            this.nullLoaderCache = new ConcurrentHashMap<String, LoadTask>();
+            this.collectedLoaders = new ReferenceQueue<ClassLoader>();
             this.currentSystemProperties = null;
-            this.currentLoader = new WeakReference<ClassLoader>(null);
-            this.cache = new HashMap<String, Config>();
+            this.hits = new LongAdder();
+            this.misses = new LongAdder();
+            this.evictions = new LongAdder();
+        }
+
+        private void evict(Map<String, LoadTask> cache) {
+            evictions.add(cache.size());
+            cache.clear();
+        }
+
+        private void expungeCollectedLoaders() {
+            Reference<? extends ClassLoader> ref;
+            while ((ref = collectedLoaders.poll()) != null) {
+                Map<String, LoadTask> cache = caches.remove(ref);
+                if (cache != null)
+                    evict(cache);
+            }
+        }
+
+        private Map<String, LoadTask> cacheFor(ClassLoader loader) {
+            if (loader == null)
+                return nullLoaderCache;
+
+            ConcurrentHashMap<String, LoadTask> cache = caches.get(new LoaderKey(loader, null));
+            if (cache == null) {
+                ConcurrentHashMap<String, LoadTask> newCache = new ConcurrentHashMap<String, LoadTask>();
+                cache = caches.putIfAbsent(new LoaderKey(loader, collectedLoaders), newCache);
+                if (cache == null)
+                    cache = newCache;
+            }
+            return cache;
         }
 
-        // for now, caching as long as the loader remains the same,
-        // drop entire cache if it changes.
-        synchronized Config getOrElseUpdate(ClassLoader loader, String key, Callable<Config> updater) {
-            if (loader != currentLoader.get()) {
-                // reset the cache if we start using a different loader
-                cache.clear();
-                currentLoader = new WeakReference<ClassLoader>(loader);
+        // Each loader has its own cache, and no lock is held while computing
+        // a config; the first caller for a key computes it while any other
+        // callers for the same key wait for that result. Computing a config
+        // may recursively look up other keys (load() needs defaultReference()
+        // for example) which is fine as long as it isn't the same key; if
+        // the thread computing a key asks for it again, it gets a fresh,
+        // uncached config rather than waiting on itself.
+        Config getOrElseUpdate(ClassLoader loader, String key, Callable<Config> updater) {
+            if (ParseCache.current() != null) {
+                // a ConfigWatcher is loading on this thread; it has to see
+                // the files as they are now, and its own cache keeps that
+                // cheap, so neither use nor replace what's cached for others
+                misses.increment();
+                return computeUncached(updater);
             }
 
+            expungeCollectedLoaders();
+
             Config systemProperties = systemPropertiesAsConfig();
             if (systemProperties != currentSystemProperties) {
-                cache.clear();
+                // system properties were reloaded, probably by
+                // ConfigFactory.invalidateCaches(), so drop everything
+                for (Map<String, LoadTask> cache : caches.values())
+                    evict(cache);
+                caches.clear();
+                evict(nullLoaderCache);
                 currentSystemProperties = systemProperties;
             }
 
-            Config config = cache.get(key);
-            if (config == null) {
-                try {
-                    config = updater.call();
-                } catch (RuntimeException e) {
-                    throw e; // this will include ConfigException
-                } catch (Exception e) {
-                    throw new ConfigException.Generic(e.getMessage(), e);
+            Map<String, LoadTask> cache = cacheFor(loader);
+            LoadTask task = cache.get(key);
+            if (task == null) {
+                LoadTask newTask = new LoadTask(updater);
+                task = cache.putIfAbsent(key, newTask);
+                if (task == null) {
+                    task = newTask;
+                    misses.increment();
+                    task.run();
+                } else {
+                    hits.increment();
                 }
-                if (config == null)
-                    throw new ConfigException.BugOrBroken("null config from cache updater");
-                cache.put(key, config);
+            } else if (task.runningOn(Thread.currentThread())) {
+                // computing this key needed this key again, say from a
+                // ConfigResolver or includer calling ConfigFactory.load();
+                // waiting for the task would wait forever, so compute it
+                // again without caching, as the old synchronized cache did
+                misses.increment();
+                return computeUncached(updater);
+            } else {
+                hits.increment();
+            }
+
+            Config config;
+            try {
+                config = getUninterruptibly(task);
+            } catch (ExecutionException e) {
+                // don't cache failures, the next caller tries again
+                cache.remove(key, task);
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause; // this will include ConfigException
+                else if (cause instanceof Error)
+                    throw (Error) cause;
+                else
+                    throw new ConfigException.Generic(cause.getMessage(), cause);
+            }
+            if (config == null) {
+                cache.remove(key, task);
+                throw new ConfigException.BugOrBroken("null config from cache updater");
             }
 
             return config;
         }
+
+        private static Config computeUncached(Callable<Config> updater) {
+            Config config;
+            try {
+                config = updater.call();
+            } catch (RuntimeException e) {
+                throw e; // this will include ConfigException
+            } catch (Exception e) {
+                throw new ConfigException.Generic(e.getMessage(), e);
+            }
+            if (config == null)
+                throw new ConfigException.BugOrBroken("null config from cache updater");
+            return config;
+        }
+
+        private static Config getUninterruptibly(LoadTask task) throws ExecutionException {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return task.get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted)
+                    Thread.currentThread().interrupt();
+            }
+        }
     }
 
     private static class LoaderCacheHolder {
@@ -93,6 +267,37 @@ public class ConfigImpl {
         return cache.getOrElseUpdate(loader, key, updater);
     }
 
+    /**
+     * Number of {@link #computeCachedConfig} calls answered from the cache
+     * (including callers that waited for another thread computing the same
+     * config).
+     *
+     * @return the cache hit count since startup
+     */
+    public static long loaderCacheHits() {
+        return LoaderCacheHolder.cache.hits.sum();
+    }
+
+    /**
+     * Number of {@link #computeCachedConfig} calls which had to compute the
+     * config.
+     *
+     * @return the cache miss count since startup
+     */
+    public static long loaderCacheMisses() {
+        return LoaderCacheHolder.cache.misses.sum();
+    }
+
+    /**
+     * Number of cached configs dropped because their class loader was
+     * garbage collected or the caches were invalidated.
+     *
+     * @return the cache eviction count since startup
+     */
+    public static long loaderCacheEvictions() {
+        return LoaderCacheHolder.cache.evictions.sum();
+    }
+
 
     static class FileNameSource implements SimpleIncluder.NameSource {
         @Override
@@ -486,6 +691,55 @@ public class ConfigImpl {
         }
     }
 
+    // -Dconfig.parallel-resources=true parses resources in parallel
+    // even if ConfigParseOptions doesn't ask for it, which is the only way
+    // to get it for the reference.conf loaded by ConfigFactory.load()
+    private static class ParallelResourcesHolder {
+        static final boolean enabled = Boolean.getBoolean("config.parallel-resources");
+    }
+
+    static boolean parallelResourcesEnabled(ConfigParseOptions options) {
+        return options.getParallelResourceParsing() || ParallelResourcesHolder.enabled;
+    }
+
+    // -Dconfig.origin-tracking=NONE|FILE|LINE|FULL keeps less of each
+    // origin even if ConfigParseOptions doesn't ask for it
+    private static class OriginTrackingHolder {
+        static final ConfigOriginTracking tracking = loadOriginTracking();
+
+        private static ConfigOriginTracking loadOriginTracking() {
+            String s = System.getProperty("config.origin-tracking");
+            if (s == null)
+                return ConfigOriginTracking.FULL;
+            try {
+                return ConfigOriginTracking.valueOf(s.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.err.println("config.origin-tracking property has unknown value '" + s
+                        + "', should be one of NONE, FILE, LINE or FULL");
+                return ConfigOriginTracking.FULL;
+            }
+        }
+    }
+
+    static ConfigOriginTracking originTracking(ConfigParseOptions options) {
+        ConfigOriginTracking requested = options.getOriginTracking();
+        ConfigOriginTracking global = OriginTrackingHolder.tracking;
+        return requested.compareTo(global) <= 0 ? requested : global;
+    }
+
+    // the origin every parsed value gets when values don't have their own,
+    // or null if they do
+    static SimpleConfigOrigin sharedValueOrigin(ConfigOrigin baseOrigin, ConfigOriginTracking tracking) {
+        switch (tracking) {
+        case NONE:
+            return SimpleConfigOrigin.newSimple("origin not tracked");
+        case FILE:
+            return (SimpleConfigOrigin) baseOrigin;
+        default:
+            return null;
+        }
+    }
+
     public static boolean traceLoadsEnabled() {
         try {
             return DebugHolder.traceLoadsEnabled();
@@ -502,6 +756,26 @@ public class ConfigImpl {
         }
     }
 
+    /**
+     * Number of path expressions found in the parsed-path cache; see the
+     * config.path-cache-size system property.
+     *
+     * @return the cache hit count since startup
+     */
+    public static long pathCacheHits() {
+        return PathParser.pathCacheHits();
+    }
+
+    /**
+     * Number of path expressions which had to be parsed because they were not
+     * in the parsed-path cache; stays at zero if the cache is disabled.
+     *
+     * @return the cache miss count since startup
+     */
+    public static long pathCacheMisses() {
+        return PathParser.pathCacheMisses();
+    }
+
     public static void trace(String message) {
         System.err.println(message);
     }
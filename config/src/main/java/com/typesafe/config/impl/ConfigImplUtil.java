@@ -15,6 +15,7 @@ import java.util.List;
 
 import com.typesafe.config.ConfigException;
 import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigPath;
 import com.typesafe.config.ConfigSyntax;
 
 /**
@@ -212,6 +213,10 @@ final public class ConfigImplUtil {
         return elements;
     }
 
+    public static ConfigPath compilePath(String path) {
+        return SimpleConfigPath.newPath(path);
+    }
+
     public static ConfigOrigin readOrigin(ObjectInputStream in) throws IOException {
         return SerializedConfigValue.readOrigin(in, null);
     }
@@ -21,7 +21,8 @@ final class ConfigParser {
                                      ConfigOrigin origin, ConfigParseOptions options,
                                      ConfigIncludeContext includeContext) {
         ParseContext context = new ParseContext(options.getSyntax(), origin, document,
-                SimpleIncluder.makeFull(options.getIncluder()), includeContext);
+                SimpleIncluder.makeFull(options.getIncluder()), includeContext,
+                ConfigImpl.originTracking(options));
         return context.parse();
     }
 
@@ -33,6 +34,15 @@ final class ConfigParser {
         final private ConfigSyntax flavor;
         final private ConfigOrigin baseOrigin;
         final private LinkedList<Path> pathStack;
+        // if true, comments are never collected, so they never get into an
+        // origin
+        final private boolean dropComments;
+        // if not null, the origin of every object and list, as the tokenizer
+        // does for other values
+        final private SimpleConfigOrigin sharedValueOrigin;
+        // the last origin lineOrigin() made, so the values on one line
+        // share it
+        private SimpleConfigOrigin lastLineOrigin;
 
         // the number of lists we are inside; this is used to detect the "cannot
         // generate a reference to a list element" problem, and once we fix that
@@ -40,7 +50,7 @@ final class ConfigParser {
         int arrayCount;
 
         ParseContext(ConfigSyntax flavor, ConfigOrigin origin, ConfigNodeRoot document,
-                FullIncluder includer, ConfigIncludeContext includeContext) {
+                FullIncluder includer, ConfigIncludeContext includeContext, ConfigOriginTracking tracking) {
             lineNumber = 1;
             this.document = document;
             this.flavor = flavor;
@@ -49,6 +59,8 @@ final class ConfigParser {
             this.includeContext = includeContext;
             this.pathStack = new LinkedList<Path>();
             this.arrayCount = 0;
+            this.dropComments = tracking != ConfigOriginTracking.FULL;
+            this.sharedValueOrigin = ConfigImpl.sharedValueOrigin(origin, tracking);
         }
 
         // merge a bunch of adjacent values into one
@@ -73,7 +85,13 @@ final class ConfigParser {
         }
 
         private SimpleConfigOrigin lineOrigin() {
-            return ((SimpleConfigOrigin) baseOrigin).withLineNumber(lineNumber);
+            if (lastLineOrigin == null || lastLineOrigin.lineNumber() != lineNumber)
+                lastLineOrigin = ((SimpleConfigOrigin) baseOrigin).withLineNumber(lineNumber);
+            return lastLineOrigin;
+        }
+
+        private SimpleConfigOrigin valueOrigin() {
+            return sharedValueOrigin != null ? sharedValueOrigin : lineOrigin();
         }
 
         private ConfigException parseError(String message) {
@@ -216,7 +234,7 @@ final class ConfigParser {
 
         private AbstractConfigObject parseObject(ConfigNodeObject n) {
             Map<String, AbstractConfigValue> values = new HashMap<String, AbstractConfigValue>();
-            SimpleConfigOrigin objectOrigin = lineOrigin();
+            SimpleConfigOrigin objectOrigin = valueOrigin();
             boolean lastWasNewline = false;
 
             ArrayList<AbstractConfigNode> nodes = new ArrayList<AbstractConfigNode>(n.children());
@@ -225,7 +243,8 @@ final class ConfigParser {
                 AbstractConfigNode node = nodes.get(i);
                 if (node instanceof ConfigNodeComment) {
                     lastWasNewline = false;
-                    comments.add(((ConfigNodeComment) node).commentText());
+                    if (!dropComments)
+                        comments.add(((ConfigNodeComment) node).commentText());
                 } else if (node instanceof ConfigNodeSingleToken && Tokens.isNewline(((ConfigNodeSingleToken) node).token())) {
                     lineNumber++;
                     if (lastWasNewline) {
@@ -239,7 +258,8 @@ final class ConfigParser {
                 } else if (node instanceof ConfigNodeField) {
                     lastWasNewline = false;
                     Path path = ((ConfigNodeField) node).path().value();
-                    comments.addAll(((ConfigNodeField) node).comments());
+                    if (!dropComments)
+                        comments.addAll(((ConfigNodeField) node).comments());
 
                     // path must be on-stack while we parse the value
                     pathStack.push(path);
@@ -286,8 +306,9 @@ final class ConfigParser {
                         while (i < nodes.size()) {
                             if (nodes.get(i) instanceof ConfigNodeComment) {
                                 ConfigNodeComment comment = (ConfigNodeComment) nodes.get(i);
-                                newValue = newValue.withOrigin(newValue.origin().appendComments(
-                                            Collections.singletonList(comment.commentText())));
+                                if (!dropComments)
+                                    newValue = newValue.withOrigin(newValue.origin().appendComments(
+                                                Collections.singletonList(comment.commentText())));
                                 break;
                             } else if (nodes.get(i) instanceof ConfigNodeSingleToken) {
                                 ConfigNodeSingleToken curr = (ConfigNodeSingleToken) nodes.get(i);
@@ -351,7 +372,7 @@ final class ConfigParser {
         private SimpleConfigList parseArray(ConfigNodeArray n) {
             arrayCount += 1;
 
-            SimpleConfigOrigin arrayOrigin = lineOrigin();
+            SimpleConfigOrigin arrayOrigin = valueOrigin();
             List<AbstractConfigValue> values = new ArrayList<AbstractConfigValue>();
 
             boolean lastWasNewLine = false;
@@ -361,7 +382,8 @@ final class ConfigParser {
 
             for (AbstractConfigNode node : n.children()) {
                 if (node instanceof ConfigNodeComment) {
-                    comments.add(((ConfigNodeComment) node).commentText());
+                    if (!dropComments)
+                        comments.add(((ConfigNodeComment) node).commentText());
                     lastWasNewLine = false;
                 } else if (node instanceof ConfigNodeSingleToken && Tokens.isNewline(((ConfigNodeSingleToken) node).token())) {
                     lineNumber++;
@@ -396,7 +418,8 @@ final class ConfigParser {
             boolean lastWasNewLine = false;
             for (AbstractConfigNode node : document.children()) {
                 if (node instanceof ConfigNodeComment) {
-                    comments.add(((ConfigNodeComment) node).commentText());
+                    if (!dropComments)
+                        comments.add(((ConfigNodeComment) node).commentText());
                     lastWasNewLine = false;
                 } else if (node instanceof ConfigNodeSingleToken) {
                     Token t = ((ConfigNodeSingleToken) node).token();
@@ -25,7 +25,7 @@ final class ConfigReference extends AbstractConfigValue implements Unmergeable {
         this(origin, expr, 0);
     }
 
-    private ConfigReference(ConfigOrigin origin, SubstitutionExpression expr, int prefixLength) {
+    ConfigReference(ConfigOrigin origin, SubstitutionExpression expr, int prefixLength) {
         super(origin);
         this.expr = expr;
         this.prefixLength = prefixLength;
@@ -69,10 +69,14 @@ final class ConfigReference extends AbstractConfigValue implements Unmergeable {
     @Override
     ResolveResult<? extends AbstractConfigValue> resolveSubstitutions(ResolveContext context, ResolveSource source) {
         ResolveContext newContext = context.addCycleMarker(this);
+        // if we run into a cycle, what we memoized along the way was
+        // resolved with the cycle in progress so we don't keep it
+        int memosMark = newContext.markMemos();
         AbstractConfigValue v;
         try {
             ResolveSource.ResultWithPath resultWithPath = source.lookupSubst(newContext, expr, prefixLength);
             newContext = resultWithPath.result.context;
+            memosMark = newContext.markMemos();
 
             if (resultWithPath.result.value != null) {
                 if (ConfigImpl.traceSubstitutionsEnabled())
@@ -94,6 +98,7 @@ final class ConfigReference extends AbstractConfigValue implements Unmergeable {
                 v = (AbstractConfigValue) fallback;
             }
         } catch (NotPossibleToResolve e) {
+            newContext.rollbackMemos(memosMark);
             if (ConfigImpl.traceSubstitutionsEnabled())
                 ConfigImpl.trace(newContext.depth(),
                         "not possible to resolve " + expr + ", cycle involved: " + e.traceString());
@@ -159,4 +164,8 @@ final class ConfigReference extends AbstractConfigValue implements Unmergeable {
     SubstitutionExpression expression() {
         return expr;
     }
+
+    int prefixLength() {
+        return prefixLength;
+    }
 }
@@ -0,0 +1,819 @@
+package com.typesafe.config.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigParseOptions;
+
+/**
+ * Internal implementation detail, not ABI stable, do not touch.
+ * For use only by the {@link com.typesafe.config} package.
+ *
+ * <p>
+ * The snapshot format is a header listing the inputs and a SHA-256 of their
+ * contents, then a table of every distinct string, then a table of every
+ * distinct origin, then the value tree. Values refer to strings and origins
+ * by index, so each filename, description and key is stored once no matter
+ * how many values use it, and reading a snapshot is a single pass with no
+ * tokenizing or parsing.
+ *
+ * <p>
+ * Objects, lists and the other containers start with a table of offsets to
+ * their children (objects with their keys in sorted order), so any child can
+ * be decoded on its own. That's what lets a memory-mapped snapshot decode
+ * only the parts of the tree that are looked at; see SnapshotConfigObject.
+ */
+public final class ConfigSnapshotImpl {
+
+    private static final int MAGIC = 0x48534e50; // "HSNP"
+    // bump whenever the layout changes; a snapshot of another version is
+    // just out of date, so load() parses the files instead
+    private static final int VERSION = 2;
+
+    // the tags are in the file format, caution
+    private static final int TAG_NULL = 0;
+    private static final int TAG_TRUE = 1;
+    private static final int TAG_FALSE = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_DOUBLE = 5;
+    private static final int TAG_QUOTED_STRING = 6;
+    private static final int TAG_UNQUOTED_STRING = 7;
+    private static final int TAG_LIST = 8;
+    private static final int TAG_OBJECT = 9;
+    private static final int TAG_REFERENCE = 10;
+    private static final int TAG_CONCATENATION = 11;
+    private static final int TAG_DELAYED_MERGE = 12;
+    private static final int TAG_DELAYED_MERGE_OBJECT = 13;
+
+    // bits in the flags byte of an object
+    private static final int OBJECT_IGNORES_FALLBACKS = 1;
+    private static final int OBJECT_RESOLVED = 2;
+
+    // the resources ConfigFactory.load() reads when no config.resource,
+    // config.file, config.url or config.strategy is set
+    private static final List<String> DEFAULT_RESOURCES = Collections.unmodifiableList(Arrays.asList(
+            "reference.conf", "application.conf", "application.json", "application.properties"));
+
+    private ConfigSnapshotImpl() {
+    }
+
+    /**
+     * This is public ONLY for use by the "config" package, DO NOT USE this ABI
+     * may change.
+     * @param config config to write, resolved or not
+     * @param file file to write
+     */
+    public static void writeInternal(Config config, File file) {
+        Map<String, List<String>> noResources = Collections.emptyMap();
+        write(((SimpleConfig) config).root(), noResources, file);
+    }
+
+    /**
+     * This is public ONLY for use by the "config" package, DO NOT USE this ABI
+     * may change.
+     * @param loader class loader to find application and reference config with
+     * @param file file to write
+     */
+    public static void writeDefaultInternal(ClassLoader loader, File file) {
+        Map<String, List<String>> resources = currentResources(loader, file);
+        ConfigParseOptions options = ConfigParseOptions.defaults().setClassLoader(loader);
+        Config application = ConfigImpl.parseResourcesAnySyntax("application", options).toConfig();
+        Config tree = application.withFallback(ConfigImpl.defaultReferenceUnresolved(loader));
+        write(((SimpleConfig) tree).root(), resources, file);
+    }
+
+    /**
+     * This is public ONLY for use by the "config" package, DO NOT USE this ABI
+     * may change.
+     * @param file file to read
+     * @return the config in the snapshot
+     */
+    public static Config readInternal(File file) {
+        return read(file, null, false);
+    }
+
+    /**
+     * This is public ONLY for use by the "config" package, DO NOT USE this ABI
+     * may change.
+     * @param file file to map
+     * @return the config in the snapshot, decoded as it's accessed
+     */
+    public static Config mapInternal(File file) {
+        return Parseable.newSnapshot(file, ConfigParseOptions.defaults().setAllowMissing(false)).parse().toConfig();
+    }
+
+    /**
+     * This is public ONLY for use by the "config" package, DO NOT USE this ABI
+     * may change.
+     * @param file snapshot file
+     * @param loader class loader to look for resources with
+     * @return true if the snapshot's inputs are unchanged
+     */
+    public static boolean isCurrentInternal(File file, ClassLoader loader) {
+        ByteBuffer buffer = readFully(file);
+        try {
+            if (!currentVersion(buffer.duplicate()))
+                return false;
+            return isCurrent(readHeader(buffer), loader);
+        } catch (IOException | BufferUnderflowException e) {
+            throw corrupt(file.getPath(), e);
+        }
+    }
+
+    /**
+     * This is public ONLY for use by the "config" package, DO NOT USE this ABI
+     * may change.
+     * @param file snapshot file
+     * @param loader class loader to look for resources with
+     * @return the config in the snapshot, or null if it's missing, unreadable
+     *         or out of date
+     */
+    public static Config readIfCurrentInternal(File file, ClassLoader loader) {
+        try {
+            return read(file, loader, true);
+        } catch (ConfigException e) {
+            if (ConfigImpl.traceLoadsEnabled())
+                ConfigImpl.trace("Not using snapshot " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // used by Parseable.newSnapshot(); an IOException here means the file
+    // is missing or unreadable, while a bad file is a ConfigException
+    static AbstractConfigValue map(File file) throws IOException {
+        ByteBuffer buffer;
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new ConfigException.IO(SimpleConfigOrigin.newFile(file.getPath()),
+                        "snapshot is too large to map (" + size + " bytes)");
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } finally {
+            channel.close();
+        }
+        return decode(file.getPath(), buffer, true);
+    }
+
+    private static Map<String, List<String>> currentResources(ClassLoader loader, File file) {
+        Map<String, List<String>> resources = new LinkedHashMap<String, List<String>>();
+        try {
+            for (String name : DEFAULT_RESOURCES) {
+                List<String> urls = new ArrayList<String>();
+                for (URL url : Collections.list(loader.getResources(name)))
+                    urls.add(url.toExternalForm());
+                resources.put(name, urls);
+            }
+        } catch (IOException e) {
+            throw ioError(file, e);
+        }
+        return resources;
+    }
+
+    private static void write(AbstractConfigObject root, Map<String, List<String>> resources, File file) {
+        Encoder encoder = new Encoder();
+        File tmp = null;
+        try {
+            encoder.writeValue(root);
+
+            Set<String> resourceUrls = new HashSet<String>();
+            for (List<String> urls : resources.values())
+                resourceUrls.addAll(urls);
+            List<String> extras = new ArrayList<String>();
+            for (String url : encoder.inputUrls()) {
+                if (!resourceUrls.contains(url))
+                    extras.add(url);
+            }
+            Header header = new Header(resources, extras, digest(resources, extras));
+
+            // write next to the destination and rename over it, so nobody
+            // (in particular nobody who has the old file mapped) ever sees a
+            // half-written snapshot
+            File dir = file.getAbsoluteFile().getParentFile();
+            tmp = File.createTempFile("." + file.getName() + ".", ".tmp", dir);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                writeHeader(out, header);
+                encoder.writeTo(out);
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException e) {
+            throw ioError(file, e);
+        } finally {
+            if (tmp != null)
+                tmp.delete();
+        }
+    }
+
+    private static Config read(File file, ClassLoader loader, boolean requireCurrent) {
+        ByteBuffer buffer = readFully(file);
+        if (requireCurrent) {
+            try {
+                if (!currentVersion(buffer.duplicate()))
+                    throw new ConfigException.IO(SimpleConfigOrigin.newFile(file.getPath()),
+                            "snapshot was written in an older or newer format");
+                if (!isCurrent(readHeader(buffer.duplicate()), loader))
+                    throw new ConfigException.IO(SimpleConfigOrigin.newFile(file.getPath()),
+                            "snapshot inputs have changed since it was written");
+            } catch (IOException | BufferUnderflowException e) {
+                throw corrupt(file.getPath(), e);
+            }
+        }
+        return ((AbstractConfigObject) decode(file.getPath(), buffer, false)).toConfig();
+    }
+
+    private static ByteBuffer readFully(File file) {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            throw ioError(file, e);
+        }
+    }
+
+    private static AbstractConfigValue decode(String description, ByteBuffer buffer, boolean lazy) {
+        try {
+            readHeader(buffer);
+            Data data = new Data(description, buffer, lazy);
+            AbstractConfigValue root = data.valueAt(0);
+            if (!(root instanceof AbstractConfigObject))
+                throw new IOException("Snapshot root is not an object: " + root);
+            return root;
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof ConfigException)
+                throw (ConfigException) e;
+            throw corrupt(description, e);
+        }
+    }
+
+    private static boolean isCurrent(Header header, ClassLoader loader) {
+        if (!header.resources.isEmpty()) {
+            if (loader == null)
+                return false;
+            if (!currentResources(loader, null).equals(header.resources))
+                return false;
+        }
+        try {
+            return Arrays.equals(header.digest, digest(header.resources, header.extras));
+        } catch (IOException e) {
+            // an input that went away means the snapshot is out of date
+            return false;
+        }
+    }
+
+    private static final class Header {
+        final Map<String, List<String>> resources;
+        final List<String> extras;
+        final byte[] digest;
+
+        Header(Map<String, List<String>> resources, List<String> extras, byte[] digest) {
+            this.resources = resources;
+            this.extras = extras;
+            this.digest = digest;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        // not writeUTF(), which is limited to 64K
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeHeader(DataOutputStream out, Header header) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(header.resources.size());
+        for (Map.Entry<String, List<String>> e : header.resources.entrySet()) {
+            writeString(out, e.getKey());
+            writeUrls(out, e.getValue());
+        }
+        writeUrls(out, header.extras);
+        out.writeInt(header.digest.length);
+        out.write(header.digest);
+    }
+
+    private static void writeUrls(DataOutputStream out, List<String> urls) throws IOException {
+        out.writeInt(urls.size());
+        for (String url : urls)
+            writeString(out, url);
+    }
+
+    // false for a snapshot in another version of the format, which can't be
+    // decoded but isn't corrupt either
+    private static boolean currentVersion(ByteBuffer in) throws IOException {
+        if (in.remaining() < 8 || in.getInt() != MAGIC)
+            throw new IOException("Not a config snapshot");
+        return in.getInt() == VERSION;
+    }
+
+    // leaves the buffer positioned at the string table
+    private static Header readHeader(ByteBuffer in) throws IOException {
+        if (in.remaining() < 8 || in.getInt() != MAGIC)
+            throw new IOException("Not a config snapshot");
+        int version = in.getInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported config snapshot version " + version);
+        int resourceCount = in.getInt();
+        Map<String, List<String>> resources = new LinkedHashMap<String, List<String>>();
+        for (int i = 0; i < resourceCount; ++i) {
+            String name = readString(in);
+            resources.put(name, readUrls(in));
+        }
+        List<String> extras = readUrls(in);
+        byte[] digest = new byte[in.getInt()];
+        in.get(digest);
+        return new Header(resources, extras, digest);
+    }
+
+    private static List<String> readUrls(ByteBuffer in) {
+        int count = in.getInt();
+        List<String> urls = new ArrayList<String>(count);
+        for (int i = 0; i < count; ++i)
+            urls.add(readString(in));
+        return urls;
+    }
+
+    private static byte[] digest(Map<String, List<String>> resources, List<String> extras) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ConfigException.BugOrBroken("SHA-256 is not available", e);
+        }
+        for (Map.Entry<String, List<String>> e : resources.entrySet()) {
+            md.update(e.getKey().getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            for (String url : e.getValue())
+                digestUrl(md, url);
+        }
+        md.update((byte) 0);
+        for (String url : extras)
+            digestUrl(md, url);
+        return md.digest();
+    }
+
+    private static void digestUrl(MessageDigest md, String url) throws IOException {
+        md.update(url.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        InputStream stream = new URL(url).openStream();
+        try {
+            byte[] buf = new byte[8192];
+            long length = 0;
+            int n;
+            while ((n = stream.read(buf)) > 0) {
+                md.update(buf, 0, n);
+                length += n;
+            }
+            for (int shift = 56; shift >= 0; shift -= 8)
+                md.update((byte) (length >>> shift));
+        } finally {
+            stream.close();
+        }
+    }
+
+    // strings are numbered in the order first seen; -1 is null
+    static final class StringTable {
+        final private Map<String, Integer> indexes = new HashMap<String, Integer>();
+        final private List<String> strings = new ArrayList<String>();
+
+        int indexOf(String s) {
+            if (s == null)
+                return -1;
+            Integer i = indexes.get(s);
+            if (i == null) {
+                i = strings.size();
+                strings.add(s);
+                indexes.put(s, i);
+            }
+            return i;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            Buffer bytes = new Buffer();
+            DataOutputStream bytesOut = new DataOutputStream(bytes);
+            int[] offsets = new int[strings.size()];
+            for (int i = 0; i < offsets.length; ++i) {
+                offsets[i] = bytes.size();
+                writeString(bytesOut, strings.get(i));
+            }
+            writeTable(out, offsets, bytes);
+        }
+    }
+
+    // the string and origin tables are a count, the total size, the offset
+    // of each entry, then the entries; so a reader can find any entry
+    // without scanning
+    private static void writeTable(DataOutputStream out, int[] offsets, Buffer bytes) throws IOException {
+        out.writeInt(offsets.length);
+        out.writeInt(bytes.size());
+        for (int offset : offsets)
+            out.writeInt(offset);
+        bytes.writeTo(out);
+    }
+
+    // ByteArrayOutputStream that can fill in an offset once it's known
+    private static final class Buffer extends ByteArrayOutputStream {
+        void patchInt(int at, int v) {
+            buf[at] = (byte) (v >>> 24);
+            buf[at + 1] = (byte) (v >>> 16);
+            buf[at + 2] = (byte) (v >>> 8);
+            buf[at + 3] = (byte) v;
+        }
+    }
+
+    // origins are deduplicated including their comments, which
+    // SimpleConfigOrigin.equals() ignores
+    private static final class OriginKey {
+        final SimpleConfigOrigin origin;
+
+        OriginKey(SimpleConfigOrigin origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof OriginKey && origin.equalsIncludingComments(((OriginKey) other).origin);
+        }
+
+        @Override
+        public int hashCode() {
+            return origin.hashCode();
+        }
+    }
+
+    private static final class Encoder {
+        final private StringTable strings = new StringTable();
+        final private Map<OriginKey, Integer> originIndexes = new HashMap<OriginKey, Integer>();
+        final private List<SimpleConfigOrigin> origins = new ArrayList<SimpleConfigOrigin>();
+        final private Buffer body = new Buffer();
+        final private DataOutputStream out = new DataOutputStream(body);
+
+        Collection<String> inputUrls() {
+            Set<String> urls = new TreeSet<String>();
+            for (SimpleConfigOrigin origin : origins) {
+                URL url = origin.url();
+                if (url != null)
+                    urls.add(url.toExternalForm());
+            }
+            return urls;
+        }
+
+        void writeTo(DataOutputStream dest) throws IOException {
+            // encoding the origins can add strings, so do it before the
+            // string table is written out
+            Buffer originBytes = new Buffer();
+            DataOutputStream originOut = new DataOutputStream(originBytes);
+            int[] originOffsets = new int[origins.size()];
+            for (int i = 0; i < originOffsets.length; ++i) {
+                originOffsets[i] = originBytes.size();
+                origins.get(i).writeSnapshot(originOut, strings);
+            }
+
+            strings.writeTo(dest);
+            writeTable(dest, originOffsets, originBytes);
+            body.writeTo(dest);
+        }
+
+        private void writeOrigin(SimpleConfigOrigin origin) throws IOException {
+            OriginKey key = new OriginKey(origin);
+            Integer i = originIndexes.get(key);
+            if (i == null) {
+                i = origins.size();
+                origins.add(origin);
+                originIndexes.put(key, i);
+            }
+            out.writeInt(i);
+        }
+
+        private void writeHeader(int tag, AbstractConfigValue value) throws IOException {
+            out.writeByte(tag);
+            writeOrigin(value.origin());
+        }
+
+        // a count, then the offset of each value, then the values
+        private void writeValues(List<AbstractConfigValue> values) throws IOException {
+            out.writeInt(values.size());
+            int table = body.size();
+            for (int i = 0; i < values.size(); ++i)
+                out.writeInt(0);
+            for (int i = 0; i < values.size(); ++i) {
+                body.patchInt(table + 4 * i, body.size());
+                writeValue(values.get(i));
+            }
+        }
+
+        void writeValue(AbstractConfigValue value) throws IOException {
+            if (value instanceof ConfigNull) {
+                writeHeader(TAG_NULL, value);
+            } else if (value instanceof ConfigBoolean) {
+                writeHeader(((ConfigBoolean) value).unwrapped() ? TAG_TRUE : TAG_FALSE, value);
+            } else if (value instanceof ConfigInt) {
+                writeHeader(TAG_INT, value);
+                out.writeInt(((ConfigInt) value).unwrapped());
+                out.writeInt(strings.indexOf(((ConfigNumber) value).originalText));
+            } else if (value instanceof ConfigLong) {
+                writeHeader(TAG_LONG, value);
+                out.writeLong(((ConfigLong) value).unwrapped());
+                out.writeInt(strings.indexOf(((ConfigNumber) value).originalText));
+            } else if (value instanceof ConfigDouble) {
+                writeHeader(TAG_DOUBLE, value);
+                out.writeDouble(((ConfigDouble) value).unwrapped());
+                out.writeInt(strings.indexOf(((ConfigNumber) value).originalText));
+            } else if (value instanceof ConfigString) {
+                ConfigString s = (ConfigString) value;
+                writeHeader(s.wasQuoted() ? TAG_QUOTED_STRING : TAG_UNQUOTED_STRING, value);
+                out.writeInt(strings.indexOf(s.unwrapped()));
+            } else if (value instanceof SimpleConfigList) {
+                SimpleConfigList list = (SimpleConfigList) value;
+                List<AbstractConfigValue> values = new ArrayList<AbstractConfigValue>(list.size());
+                for (int i = 0; i < list.size(); ++i)
+                    values.add(list.get(i));
+                writeHeader(TAG_LIST, value);
+                writeValues(values);
+            } else if (value instanceof AbstractConfigObject && !(value instanceof ConfigDelayedMergeObject)) {
+                AbstractConfigObject obj = (AbstractConfigObject) value;
+                writeHeader(TAG_OBJECT, value);
+                int flags = 0;
+                if (obj.ignoresFallbacks())
+                    flags |= OBJECT_IGNORES_FALLBACKS;
+                if (obj.resolveStatus() == ResolveStatus.RESOLVED)
+                    flags |= OBJECT_RESOLVED;
+                out.writeByte(flags);
+                // sorted so a reader can binary search for a key
+                List<String> keys = new ArrayList<String>(obj.keySet());
+                Collections.sort(keys);
+                out.writeInt(keys.size());
+                int table = body.size();
+                for (String key : keys) {
+                    out.writeInt(strings.indexOf(key));
+                    out.writeInt(0);
+                }
+                for (int i = 0; i < keys.size(); ++i) {
+                    body.patchInt(table + 8 * i + 4, body.size());
+                    writeValue(obj.get(keys.get(i)));
+                }
+            } else if (value instanceof ConfigReference) {
+                ConfigReference ref = (ConfigReference) value;
+                writeHeader(TAG_REFERENCE, value);
+                SubstitutionExpression expr = ref.expression();
+                out.writeBoolean(expr.optional());
+                out.writeInt(ref.prefixLength());
+                out.writeInt(expr.path().length());
+                for (Path p = expr.path(); p != null; p = p.remainder())
+                    out.writeInt(strings.indexOf(p.first()));
+            } else if (value instanceof ConfigConcatenation) {
+                writeHeader(TAG_CONCATENATION, value);
+                writeValues(((ConfigConcatenation) value).pieces());
+            } else if (value instanceof ConfigDelayedMerge) {
+                writeHeader(TAG_DELAYED_MERGE, value);
+                writeValues(new ArrayList<AbstractConfigValue>(((ConfigDelayedMerge) value).unmergedValues()));
+            } else if (value instanceof ConfigDelayedMergeObject) {
+                writeHeader(TAG_DELAYED_MERGE_OBJECT, value);
+                writeValues(new ArrayList<AbstractConfigValue>(((ConfigDelayedMergeObject) value).unmergedValues()));
+            } else {
+                throw new ConfigException.BugOrBroken("don't know how to snapshot " + value.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * The decoding side of a snapshot. Strings and origins are decoded the
+     * first time they're used. When lazy, resolved objects are decoded as
+     * SnapshotConfigObject and only decode a child when it's looked up;
+     * otherwise the whole tree is decoded up front. All reads use absolute
+     * positions or a private duplicate of the buffer, so this is safe to
+     * share between threads.
+     */
+    static final class Data {
+        final private String description;
+        final private ByteBuffer buffer;
+        final private boolean lazy;
+        final private int stringCount;
+        final private int stringTable;
+        final private AtomicReferenceArray<String> strings;
+        final private int originCount;
+        final private int originTable;
+        final private AtomicReferenceArray<SimpleConfigOrigin> origins;
+        final private int bodyStart;
+
+        // expects the buffer positioned at the string table
+        Data(String description, ByteBuffer buffer, boolean lazy) {
+            this.description = description;
+            this.buffer = buffer;
+            this.lazy = lazy;
+
+            int position = buffer.position();
+            this.stringCount = buffer.getInt(position);
+            this.stringTable = position + 8;
+            this.strings = new AtomicReferenceArray<String>(stringCount);
+
+            position = stringTable + 4 * stringCount + buffer.getInt(position + 4);
+            this.originCount = buffer.getInt(position);
+            this.originTable = position + 8;
+            this.origins = new AtomicReferenceArray<SimpleConfigOrigin>(originCount);
+
+            this.bodyStart = originTable + 4 * originCount + buffer.getInt(position + 4);
+        }
+
+        // position of entry i of a table written by writeTable()
+        private int entry(int table, int count, int i) {
+            return table + 4 * count + buffer.getInt(table + 4 * i);
+        }
+
+        ConfigException corrupt(String message) {
+            return new ConfigException.IO(SimpleConfigOrigin.newFile(description), "corrupt snapshot: " + message);
+        }
+
+        // a truncated or garbled file shows up as buffer underflows, bad
+        // positions and so on
+        private ConfigException corrupt(RuntimeException e) {
+            if (e instanceof ConfigException)
+                return (ConfigException) e;
+            return new ConfigException.IO(SimpleConfigOrigin.newFile(description),
+                    "corrupt snapshot: " + e.getClass().getSimpleName() + ": " + e.getMessage(), e);
+        }
+
+        int intAt(int position) {
+            return buffer.getInt(position);
+        }
+
+        String string(int index) {
+            if (index == -1)
+                return null;
+            if (index < 0 || index >= stringCount)
+                throw corrupt("bad string index " + index);
+            String s = strings.get(index);
+            if (s == null) {
+                ByteBuffer in = buffer.duplicate();
+                try {
+                    in.position(entry(stringTable, stringCount, index));
+                    s = readString(in);
+                } catch (RuntimeException e) {
+                    throw corrupt(e);
+                }
+                strings.set(index, s);
+            }
+            return s;
+        }
+
+        String key(int index) {
+            String s = string(index);
+            if (s == null)
+                throw corrupt("missing string");
+            return s;
+        }
+
+        SimpleConfigOrigin origin(int index) {
+            if (index < 0 || index >= originCount)
+                throw corrupt("bad origin index " + index);
+            SimpleConfigOrigin origin = origins.get(index);
+            if (origin == null) {
+                ByteBuffer in = buffer.duplicate();
+                try {
+                    in.position(entry(originTable, originCount, index));
+                    origin = SimpleConfigOrigin.readSnapshot(in, this);
+                } catch (RuntimeException e) {
+                    throw corrupt(e);
+                }
+                origins.set(index, origin);
+            }
+            return origin;
+        }
+
+        AbstractConfigValue valueAt(int offset) {
+            ByteBuffer in = buffer.duplicate();
+            try {
+                in.position(bodyStart + offset);
+                return readValue(in);
+            } catch (RuntimeException e) {
+                throw corrupt(e);
+            }
+        }
+
+        private List<AbstractConfigValue> readValues(ByteBuffer in) {
+            int count = in.getInt();
+            int table = in.position();
+            List<AbstractConfigValue> values = new ArrayList<AbstractConfigValue>(count);
+            for (int i = 0; i < count; ++i)
+                values.add(valueAt(buffer.getInt(table + 4 * i)));
+            return values;
+        }
+
+        private AbstractConfigValue readValue(ByteBuffer in) {
+            int tag = in.get() & 0xff;
+            SimpleConfigOrigin origin = origin(in.getInt());
+            switch (tag) {
+            case TAG_NULL:
+                return new ConfigNull(origin);
+            case TAG_TRUE:
+                return new ConfigBoolean(origin, true);
+            case TAG_FALSE:
+                return new ConfigBoolean(origin, false);
+            case TAG_INT:
+                int vi = in.getInt();
+                return new ConfigInt(origin, vi, string(in.getInt()));
+            case TAG_LONG:
+                long vl = in.getLong();
+                return new ConfigLong(origin, vl, string(in.getInt()));
+            case TAG_DOUBLE:
+                double vd = in.getDouble();
+                return new ConfigDouble(origin, vd, string(in.getInt()));
+            case TAG_QUOTED_STRING:
+                return new ConfigString.Quoted(origin, key(in.getInt()));
+            case TAG_UNQUOTED_STRING:
+                return new ConfigString.Unquoted(origin, key(in.getInt()));
+            case TAG_LIST:
+                return new SimpleConfigList(origin, readValues(in));
+            case TAG_OBJECT:
+                int flags = in.get();
+                boolean ignoresFallbacks = (flags & OBJECT_IGNORES_FALLBACKS) != 0;
+                int size = in.getInt();
+                int table = in.position();
+                // unresolved objects are decoded right away, because
+                // resolving needs to find them by identity in their parent
+                if (lazy && (flags & OBJECT_RESOLVED) != 0)
+                    return new SnapshotConfigObject(origin, this, table, size, ignoresFallbacks);
+                Map<String, AbstractConfigValue> map = new HashMap<String, AbstractConfigValue>(size * 2);
+                for (int i = 0; i < size; ++i)
+                    map.put(key(buffer.getInt(table + 8 * i)), valueAt(buffer.getInt(table + 8 * i + 4)));
+                return new SimpleConfigObject(origin, map, ResolveStatus.fromValues(map.values()),
+                        ignoresFallbacks);
+            case TAG_REFERENCE:
+                boolean optional = in.get() != 0;
+                int prefixLength = in.getInt();
+                String[] elements = new String[in.getInt()];
+                for (int i = 0; i < elements.length; ++i)
+                    elements[i] = key(in.getInt());
+                return new ConfigReference(origin, new SubstitutionExpression(new Path(elements), optional),
+                        prefixLength);
+            case TAG_CONCATENATION:
+                return new ConfigConcatenation(origin, readValues(in));
+            case TAG_DELAYED_MERGE:
+                return new ConfigDelayedMerge(origin, readValues(in));
+            case TAG_DELAYED_MERGE_OBJECT:
+                return new ConfigDelayedMergeObject(origin, readValues(in));
+            default:
+                throw corrupt("unknown value tag " + tag);
+            }
+        }
+    }
+
+    private static ConfigException corrupt(String description, Exception e) {
+        ConfigOrigin origin = SimpleConfigOrigin.newFile(description);
+        return new ConfigException.IO(origin, "corrupt snapshot: " + e.getClass().getSimpleName() + ": "
+                + e.getMessage(), e);
+    }
+
+    private static ConfigException.IO ioError(File file, IOException e) {
+        String description = file != null ? file.getPath() : "config snapshot";
+        return new ConfigException.IO(SimpleConfigOrigin.newFile(description),
+                e.getClass().getSimpleName() + ": " + e.getMessage(), e);
+    }
+}
@@ -15,6 +15,12 @@ abstract class ConfigString extends AbstractConfigValue implements Serializable
     private static final long serialVersionUID = 2L;
 
     final protected String value;
+    // the Duration, Period or BigInteger number of bytes that SimpleConfig
+    // last decoded from this string; the same setting tends to be decoded
+    // over and over, and since the string can't change neither can the
+    // result. Racing threads decode the same thing, so it doesn't matter
+    // which one's result sticks.
+    private transient volatile Object decoded;
 
     protected ConfigString(ConfigOrigin origin, String value) {
         super(origin);
@@ -59,6 +65,14 @@ abstract class ConfigString extends AbstractConfigValue implements Serializable
         }
     }
 
+    Object decoded() {
+        return decoded;
+    }
+
+    void setDecoded(Object decoded) {
+        this.decoded = decoded;
+    }
+
     boolean wasQuoted() {
         return (this instanceof Quoted);
     }
@@ -0,0 +1,350 @@
+package com.typesafe.config.impl;
+
+import java.beans.Introspector;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueType;
+import com.typesafe.config.Optional;
+
+/**
+ * Internal implementation detail, not ABI stable, do not touch.
+ * For use only by the {@link com.typesafe.config} package.
+ */
+public class ConfigViewImpl {
+
+    // everything about a view interface we can figure out without a config,
+    // computed the first time the interface is used as a view
+    private static final ClassValue<ViewType> viewTypes = new ClassValue<ViewType>() {
+        @Override
+        protected ViewType computeValue(Class<?> iface) {
+            return new ViewType(iface);
+        }
+    };
+
+    private static final class ViewProperty {
+        final String name;
+        final String methodName;
+        // the keys which can hold this property, in the order we try them;
+        // a camel case key wins over a hyphenated one, as for beans
+        final String[] keys;
+        final Type returnType;
+        final Class<?> returnClass;
+        // null if we can't easily say
+        final ConfigValueType expectedType;
+        final boolean optional;
+        // true if the property is itself a view
+        final boolean view;
+        // the element interface if the property is a list of views, else null
+        final Class<?> viewElementClass;
+
+        ViewProperty(Class<?> iface, Method getter) {
+            this.name = propertyName(getter);
+            this.methodName = getter.getName();
+            String hyphenated = hyphenate(name);
+            if (!hyphenated.equals(name) && ConfigImplUtil.toCamelCase(hyphenated).equals(name))
+                this.keys = new String[] { name, hyphenated };
+            else
+                this.keys = new String[] { name };
+            this.returnType = getter.getGenericReturnType();
+            this.returnClass = getter.getReturnType();
+            this.view = isViewInterface(returnClass);
+            this.viewElementClass = listElementView(returnClass, returnType);
+            this.expectedType = view ? ConfigValueType.OBJECT : ConfigBeanImpl.getValueTypeOrNull(returnClass);
+            this.optional = getter.getAnnotation(Optional.class) != null;
+            if (optional && returnClass.isPrimitive())
+                throw new ConfigException.BadBean("View getter " + methodName + " of " + iface.getName()
+                        + " is @Optional so it can't return a primitive " + returnClass.getName());
+        }
+
+        private static String propertyName(Method getter) {
+            String methodName = getter.getName();
+            if (methodName.length() > 3 && methodName.startsWith("get")
+                    && Character.isUpperCase(methodName.charAt(3)))
+                return Introspector.decapitalize(methodName.substring(3));
+            else if (methodName.length() > 2 && methodName.startsWith("is")
+                    && Character.isUpperCase(methodName.charAt(2))
+                    && (getter.getReturnType() == boolean.class || getter.getReturnType() == Boolean.class))
+                return Introspector.decapitalize(methodName.substring(2));
+            else
+                return methodName;
+        }
+
+        private static String hyphenate(String camelName) {
+            StringBuilder sb = new StringBuilder(camelName.length() + 4);
+            for (int i = 0; i < camelName.length(); ++i) {
+                char c = camelName.charAt(i);
+                if (i > 0 && Character.isUpperCase(c)) {
+                    sb.append('-');
+                    sb.append(Character.toLowerCase(c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+
+        private static Class<?> listElementView(Class<?> returnClass, Type returnType) {
+            if (returnClass != List.class || !(returnType instanceof ParameterizedType))
+                return null;
+            Type elementType = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+            if (elementType instanceof Class && isViewInterface((Class<?>) elementType))
+                return (Class<?>) elementType;
+            else
+                return null;
+        }
+    }
+
+    private static final class ViewType {
+        final Class<?> iface;
+        final ViewProperty[] properties;
+        // getters have no parameters, so the name picks out the method
+        final Map<String, Integer> propertyIndex;
+        // the index of each Method the proxy class has passed to invoke(),
+        // -1 for the Object methods; the proxy class keeps one Method per
+        // method, so after the first call of each this is all a getter
+        // looks up. Replaced rather than modified, so it can be read
+        // without locking.
+        private volatile Map<Method, Integer> methodIndex = new IdentityHashMap<Method, Integer>();
+
+        ViewType(Class<?> iface) {
+            if (!iface.isInterface() || iface.isAnnotation())
+                throw new ConfigException.BadBean(iface.getName() + " needs to be an interface to be used as a view");
+            this.iface = iface;
+
+            // a getter inherited from more than one interface is listed once
+            // for each, so keep the one with the most specific return type
+            Map<String, Method> getters = new HashMap<String, Method>();
+            for (Method method : iface.getMethods()) {
+                // a bridge is how a covariant getter overrides an inherited one
+                if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || isObjectMethod(method))
+                    continue;
+                if (method.isDefault())
+                    throw new ConfigException.BadBean("View " + iface.getName() + " has default method "
+                            + method.getName() + ", views can only have getters");
+                if (method.getParameterTypes().length != 0 || method.getReturnType() == void.class)
+                    throw new ConfigException.BadBean("View " + iface.getName() + " has method "
+                            + method.getName() + " which isn't a getter, views can only have getters");
+                Method other = getters.get(method.getName());
+                if (other == null || other.getReturnType().isAssignableFrom(method.getReturnType()))
+                    getters.put(method.getName(), method);
+                else if (!method.getReturnType().isAssignableFrom(other.getReturnType()))
+                    throw new ConfigException.BadBean("View " + iface.getName() + " inherits getter "
+                            + method.getName() + " with return types " + other.getReturnType().getName()
+                            + " and " + method.getReturnType().getName());
+            }
+            List<ViewProperty> viewProps = new ArrayList<ViewProperty>();
+            Map<String, String> methodsByProperty = new HashMap<String, String>();
+            for (Method method : getters.values()) {
+                ViewProperty viewProp = new ViewProperty(iface, method);
+                String other = methodsByProperty.put(viewProp.name, viewProp.methodName);
+                if (other != null)
+                    throw new ConfigException.BadBean("View " + iface.getName() + " has getters " + other
+                            + " and " + viewProp.methodName + " for the same property " + viewProp.name);
+                viewProps.add(viewProp);
+            }
+            // getMethods() has no particular order, so sort for a stable toString()
+            Collections.sort(viewProps, new Comparator<ViewProperty>() {
+                @Override
+                public int compare(ViewProperty a, ViewProperty b) {
+                    return a.name.compareTo(b.name);
+                }
+            });
+            this.properties = viewProps.toArray(new ViewProperty[viewProps.size()]);
+            this.propertyIndex = new HashMap<String, Integer>();
+            for (int i = 0; i < properties.length; ++i)
+                propertyIndex.put(properties[i].methodName, i);
+        }
+
+        // the property a method called on a view returns, or -1
+        int indexOf(Method method) {
+            Integer index = methodIndex.get(method);
+            if (index == null) {
+                synchronized (this) {
+                    Integer byName = method.getParameterTypes().length == 0 ? propertyIndex.get(method.getName())
+                            : null;
+                    index = byName != null ? byName : -1;
+                    Map<Method, Integer> copy = new IdentityHashMap<Method, Integer>(methodIndex);
+                    copy.put(method, index);
+                    methodIndex = copy;
+                }
+            }
+            return index;
+        }
+
+        private static boolean isObjectMethod(Method method) {
+            try {
+                Object.class.getMethod(method.getName(), method.getParameterTypes());
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    }
+
+    // the values of one view; each getter returns a slot of the array
+    private static final class ViewHandler implements InvocationHandler {
+        final ViewType type;
+        final Object[] values;
+
+        ViewHandler(ViewType type, Object[] values) {
+            this.type = type;
+            this.values = values;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            int index = type.indexOf(method);
+            if (index >= 0)
+                return values[index];
+
+            // otherwise it's one of the Object methods, which compare and
+            // print the values the way a record would
+            String name = method.getName();
+            if (name.equals("equals")) {
+                Object other = args[0];
+                if (other == null || !Proxy.isProxyClass(other.getClass()))
+                    return false;
+                InvocationHandler otherHandler = Proxy.getInvocationHandler(other);
+                return otherHandler instanceof ViewHandler && ((ViewHandler) otherHandler).type == type
+                        && Arrays.equals(((ViewHandler) otherHandler).values, values);
+            } else if (name.equals("hashCode")) {
+                return 41 * type.iface.hashCode() + Arrays.hashCode(values);
+            } else {
+                StringBuilder sb = new StringBuilder();
+                sb.append(type.iface.getSimpleName());
+                sb.append("(");
+                for (int i = 0; i < values.length; ++i) {
+                    if (i > 0)
+                        sb.append(", ");
+                    sb.append(type.properties[i].name);
+                    sb.append("=");
+                    sb.append(values[i]);
+                }
+                sb.append(")");
+                return sb.toString();
+            }
+        }
+    }
+
+    /**
+     * This is public ONLY for use by the "config" package, DO NOT USE this ABI
+     * may change.
+     * @param <T> type of the view
+     * @param config config to use
+     * @param iface interface the view implements
+     * @return the view
+     */
+    public static <T> T createInternal(Config config, Class<T> iface) {
+        if (((SimpleConfig)config).root().resolveStatus() != ResolveStatus.RESOLVED)
+            throw new ConfigException.NotResolved(
+                    "need to Config#resolve() a config before using it to create a view, see the API docs for Config#resolve()");
+
+        ViewType type = viewTypes.get(iface);
+        ViewProperty[] viewProps = type.properties;
+        AbstractConfigObject root = ((SimpleConfig) config).root();
+
+        // the config key used for each property
+        String[] keys = new String[viewProps.length];
+        for (int i = 0; i < viewProps.length; ++i) {
+            for (String key : viewProps[i].keys) {
+                if (root.containsKey(key)) {
+                    keys[i] = key;
+                    break;
+                }
+            }
+        }
+
+        // Try to throw all validation issues at once, as beans do
+        List<ConfigException.ValidationProblem> problems = new ArrayList<ConfigException.ValidationProblem>();
+        for (int i = 0; i < viewProps.length; ++i) {
+            ViewProperty viewProp = viewProps[i];
+            ConfigValueType expectedType = viewProp.expectedType;
+            if (expectedType != null) {
+                if (keys[i] != null) {
+                    AbstractConfigValue configValue = root.get(keys[i]);
+                    SimpleConfig.checkValid(Path.newKey(keys[i]), expectedType, configValue, problems);
+                } else if (!viewProp.optional) {
+                    SimpleConfig.addMissing(problems, expectedType, Path.newKey(viewProp.name), config.origin());
+                }
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            throw new ConfigException.ValidationFailed(problems);
+        }
+
+        // decode everything now, so the getters don't have to
+        Object[] values = new Object[viewProps.length];
+        for (int i = 0; i < viewProps.length; ++i) {
+            ViewProperty viewProp = viewProps[i];
+            String key = keys[i];
+            if (key == null) {
+                if (viewProp.optional)
+                    continue;
+                throw new ConfigException.Missing(viewProp.name);
+            }
+            values[i] = getValue(iface, viewProp, config, key);
+        }
+
+        return iface.cast(Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[] { iface },
+                new ViewHandler(type, values)));
+    }
+
+    private static Object getValue(Class<?> iface, ViewProperty viewProp, Config config, String key) {
+        if (viewProp.view) {
+            return createInternal(config.getConfig(key), viewProp.returnClass);
+        } else if (viewProp.viewElementClass != null) {
+            List<? extends Config> configList = config.getConfigList(key);
+            List<Object> views = new ArrayList<Object>(configList.size());
+            for (Config listMember : configList)
+                views.add(createInternal(listMember, viewProp.viewElementClass));
+            return Collections.unmodifiableList(views);
+        } else {
+            return unmodifiable(ConfigBeanImpl.getValue(iface, viewProp.returnType, viewProp.returnClass, config, key));
+        }
+    }
+
+    // one view is handed to every caller, so they mustn't be able to change
+    // the collections it returns; ConfigList and ConfigObject are immutable
+    // already
+    @SuppressWarnings("unchecked")
+    private static Object unmodifiable(Object value) {
+        if (value instanceof ConfigValue)
+            return value;
+        else if (value instanceof List)
+            return Collections.unmodifiableList((List<Object>) value);
+        else if (value instanceof Set)
+            return Collections.unmodifiableSet((Set<Object>) value);
+        else if (value instanceof Map)
+            return Collections.unmodifiableMap((Map<String, Object>) value);
+        else
+            return value;
+    }
+
+    // an interface we can't get from a Config directly, which we take to be
+    // another view
+    private static boolean isViewInterface(Class<?> clazz) {
+        return clazz.isInterface() && !clazz.isAnnotation() && !clazz.getName().startsWith("java.")
+                && clazz != Config.class && clazz != ConfigObject.class && clazz != ConfigValue.class
+                && clazz != ConfigList.class;
+    }
+}
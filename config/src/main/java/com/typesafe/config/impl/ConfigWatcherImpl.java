@@ -0,0 +1,267 @@
+package com.typesafe.config.impl;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigWatcher;
+
+/**
+ * Internal implementation detail, not ABI stable, do not touch.
+ * For use only by the {@link com.typesafe.config} package.
+ */
+public final class ConfigWatcherImpl {
+
+    final private Callable<Config> loader;
+    final private long debounceNanos;
+    final private ParseCache cache = new ParseCache();
+    final private List<ConfigWatcher.Listener> listeners = new CopyOnWriteArrayList<ConfigWatcher.Listener>();
+    // reloads, and the fields below, are guarded by this lock
+    final private Object lock = new Object();
+    // null once closed
+    private WatchService watchService;
+    final private Map<Path, WatchKey> directories = new HashMap<Path, WatchKey>();
+    // absolute paths of the files the last load looked at
+    private Set<Path> files = Collections.emptySet();
+    private volatile Config current;
+
+    private ConfigWatcherImpl(Callable<Config> loader, long debounceNanos) {
+        this.loader = loader;
+        this.debounceNanos = debounceNanos;
+    }
+
+    /** For use ONLY by library internals, DO NOT TOUCH not guaranteed ABI */
+    public static ConfigWatcherImpl watchInternal(Callable<Config> loader, long debounceNanos) {
+        final ConfigWatcherImpl watcher = new ConfigWatcherImpl(loader, debounceNanos);
+        final WatchService service;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new ConfigException.Generic("could not create a file watch service: " + e.getMessage(), e);
+        }
+        synchronized (watcher.lock) {
+            watcher.watchService = service;
+            try {
+                watcher.current = watcher.load();
+            } catch (RuntimeException e) {
+                watcher.close();
+                throw e;
+            }
+        }
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watcher.watchLoop(service);
+            }
+        }, "config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return watcher;
+    }
+
+    /** For use ONLY by library internals, DO NOT TOUCH not guaranteed ABI */
+    public Config current() {
+        return current;
+    }
+
+    /** For use ONLY by library internals, DO NOT TOUCH not guaranteed ABI */
+    public Config reload() {
+        synchronized (lock) {
+            Config previous = current;
+            Config loaded = load();
+            if (loaded.equals(previous))
+                return previous;
+            current = loaded;
+            for (ConfigWatcher.Listener listener : listeners) {
+                listener.configChanged(previous, loaded);
+            }
+            return loaded;
+        }
+    }
+
+    /** For use ONLY by library internals, DO NOT TOUCH not guaranteed ABI */
+    public void addListener(ConfigWatcher.Listener listener) {
+        listeners.add(listener);
+    }
+
+    /** For use ONLY by library internals, DO NOT TOUCH not guaranteed ABI */
+    public void removeListener(ConfigWatcher.Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** For use ONLY by library internals, DO NOT TOUCH not guaranteed ABI */
+    public void close() {
+        synchronized (lock) {
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException e) {
+                    if (ConfigImpl.traceLoadsEnabled())
+                        ConfigImpl.trace("Failed to close file watch service: " + e.getMessage());
+                }
+                watchService = null;
+                directories.clear();
+            }
+        }
+    }
+
+    // calls the loader with the parse cache in use, and watches the files
+    // it looked at; when the load fails we keep watching the old files too,
+    // since fixing any of them may fix the load. While our cache is in use,
+    // ConfigImpl bypasses its JVM-wide caches on this thread, so loaders
+    // like ConfigFactory::load reparse (through our cache) rather than
+    // returning the config from before the change.
+    private Config load() {
+        Config loaded = null;
+        Set<File> touched;
+        cache.begin();
+        try {
+            loaded = loader.call();
+        } catch (ConfigException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConfigException.Generic("failed to load config: " + e.getMessage(), e);
+        } finally {
+            touched = cache.end();
+            watch(touched, loaded == null);
+        }
+        if (loaded == null)
+            throw new ConfigException.Generic("config loader " + loader + " returned null");
+        return loaded;
+    }
+
+    private void watch(Set<File> touched, boolean keepOld) {
+        Set<Path> paths = new HashSet<Path>();
+        if (keepOld)
+            paths.addAll(files);
+        for (File file : touched) {
+            try {
+                paths.add(file.toPath().toAbsolutePath().normalize());
+            } catch (InvalidPathException e) {
+                // can't exist, so can't change either
+            }
+        }
+        files = paths;
+
+        if (watchService == null)
+            return;
+
+        // a missing file is watched from the nearest directory that exists,
+        // so we notice when its directories are created
+        Set<Path> needed = new HashSet<Path>();
+        for (Path path : paths) {
+            Path directory = path.getParent();
+            while (directory != null && !Files.isDirectory(directory))
+                directory = directory.getParent();
+            if (directory != null)
+                needed.add(directory);
+        }
+        Iterator<Map.Entry<Path, WatchKey>> i = directories.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<Path, WatchKey> e = i.next();
+            if (!needed.contains(e.getKey())) {
+                e.getValue().cancel();
+                i.remove();
+            }
+        }
+        for (Path directory : needed) {
+            if (directories.containsKey(directory))
+                continue;
+            try {
+                directories.put(directory, directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
+            } catch (IOException e) {
+                if (ConfigImpl.traceLoadsEnabled())
+                    ConfigImpl.trace("Not watching " + directory + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // true if the events on this key may change the config
+    private boolean consume(WatchKey key) {
+        synchronized (lock) {
+            Path directory = (Path) key.watchable();
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    changed = true;
+                } else {
+                    Path path = directory.resolve((Path) event.context());
+                    for (Path file : files) {
+                        if (file.startsWith(path)) {
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            if (!key.reset()) {
+                // the directory went away
+                directories.remove(directory);
+                changed = true;
+            }
+            return changed;
+        }
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                if (!consume(service.take()))
+                    continue;
+                // wait for the changes to settle
+                WatchKey key;
+                while ((key = service.poll(debounceNanos, TimeUnit.NANOSECONDS)) != null)
+                    consume(key);
+
+                try {
+                    reload();
+                } catch (ConfigException e) {
+                    try {
+                        for (ConfigWatcher.Listener listener : listeners) {
+                            listener.reloadFailed(e);
+                        }
+                    } catch (RuntimeException listenerFailure) {
+                        reportListenerFailure(listenerFailure);
+                    }
+                } catch (RuntimeException listenerFailure) {
+                    reportListenerFailure(listenerFailure);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        } catch (InterruptedException e) {
+            // stop watching
+        }
+    }
+
+    // a listener which throws shouldn't stop the watching
+    private static void reportListenerFailure(RuntimeException e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+}
@@ -10,6 +10,14 @@ final class MemoKey {
     final private AbstractConfigValue value;
     final private Path restrictToChildOrNull;
 
+    AbstractConfigValue value() {
+        return value;
+    }
+
+    Path restrictToChild() {
+        return restrictToChildOrNull;
+    }
+
     @Override
     public final int hashCode() {
         int h = System.identityHashCode(value);
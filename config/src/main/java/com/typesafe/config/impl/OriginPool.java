@@ -0,0 +1,57 @@
+package com.typesafe.config.impl;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Shares one instance among equal origins of the kinds which are made again
+ * and again: merging makes one for every merged value, loading the same
+ * files again (another class loader, a reload) makes new file and resource
+ * origins, and each snapshot read makes its origins again. The first
+ * instance seen is kept, with its strings interned, for as long as anything
+ * else refers to it. Line origins don't come here; they are only repeated
+ * within one parse, and there are too many of them to take a lock each.
+ *
+ * Only origins without comments are pooled, since equals() ignores
+ * comments; an origin with comments is usually made from a pooled one and
+ * shares its strings anyway.
+ *
+ * The pool is split into stripes, each with its own lock, so that parsing
+ * resources in parallel doesn't serialize on it.
+ */
+final class OriginPool {
+
+    private static final int STRIPES = 16;
+
+    // one lock and its share of the pool; a holder class rather than an
+    // array of maps, since Java can't create an array of a generic type
+    private static final class Stripe {
+        final Map<SimpleConfigOrigin, WeakReference<SimpleConfigOrigin>> pool = new WeakHashMap<SimpleConfigOrigin, WeakReference<SimpleConfigOrigin>>();
+    }
+
+    private static final Stripe[] stripes = new Stripe[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; ++i)
+            stripes[i] = new Stripe();
+    }
+
+    private OriginPool() {
+    }
+
+    // the pooled origin equal to this one, which must not have comments
+    static SimpleConfigOrigin share(SimpleConfigOrigin origin) {
+        int h = origin.hashCode();
+        Stripe stripe = stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+        synchronized (stripe) {
+            WeakReference<SimpleConfigOrigin> ref = stripe.pool.get(origin);
+            SimpleConfigOrigin shared = ref != null ? ref.get() : null;
+            if (shared == null) {
+                shared = origin.withInternedStrings();
+                stripe.pool.put(shared, new WeakReference<SimpleConfigOrigin>(shared));
+            }
+            return shared;
+        }
+    }
+}
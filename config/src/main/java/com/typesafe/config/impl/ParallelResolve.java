@@ -0,0 +1,180 @@
+package com.typesafe.config.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.impl.AbstractConfigValue.NotPossibleToResolve;
+
+/**
+ * Resolves the children of a root object in parallel, for
+ * ConfigResolveOptions.setParallelResolution(). The unresolved children are
+ * split into groups such that no substitution in one group refers to a key
+ * of another; a substitution can only look at the root child its path starts
+ * with (or, for one in an included file, the child its path without the
+ * include's prefix starts with), so resolving one group never touches
+ * another and each group can have its own ResolveContext.
+ *
+ * The groups are dealt out to a few tasks per pool thread. Each task
+ * resolves its children in the order the root has them, as a sequential
+ * resolve would, so within a group everything happens in the same order.
+ * If children fail in several tasks, the failure of the earliest child is
+ * thrown; that's the one a sequential resolve would have stopped at.
+ *
+ * This doesn't record dependencies for ResolveDependencies, so a parallel
+ * resolve neither uses nor adds to a ConfigResolveSession.
+ */
+final class ParallelResolve {
+
+    // tasks per pool thread, so that a few big groups don't leave threads idle
+    private static final int TASKS_PER_THREAD = 4;
+
+    private ParallelResolve() {
+    }
+
+    // null if the root doesn't split into at least two groups, in which case
+    // the caller should resolve it as usual
+    static AbstractConfigObject resolve(final SimpleConfigObject root, final ConfigResolveOptions options) {
+        List<String> keyList = new ArrayList<String>();
+        for (String key : root.keySet()) {
+            if (root.get(key).resolveStatus() != ResolveStatus.RESOLVED)
+                keyList.add(key);
+        }
+        final String[] keys = keyList.toArray(new String[keyList.size()]);
+        Map<String, Integer> index = new HashMap<String, Integer>();
+        for (int i = 0; i < keys.length; ++i)
+            index.put(keys[i], i);
+
+        // union-find over the unresolved children
+        int[] parents = new int[keys.length];
+        for (int i = 0; i < keys.length; ++i)
+            parents[i] = i;
+        List<String> referenced = new ArrayList<String>();
+        for (int i = 0; i < keys.length; ++i) {
+            referenced.clear();
+            if (!collectReferencedKeys(root.get(keys[i]), referenced))
+                return null;
+            for (String key : referenced) {
+                Integer other = index.get(key);
+                if (other != null)
+                    union(parents, i, other);
+            }
+        }
+
+        // number the groups in the order their first child appears
+        int[] groups = new int[keys.length];
+        Map<Integer, Integer> groupNumbers = new HashMap<Integer, Integer>();
+        for (int i = 0; i < keys.length; ++i) {
+            int representative = find(parents, i);
+            Integer number = groupNumbers.get(representative);
+            if (number == null) {
+                number = groupNumbers.size();
+                groupNumbers.put(representative, number);
+            }
+            groups[i] = number;
+        }
+        int groupCount = groupNumbers.size();
+        if (groupCount < 2)
+            return null;
+
+        int taskCount = Math.min(groupCount, ForkJoinPool.getCommonPoolParallelism() * TASKS_PER_THREAD);
+        final List<List<Integer>> taskChildren = new ArrayList<List<Integer>>(taskCount);
+        for (int t = 0; t < taskCount; ++t)
+            taskChildren.add(new ArrayList<Integer>());
+        for (int i = 0; i < keys.length; ++i)
+            taskChildren.get(groups[i] % taskCount).add(i);
+
+        final AbstractConfigValue[] resolved = new AbstractConfigValue[keys.length];
+        final Throwable[] failures = new Throwable[keys.length];
+        List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(taskCount);
+        for (final List<Integer> children : taskChildren) {
+            tasks.add(ForkJoinTask.adapt(new Runnable() {
+                @Override
+                public void run() {
+                    ResolveContext context = new ResolveContext(options, null /* restrictToChild */,
+                            null /* dependencies */);
+                    // what resolving the root would resolve its children against
+                    ResolveSource source = new ResolveSource(root).pushParent(root);
+                    for (int i : children) {
+                        try {
+                            resolved[i] = context.resolve(root.get(keys[i]), source).value;
+                        } catch (NotPossibleToResolve e) {
+                            failures[i] = new ConfigException.BugOrBroken(
+                                    "NotPossibleToResolve was thrown from an outermost resolve", e);
+                            return;
+                        } catch (RuntimeException | Error e) {
+                            failures[i] = e;
+                            return;
+                        }
+                    }
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        final Map<String, AbstractConfigValue> changes = new HashMap<String, AbstractConfigValue>();
+        for (int i = 0; i < keys.length; ++i) {
+            if (failures[i] instanceof RuntimeException)
+                throw (RuntimeException) failures[i];
+            else if (failures[i] instanceof Error)
+                throw (Error) failures[i];
+            changes.put(keys[i], resolved[i]);
+        }
+        return root.replaceChildren(changes);
+    }
+
+    // adds the root keys that the substitutions in the value can look at;
+    // false if there's an unresolved value we don't know how to look into
+    private static boolean collectReferencedKeys(AbstractConfigValue value, List<String> into) {
+        if (value.resolveStatus() == ResolveStatus.RESOLVED) {
+            return true;
+        } else if (value instanceof ConfigReference) {
+            ConfigReference reference = (ConfigReference) value;
+            Path path = reference.expression().path();
+            into.add(path.first());
+            Path unprefixed = path.subPath(reference.prefixLength());
+            if (unprefixed != null)
+                into.add(unprefixed.first());
+            return true;
+        } else if (value instanceof ConfigConcatenation) {
+            return collectAll(((ConfigConcatenation) value).pieces(), into);
+        } else if (value instanceof ReplaceableMergeStack) {
+            return collectAll(((Unmergeable) value).unmergedValues(), into);
+        } else if (value instanceof SimpleConfigObject) {
+            return collectAll(((SimpleConfigObject) value).values(), into);
+        } else if (value instanceof SimpleConfigList) {
+            return collectAll((SimpleConfigList) value, into);
+        } else {
+            return false;
+        }
+    }
+
+    private static boolean collectAll(Iterable<? extends ConfigValue> values, List<String> into) {
+        for (ConfigValue value : values) {
+            if (!collectReferencedKeys((AbstractConfigValue) value, into))
+                return false;
+        }
+        return true;
+    }
+
+    private static int find(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parents, int a, int b) {
+        int ra = find(parents, a);
+        int rb = find(parents, b);
+        if (ra != rb)
+            parents[Math.max(ra, rb)] = Math.min(ra, rb);
+    }
+}
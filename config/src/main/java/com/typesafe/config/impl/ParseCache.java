@@ -0,0 +1,275 @@
+package com.typesafe.config.impl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigIncluder;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigOriginTracking;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigSyntax;
+
+/**
+ * Remembers the values parsed from files while a cache is in use on the
+ * current thread (between begin() and end()), so that loading the same config
+ * again only reparses the files which changed in between. This is what lets
+ * ConfigWatcher reload cheaply.
+ *
+ * Each cached value records the size, modification time and a digest of the
+ * contents of its file and of every file it included, and is only reused
+ * while none of them has changed. The digest is there because modification
+ * times can be coarse, so an edit which keeps the size the same could
+ * otherwise go unnoticed. A value which depended on anything that isn't a plain file (a
+ * classpath lookup, a URL, a string) is never cached, though the files below
+ * it still are. The files looked at during a load, including the ones which
+ * were missing, are returned by end() so the caller can watch them.
+ */
+final class ParseCache {
+
+    private static final ThreadLocal<ParseCache> current = new ThreadLocal<ParseCache>();
+
+    // what a file looked like when we read it; MISSING if it didn't exist
+    static final class Stamp {
+        static final Stamp MISSING = new Stamp(null, -1, null, null);
+
+        final private FileTime modified;
+        final private long size;
+        final private Object fileKey;
+        // of the contents, null if not a regular file
+        final private byte[] digest;
+
+        private Stamp(FileTime modified, long size, Object fileKey, byte[] digest) {
+            this.modified = modified;
+            this.size = size;
+            this.fileKey = fileKey;
+            this.digest = digest;
+        }
+
+        static Stamp of(File file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                byte[] digest = attributes.isRegularFile() ? digest(file) : null;
+                return new Stamp(attributes.lastModifiedTime(), attributes.size(), attributes.fileKey(), digest);
+            } catch (IOException e) {
+                return MISSING;
+            }
+        }
+
+        private static byte[] digest(File file) throws IOException {
+            MessageDigest md;
+            try {
+                md = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new ConfigException.BugOrBroken("SHA-256 is not available", e);
+            }
+            InputStream stream = new FileInputStream(file);
+            try {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = stream.read(buf)) > 0)
+                    md.update(buf, 0, n);
+            } finally {
+                stream.close();
+            }
+            return md.digest();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof Stamp) {
+                Stamp that = (Stamp) other;
+                return size == that.size && ConfigImplUtil.equalsHandlingNull(modified, that.modified)
+                        && ConfigImplUtil.equalsHandlingNull(fileKey, that.fileKey)
+                        && Arrays.equals(digest, that.digest);
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) size;
+        }
+    }
+
+    // the parse options which can change what a file parses to; the class
+    // loader and includer are compared by identity
+    private static final class Key {
+        final private File file;
+        final private ConfigOrigin origin;
+        final private ConfigSyntax syntax;
+        final private boolean allowMissing;
+        final private ConfigIncluder includer;
+        final private ClassLoader loader;
+        final private ConfigOriginTracking originTracking;
+
+        Key(File file, ConfigOrigin origin, ConfigParseOptions options) {
+            this.file = file;
+            this.origin = origin;
+            this.syntax = options.getSyntax();
+            this.allowMissing = options.getAllowMissing();
+            this.includer = options.getIncluder();
+            this.loader = options.getClassLoader();
+            this.originTracking = options.getOriginTracking();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof Key) {
+                Key that = (Key) other;
+                return file.equals(that.file) && origin.equals(that.origin) && syntax == that.syntax
+                        && allowMissing == that.allowMissing && includer == that.includer
+                        && loader == that.loader && originTracking == that.originTracking;
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return file.hashCode() * 41 + origin.hashCode();
+        }
+    }
+
+    private static final class Entry {
+        final AbstractConfigValue value;
+        final Map<File, Stamp> files;
+
+        Entry(AbstractConfigValue value, Map<File, Stamp> files) {
+            this.value = value;
+            this.files = files;
+        }
+
+        boolean isCurrent() {
+            for (Map.Entry<File, Stamp> e : files.entrySet()) {
+                if (!Stamp.of(e.getKey()).equals(e.getValue()))
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    // one parse in progress; collects the files it depends on
+    private static final class Frame {
+        final Map<File, Stamp> files = new HashMap<File, Stamp>();
+        boolean cacheable = true;
+    }
+
+    final private Map<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+    final private Map<File, Stamp> touched = new ConcurrentHashMap<File, Stamp>();
+    final private ThreadLocal<LinkedList<Frame>> frames = new ThreadLocal<LinkedList<Frame>>() {
+        @Override
+        protected LinkedList<Frame> initialValue() {
+            return new LinkedList<Frame>();
+        }
+    };
+
+    static ParseCache current() {
+        return current.get();
+    }
+
+    // for parses that continue on another thread
+    static void setCurrent(ParseCache cache) {
+        if (cache == null)
+            current.remove();
+        else
+            current.set(cache);
+    }
+
+    void begin() {
+        if (current.get() != null)
+            throw new ConfigException.BugOrBroken("a parse cache is already in use on this thread");
+        touched.clear();
+        current.set(this);
+    }
+
+    // returns the files looked at since begin(), and forgets cached values
+    // for any other files
+    Set<File> end() {
+        current.remove();
+        Set<File> files = new HashSet<File>(touched.keySet());
+        touched.clear();
+        entries.keySet().retainAll(keysFor(files));
+        return files;
+    }
+
+    private Set<Key> keysFor(Set<File> files) {
+        Set<Key> keys = new HashSet<Key>();
+        for (Key key : entries.keySet()) {
+            if (files.contains(key.file))
+                keys.add(key);
+        }
+        return keys;
+    }
+
+    // records that the parse in progress depends on whether this file
+    // exists, without parsing it
+    void checked(File file) {
+        Stamp stamp = Stamp.of(file);
+        touched.put(file, stamp);
+        LinkedList<Frame> stack = frames.get();
+        if (stack.isEmpty())
+            frames.remove();
+        else
+            stack.peek().files.put(file, stamp);
+    }
+
+    AbstractConfigValue parse(Parseable parseable, ConfigOrigin origin, ConfigParseOptions options) {
+        File file = parseable.watchedFile();
+        Key key = file != null ? new Key(file, origin, options) : null;
+        LinkedList<Frame> stack = frames.get();
+        Frame parent = stack.peek();
+
+        if (key != null) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isCurrent()) {
+                if (ConfigImpl.traceLoadsEnabled())
+                    ConfigImpl.trace("Reusing config parsed earlier from " + file);
+                touched.putAll(entry.files);
+                if (parent != null)
+                    parent.files.putAll(entry.files);
+                return entry.value;
+            }
+        }
+
+        Frame frame = new Frame();
+        if (file != null)
+            frame.files.put(file, Stamp.of(file));
+        else
+            frame.cacheable = false;
+
+        AbstractConfigValue value;
+        stack.push(frame);
+        try {
+            value = parseable.parseValueUncached(origin, options);
+        } finally {
+            stack.pop();
+            if (stack.isEmpty())
+                frames.remove();
+            touched.putAll(frame.files);
+            if (parent != null) {
+                parent.files.putAll(frame.files);
+                parent.cacheable &= frame.cacheable;
+            }
+        }
+
+        if (key != null && frame.cacheable)
+            entries.put(key, new Entry(value, frame.files));
+        return value;
+    }
+}
@@ -20,6 +20,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.*;
+import java.util.concurrent.ForkJoinTask;
 
 import com.typesafe.config.*;
 import com.typesafe.config.parser.*;
@@ -176,6 +177,15 @@ public abstract class Parseable implements ConfigParseable {
 
     final private AbstractConfigValue parseValue(ConfigOrigin origin,
             ConfigParseOptions finalOptions) {
+        ParseCache cache = ParseCache.current();
+        if (cache != null)
+            return cache.parse(this, origin, finalOptions);
+        else
+            return parseValueUncached(origin, finalOptions);
+    }
+
+    final AbstractConfigValue parseValueUncached(ConfigOrigin origin,
+            ConfigParseOptions finalOptions) {
         try {
             return rawParseValue(origin, finalOptions);
         } catch (IOException e) {
@@ -226,6 +236,12 @@ public abstract class Parseable implements ConfigParseable {
         }
     }
 
+    // the file this parseable reads, if it reads one, so a ParseCache can
+    // tell whether it changed
+    File watchedFile() {
+        return null;
+    }
+
     // this is parseValue without post-processing the IOException or handling
     // options.getAllowMissing()
     protected AbstractConfigValue rawParseValue(ConfigOrigin origin, ConfigParseOptions finalOptions)
@@ -258,7 +274,8 @@ public abstract class Parseable implements ConfigParseable {
         if (finalOptions.getSyntax() == ConfigSyntax.PROPERTIES) {
             return PropertiesParser.parse(reader, origin);
         } else {
-            Iterator<Token> tokens = Tokenizer.tokenize(origin, reader, finalOptions.getSyntax());
+            Iterator<Token> tokens = Tokenizer.tokenize(origin, reader, finalOptions.getSyntax(),
+                    ConfigImpl.sharedValueOrigin(origin, ConfigImpl.originTracking(finalOptions)));
             ConfigNodeRoot document = ConfigDocumentParser.parse(tokens, origin, finalOptions);
             return ConfigParser.parse(document, origin, finalOptions, includeContext());
         }
@@ -561,6 +578,15 @@ public abstract class Parseable implements ConfigParseable {
             }
         }
 
+        @Override
+        File watchedFile() {
+            // resources in a classpath directory have file: URLs
+            if (input.getProtocol().equals("file"))
+                return ConfigImplUtil.urlToFile(input);
+            else
+                return null;
+        }
+
         @Override
         ConfigSyntax guessSyntax() {
             return ConfigImplUtil.syntaxFromExtension(input.getPath());
@@ -630,6 +656,11 @@ public abstract class Parseable implements ConfigParseable {
             return readerFromStream(stream);
         }
 
+        @Override
+        File watchedFile() {
+            return input;
+        }
+
         @Override
         ConfigSyntax guessSyntax() {
             return ConfigImplUtil.syntaxFromExtension(input.getName());
@@ -646,6 +677,9 @@ public abstract class Parseable implements ConfigParseable {
             }
             if (sibling == null)
                 return null;
+            ParseCache cache = ParseCache.current();
+            if (cache != null)
+                cache.checked(sibling);
             if (sibling.exists()) {
                 trace(sibling + " exists, so loading it as a file");
                 return newFile(sibling, options().setOriginDescription(null));
@@ -670,6 +704,49 @@ public abstract class Parseable implements ConfigParseable {
         return new ParseableFile(input, options);
     }
 
+    private final static class ParseableSnapshot extends Parseable {
+        final private File input;
+
+        ParseableSnapshot(File input, ConfigParseOptions options) {
+            this.input = input;
+            postConstruct(options);
+        }
+
+        @Override
+        protected Reader reader() throws IOException {
+            throw new ConfigException.BugOrBroken("reader() should not be called on snapshots");
+        }
+
+        @Override
+        protected AbstractConfigValue rawParseValue(ConfigOrigin origin, ConfigParseOptions finalOptions)
+                throws IOException {
+            if (ConfigImpl.traceLoadsEnabled())
+                trace("Mapping config snapshot: " + input);
+            return ConfigSnapshotImpl.map(input);
+        }
+
+        @Override
+        File watchedFile() {
+            return input;
+        }
+
+        @Override
+        protected ConfigOrigin createOrigin() {
+            return SimpleConfigOrigin.newFile(input.getPath());
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "(" + input.getPath() + ")";
+        }
+    }
+
+    // a binary snapshot written by ConfigSnapshot, memory-mapped and
+    // decoded as it's accessed
+    public static Parseable newSnapshot(File input, ConfigParseOptions options) {
+        return new ParseableSnapshot(input, options);
+    }
+
 
     private final static class ParseableResourceURL extends ParseableURL {
 
@@ -725,7 +802,7 @@ public abstract class Parseable implements ConfigParseable {
                             + " but there were no resources called " + resource);
                 throw new IOException("resource not found on classpath: " + resource);
             }
-            AbstractConfigObject merged = SimpleConfigObject.empty(origin);
+            List<Parseable> elements = new ArrayList<Parseable>();
             while (e.hasMoreElements()) {
                 URL url = e.nextElement();
 
@@ -733,16 +810,83 @@ public abstract class Parseable implements ConfigParseable {
                     trace("Loading config from resource '" + resource + "' URL " + url.toExternalForm() + " from class loader "
                             + loader);
 
-                Parseable element = newResourceURL(url, finalOptions, resource, this);
+                elements.add(newResourceURL(url, finalOptions, resource, this));
+            }
 
-                AbstractConfigValue v = element.parseValue();
+            List<AbstractConfigValue> values;
+            if (elements.size() > 1 && ConfigImpl.parallelResourcesEnabled(finalOptions))
+                values = parseValuesInParallel(elements, loader);
+            else
+                values = parseValues(elements);
 
+            AbstractConfigObject merged = SimpleConfigObject.empty(origin);
+            for (AbstractConfigValue v : values) {
                 merged = merged.withFallback(v);
             }
 
             return merged;
         }
 
+        private static List<AbstractConfigValue> parseValues(List<Parseable> elements) {
+            List<AbstractConfigValue> values = new ArrayList<AbstractConfigValue>(elements.size());
+            for (Parseable element : elements) {
+                values.add(element.parseValue());
+            }
+            return values;
+        }
+
+        // Parses each element in its own ForkJoin task, and returns the values
+        // in the same order as the elements so merging them gives the same
+        // result as parseValues(). If any element fails, the exception from
+        // the first failing element is thrown, which is also what
+        // parseValues() would have thrown.
+        private static List<AbstractConfigValue> parseValuesInParallel(final List<Parseable> elements,
+                final ClassLoader loader) {
+            final AbstractConfigValue[] values = new AbstractConfigValue[elements.size()];
+            final Throwable[] failures = new Throwable[elements.size()];
+            // the include stack is thread-local, so give each task a copy
+            // of ours, to keep detecting include cycles across threads
+            final List<Parseable> callerStack = new ArrayList<Parseable>(parseStack.get());
+            final ParseCache cache = ParseCache.current();
+
+            List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(elements.size());
+            for (int i = 0; i < elements.size(); ++i) {
+                final int index = i;
+                tasks.add(ForkJoinTask.adapt(new Runnable() {
+                    @Override
+                    public void run() {
+                        Thread thread = Thread.currentThread();
+                        ClassLoader savedLoader = thread.getContextClassLoader();
+                        LinkedList<Parseable> savedStack = parseStack.get();
+                        // options without a class loader fall back to the
+                        // context class loader, so use the caller's
+                        thread.setContextClassLoader(loader);
+                        parseStack.set(new LinkedList<Parseable>(callerStack));
+                        ParseCache savedCache = ParseCache.current();
+                        ParseCache.setCurrent(cache);
+                        try {
+                            values[index] = elements.get(index).parseValue();
+                        } catch (RuntimeException | Error e) {
+                            failures[index] = e;
+                        } finally {
+                            ParseCache.setCurrent(savedCache);
+                            parseStack.set(savedStack);
+                            thread.setContextClassLoader(savedLoader);
+                        }
+                    }
+                }));
+            }
+            ForkJoinTask.invokeAll(tasks);
+
+            for (Throwable failure : failures) {
+                if (failure instanceof RuntimeException)
+                    throw (RuntimeException) failure;
+                else if (failure instanceof Error)
+                    throw (Error) failure;
+            }
+            return Arrays.asList(values);
+        }
+
         @Override
         ConfigSyntax guessSyntax() {
             return ConfigImplUtil.syntaxFromExtension(resource);
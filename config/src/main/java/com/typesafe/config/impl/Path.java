@@ -11,6 +11,9 @@ final class Path {
 
     final private String first;
     final private Path remainder;
+    // lazily computed like String.hashCode(), since paths are used as
+    // hash keys (see SimpleConfig's index) and hashing walks every element
+    private int hash;
 
     Path(String first, Path remainder) {
         this.first = first;
@@ -169,8 +172,13 @@ final class Path {
 
     @Override
     public int hashCode() {
-        return 41 * (41 + first.hashCode())
-                + (remainder == null ? 0 : remainder.hashCode());
+        int h = hash;
+        if (h == 0) {
+            h = 41 * (41 + first.hashCode())
+                    + (remainder == null ? 0 : remainder.hashCode());
+            hash = h;
+        }
+        return h;
     }
 
     // this doesn't have a very precise meaning, just to reduce
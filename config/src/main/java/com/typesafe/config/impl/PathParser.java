@@ -10,6 +10,8 @@ import com.typesafe.config.ConfigValueType;
 
 import java.io.StringReader;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 final class PathParser {
     static class Element {
@@ -28,6 +30,92 @@ final class PathParser {
         }
     }
 
+    // A bounded cache of parsed path expressions. Paths are immutable so the
+    // same instance can be handed out to every caller. The table is
+    // direct-mapped: a new entry replaces whatever was in its slot, so it
+    // never grows past its size and lookups never take a lock. Set the size
+    // with -Dconfig.path-cache-size=N, where 0 disables the cache.
+    private static final class PathCache {
+        private static final int DEFAULT_SIZE = 1024;
+
+        private static final class Entry {
+            final String expression;
+            final Path path;
+
+            Entry(String expression, Path path) {
+                this.expression = expression;
+                this.path = path;
+            }
+        }
+
+        private static final AtomicReferenceArray<Entry> table = newTable(Integer.getInteger(
+                "config.path-cache-size", DEFAULT_SIZE));
+        private static final LongAdder hits = new LongAdder();
+        private static final LongAdder misses = new LongAdder();
+
+        private static AtomicReferenceArray<Entry> newTable(int size) {
+            if (size <= 0)
+                return null;
+            // round up to a power of two so we can mask instead of mod
+            int capacity = Integer.highestOneBit(Math.min(size, 1 << 30));
+            if (capacity < size)
+                capacity <<= 1;
+            return new AtomicReferenceArray<Entry>(capacity);
+        }
+
+        private static int slot(String expression) {
+            int h = expression.hashCode();
+            // spread the high bits down, as HashMap does
+            return (h ^ (h >>> 16)) & (table.length() - 1);
+        }
+
+        static Path get(String expression) {
+            if (table == null)
+                return null;
+            Entry e = table.get(slot(expression));
+            if (e != null && e.expression.equals(expression)) {
+                hits.increment();
+                return e.path;
+            } else {
+                misses.increment();
+                return null;
+            }
+        }
+
+        static void put(String expression, Path path) {
+            if (table == null)
+                return;
+            table.set(slot(expression), new Entry(expression, path));
+        }
+
+        static int size() {
+            return table == null ? 0 : table.length();
+        }
+
+        static void clear() {
+            if (table == null)
+                return;
+            for (int i = 0; i < table.length(); ++i)
+                table.set(i, null);
+        }
+    }
+
+    static long pathCacheHits() {
+        return PathCache.hits.sum();
+    }
+
+    static long pathCacheMisses() {
+        return PathCache.misses.sum();
+    }
+
+    static int pathCacheSize() {
+        return PathCache.size();
+    }
+
+    static void clearPathCache() {
+        PathCache.clear();
+    }
+
     static ConfigOrigin apiOrigin = SimpleConfigOrigin.newSimple("path parameter");
 
     static ConfigNodePath parsePathNode(String path) {
@@ -48,6 +136,16 @@ final class PathParser {
     }
 
     static Path parsePath(String path) {
+        Path cached = PathCache.get(path);
+        if (cached != null)
+            return cached;
+
+        Path parsed = parsePathUncached(path);
+        PathCache.put(path, parsed);
+        return parsed;
+    }
+
+    private static Path parsePathUncached(String path) {
         Path speculated = speculativeFastParsePath(path);
         if (speculated != null)
             return speculated;
@@ -0,0 +1,426 @@
+package com.typesafe.config.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable hash map where plus() and minus() return a new map sharing
+ * everything but the path to the changed entry with the old one (a hash
+ * array mapped trie). This makes a change cost O(log n) rather than the
+ * O(n) of copying a HashMap, at the price of slightly slower lookups, so
+ * SimpleConfigObject only switches to it when a large object is edited.
+ *
+ * The Map mutators throw UnsupportedOperationException, like the other
+ * maps we keep inside config objects are supposed to be treated.
+ */
+final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<Object, Object> EMPTY = new PersistentMap<Object, Object>(null, 0);
+
+    // null if the map is empty
+    final private Node<K, V> root;
+    final private int size;
+
+    private PersistentMap(Node<K, V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    static <K, V> PersistentMap<K, V> copyOf(Map<K, V> map) {
+        if (map instanceof PersistentMap)
+            return (PersistentMap<K, V>) map;
+        PersistentMap<K, V> copy = empty();
+        for (Map.Entry<K, V> e : map.entrySet())
+            copy = copy.plus(e.getKey(), e.getValue());
+        return copy;
+    }
+
+    PersistentMap<K, V> plus(K key, V value) {
+        int hash = key.hashCode();
+        Leaf<K, V> leaf = new Leaf<K, V>(hash, key, value);
+        if (root == null)
+            return new PersistentMap<K, V>(leaf.node(0), 1);
+        Leaf<K, V> old = root.find(hash, key, 0);
+        if (old != null && old.value == value)
+            return this;
+        return new PersistentMap<K, V>(root.plus(leaf, 0), old == null ? size + 1 : size);
+    }
+
+    PersistentMap<K, V> minus(Object key) {
+        if (root == null)
+            return this;
+        int hash = key.hashCode();
+        if (root.find(hash, key, 0) == null)
+            return this;
+        Node<K, V> newRoot = root.minus(hash, key, 0);
+        if (newRoot == null)
+            return empty();
+        return new PersistentMap<K, V>(newRoot, size - 1);
+    }
+
+    @Override
+    public V get(Object key) {
+        if (root == null || key == null)
+            return null;
+        Leaf<K, V> leaf = root.find(key.hashCode(), key, 0);
+        return leaf != null ? leaf.value : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (root == null || key == null)
+            return false;
+        return root.find(key.hashCode(), key, 0) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new LeafIterator<K, V>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static final class Leaf<K, V> implements Map.Entry<K, V> {
+        final int hash;
+        final K key;
+        final V value;
+
+        Leaf(int hash, K key, V value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        boolean matches(int hash, Object key) {
+            return this.hash == hash && this.key.equals(key);
+        }
+
+        // a node holding just this leaf
+        Node<K, V> node(int shift) {
+            return new BitmapNode<K, V>(bit(hash, shift), new Object[] { this });
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException("PersistentMap is immutable");
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof Map.Entry) {
+                Map.Entry<?, ?> that = (Map.Entry<?, ?>) other;
+                return key.equals(that.getKey()) && ConfigImplUtil.equalsHandlingNull(value, that.getValue());
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static abstract class Node<K, V> {
+        // each slot is a Leaf or a Node
+        abstract Object[] slots();
+
+        abstract Leaf<K, V> find(int hash, Object key, int shift);
+
+        abstract Node<K, V> plus(Leaf<K, V> leaf, int shift);
+
+        // null if the node ends up empty
+        abstract Node<K, V> minus(int hash, Object key, int shift);
+
+        // a node with two leaves with different keys
+        static <K, V> Node<K, V> of(Leaf<K, V> a, Leaf<K, V> b, int shift) {
+            if (a.hash == b.hash)
+                return new CollisionNode<K, V>(a.hash, new Object[] { a, b });
+            int bitA = bit(a.hash, shift);
+            int bitB = bit(b.hash, shift);
+            if (bitA == bitB)
+                return new BitmapNode<K, V>(bitA, new Object[] { of(a, b, shift + BITS) });
+            else if (Integer.compareUnsigned(bitA, bitB) < 0)
+                return new BitmapNode<K, V>(bitA | bitB, new Object[] { a, b });
+            else
+                return new BitmapNode<K, V>(bitA | bitB, new Object[] { b, a });
+        }
+    }
+
+    private static final class BitmapNode<K, V> extends Node<K, V> {
+        final private int bitmap;
+        final private Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object[] slots() {
+            return slots;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        Leaf<K, V> find(int hash, Object key, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0)
+                return null;
+            Object slot = slots[index(bit)];
+            if (slot instanceof Leaf) {
+                Leaf<K, V> leaf = (Leaf<K, V>) slot;
+                return leaf.matches(hash, key) ? leaf : null;
+            } else {
+                return ((Node<K, V>) slot).find(hash, key, shift + BITS);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        Node<K, V> plus(Leaf<K, V> leaf, int shift) {
+            int bit = bit(leaf.hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, i);
+                newSlots[i] = leaf;
+                System.arraycopy(slots, i, newSlots, i + 1, slots.length - i);
+                return new BitmapNode<K, V>(bitmap | bit, newSlots);
+            }
+            Object slot = slots[i];
+            Object replacement;
+            if (slot instanceof Leaf) {
+                Leaf<K, V> old = (Leaf<K, V>) slot;
+                if (old.matches(leaf.hash, leaf.key))
+                    replacement = leaf;
+                else
+                    replacement = Node.of(old, leaf, shift + BITS);
+            } else {
+                replacement = ((Node<K, V>) slot).plus(leaf, shift + BITS);
+            }
+            Object[] newSlots = slots.clone();
+            newSlots[i] = replacement;
+            return new BitmapNode<K, V>(bitmap, newSlots);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        Node<K, V> minus(int hash, Object key, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0)
+                return this;
+            int i = index(bit);
+            Object slot = slots[i];
+            Object replacement;
+            if (slot instanceof Leaf) {
+                if (!((Leaf<K, V>) slot).matches(hash, key))
+                    return this;
+                replacement = null;
+            } else {
+                Node<K, V> child = (Node<K, V>) slot;
+                Node<K, V> newChild = child.minus(hash, key, shift + BITS);
+                if (newChild == child)
+                    return this;
+                // pull a lone leaf up, so removing undoes adding
+                if (newChild != null && newChild.slots().length == 1 && newChild.slots()[0] instanceof Leaf)
+                    replacement = newChild.slots()[0];
+                else
+                    replacement = newChild;
+            }
+            if (replacement != null) {
+                Object[] newSlots = slots.clone();
+                newSlots[i] = replacement;
+                return new BitmapNode<K, V>(bitmap, newSlots);
+            } else if (slots.length == 1) {
+                return null;
+            } else {
+                Object[] newSlots = new Object[slots.length - 1];
+                System.arraycopy(slots, 0, newSlots, 0, i);
+                System.arraycopy(slots, i + 1, newSlots, i, slots.length - i - 1);
+                return new BitmapNode<K, V>(bitmap & ~bit, newSlots);
+            }
+        }
+    }
+
+    // leaves whose keys have the same hash code
+    private static final class CollisionNode<K, V> extends Node<K, V> {
+        final private int hash;
+        final private Object[] leaves;
+
+        CollisionNode(int hash, Object[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        @Override
+        Object[] slots() {
+            return leaves;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int indexOf(Object key) {
+            for (int i = 0; i < leaves.length; ++i) {
+                if (((Leaf<K, V>) leaves[i]).key.equals(key))
+                    return i;
+            }
+            return -1;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        Leaf<K, V> find(int hash, Object key, int shift) {
+            if (hash != this.hash)
+                return null;
+            int i = indexOf(key);
+            return i >= 0 ? (Leaf<K, V>) leaves[i] : null;
+        }
+
+        @Override
+        Node<K, V> plus(Leaf<K, V> leaf, int shift) {
+            if (leaf.hash != hash) {
+                // push this node down a level, next to the new leaf
+                Node<K, V> parent = new BitmapNode<K, V>(bit(hash, shift), new Object[] { this });
+                return parent.plus(leaf, shift);
+            }
+            int i = indexOf(leaf.key);
+            Object[] newLeaves;
+            if (i >= 0) {
+                newLeaves = leaves.clone();
+                newLeaves[i] = leaf;
+            } else {
+                newLeaves = new Object[leaves.length + 1];
+                System.arraycopy(leaves, 0, newLeaves, 0, leaves.length);
+                newLeaves[leaves.length] = leaf;
+            }
+            return new CollisionNode<K, V>(hash, newLeaves);
+        }
+
+        @Override
+        Node<K, V> minus(int hash, Object key, int shift) {
+            if (hash != this.hash)
+                return this;
+            int i = indexOf(key);
+            if (i < 0)
+                return this;
+            if (leaves.length == 1)
+                return null;
+            Object[] newLeaves = new Object[leaves.length - 1];
+            System.arraycopy(leaves, 0, newLeaves, 0, i);
+            System.arraycopy(leaves, i + 1, newLeaves, i, leaves.length - i - 1);
+            return new CollisionNode<K, V>(hash, newLeaves);
+        }
+    }
+
+    private static final class LeafIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        // enough for a bitmap node per 5 bits of hash, plus a collision node
+        final private Object[][] stack = new Object[32 / BITS + 2][];
+        final private int[] positions = new int[32 / BITS + 2];
+        private int depth = 0;
+        private Leaf<K, V> next;
+
+        LeafIterator(Node<K, V> root) {
+            if (root != null)
+                push(root.slots());
+            advance();
+        }
+
+        private void push(Object[] slots) {
+            stack[depth] = slots;
+            positions[depth] = 0;
+            depth += 1;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth > 0) {
+                Object[] slots = stack[depth - 1];
+                int i = positions[depth - 1];
+                if (i >= slots.length) {
+                    depth -= 1;
+                    continue;
+                }
+                positions[depth - 1] = i + 1;
+                Object slot = slots[i];
+                if (slot instanceof Leaf) {
+                    next = (Leaf<K, V>) slot;
+                    return;
+                }
+                push(((Node<K, V>) slot).slots());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (next == null)
+                throw new NoSuchElementException();
+            Leaf<K, V> leaf = next;
+            advance();
+            return leaf;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("PersistentMap is immutable");
+        }
+    }
+}
@@ -10,6 +10,15 @@ import com.typesafe.config.ConfigException;
 import com.typesafe.config.ConfigResolveOptions;
 import com.typesafe.config.impl.AbstractConfigValue.NotPossibleToResolve;
 
+/**
+ * The state of one resolve. The memos, the trace stack and the cycle markers
+ * are shared by every ResolveContext in a resolve and changed in place, so
+ * that following a substitution doesn't copy them; a resolve never leaves
+ * the thread that started it. What differs from one context to the next is
+ * only the path restriction. The methods which change the shared state
+ * return a context anyway, so callers thread contexts through ResolveResult
+ * the same way whether or not the restriction changed.
+ */
 final class ResolveContext {
     final private ResolveMemos memos;
 
@@ -22,32 +31,33 @@ final class ResolveContext {
     final private Path restrictToChild;
 
     // This is used for tracing and debugging and nice error messages;
-    // contains every node as we call resolve on it.
+    // contains every node we're in the middle of resolving.
     final private List<AbstractConfigValue> resolveStack;
 
     final private Set<AbstractConfigValue> cycleMarkers;
 
-    ResolveContext(ResolveMemos memos, ConfigResolveOptions options, Path restrictToChild,
-            List<AbstractConfigValue> resolveStack, Set<AbstractConfigValue> cycleMarkers) {
+    // null unless we're resolving a config against itself with a
+    // ConfigResolveSession; shared by every context in one resolve
+    final private ResolveDependencies dependencies;
+
+    private ResolveContext(ResolveMemos memos, ConfigResolveOptions options, Path restrictToChild,
+            List<AbstractConfigValue> resolveStack, Set<AbstractConfigValue> cycleMarkers,
+            ResolveDependencies dependencies) {
         this.memos = memos;
         this.options = options;
         this.restrictToChild = restrictToChild;
-        // we don't defensively copy/wrap these because Collections.unmodifiableList etc.
-        // nest infinitely in a way that causes stack overflow (they don't check to avoid
-        // multiple wrappers). But they should be treated as immutable because they end
-        // up shared between multiple ResolveContext.
         this.resolveStack = resolveStack;
         this.cycleMarkers = cycleMarkers;
+        this.dependencies = dependencies;
     }
 
     private static Set<AbstractConfigValue> newCycleMarkers() {
         return Collections.newSetFromMap(new IdentityHashMap<AbstractConfigValue, Boolean>());
     }
 
-    ResolveContext(ConfigResolveOptions options, Path restrictToChild) {
-        // LinkedHashSet keeps the traversal order which is at least useful
-        // in error messages if nothing else
-        this(new ResolveMemos(), options, restrictToChild, new ArrayList<AbstractConfigValue>(), newCycleMarkers());
+    ResolveContext(ConfigResolveOptions options, Path restrictToChild, ResolveDependencies dependencies) {
+        this(new ResolveMemos(), options, restrictToChild, new ArrayList<AbstractConfigValue>(), newCycleMarkers(),
+                dependencies);
         if (ConfigImpl.traceSubstitutionsEnabled())
             ConfigImpl.trace(depth(), "ResolveContext restrict to child " + restrictToChild);
     }
@@ -55,33 +65,74 @@ final class ResolveContext {
     ResolveContext addCycleMarker(AbstractConfigValue value) {
         if (ConfigImpl.traceSubstitutionsEnabled())
             ConfigImpl.trace(depth(), "++ Cycle marker " + value + "@" + System.identityHashCode(value));
-        if (cycleMarkers.contains(value))
+        if (!cycleMarkers.add(value))
             throw new ConfigException.BugOrBroken("Added cycle marker twice " + value);
-        Set<AbstractConfigValue> copy = newCycleMarkers();
-        copy.addAll(cycleMarkers);
-        copy.add(value);
-        return new ResolveContext(memos, options, restrictToChild, resolveStack, copy);
+        return this;
     }
 
     ResolveContext removeCycleMarker(AbstractConfigValue value) {
         if (ConfigImpl.traceSubstitutionsEnabled())
             ConfigImpl.trace(depth(), "-- Cycle marker " + value + "@" + System.identityHashCode(value));
 
-        Set<AbstractConfigValue> copy = newCycleMarkers();
-        copy.addAll(cycleMarkers);
-        copy.remove(value);
-        return new ResolveContext(memos, options, restrictToChild, resolveStack, copy);
+        cycleMarkers.remove(value);
+        // marks are only taken while resolving a substitution, so once
+        // we're out of every substitution nothing can be rolled back
+        if (cycleMarkers.isEmpty())
+            memos.commit();
+        return this;
     }
 
     private ResolveContext memoize(MemoKey key, AbstractConfigValue value) {
-        ResolveMemos changed = memos.put(key, value);
-        return new ResolveContext(changed, options, restrictToChild, resolveStack, cycleMarkers);
+        memos.put(key, value);
+        return this;
+    }
+
+    // a point to go back to with rollbackMemos()
+    int markMemos() {
+        return memos.mark();
+    }
+
+    // forgets everything memoized since the mark, for when what was being
+    // resolved turned out to be part of a cycle
+    ResolveContext rollbackMemos(int mark) {
+        memos.rollback(mark);
+        return this;
+    }
+
+    // memoizes a reused resolution along with the reused resolutions of
+    // what its lookups found, as resolving it would have
+    private ResolveContext memoizeReused(AbstractConfigValue original, AbstractConfigValue resolved) {
+        memoize(new MemoKey(original, null), resolved);
+        for (AbstractConfigValue found : dependencies.reusedFound(original)) {
+            if (memos.get(new MemoKey(found, null)) == null)
+                memoizeReused(found, dependencies.reused(found));
+        }
+        return this;
     }
 
     ConfigResolveOptions options() {
         return options;
     }
 
+    // called when resolving a self-referential value against a copy of a
+    // source's root with the value replaced
+    void replaced(AbstractConfigObject sourceRoot, AbstractConfigObject replacedRoot,
+            AbstractConfigValue replacement) {
+        if (dependencies != null)
+            dependencies.replaced(sourceRoot, replacedRoot, replacement);
+    }
+
+    // called around each lookup of a path in a source's root
+    void lookingUp(AbstractConfigObject sourceRoot, Path path) {
+        if (dependencies != null)
+            dependencies.lookingUp(sourceRoot, path);
+    }
+
+    void found(AbstractConfigObject sourceRoot, AbstractConfigValue value) {
+        if (dependencies != null)
+            dependencies.found(sourceRoot, value);
+    }
+
     boolean isRestrictedToChild() {
         return restrictToChild != null;
     }
@@ -95,7 +146,7 @@ final class ResolveContext {
         if (restrictTo == restrictToChild)
             return this;
         else
-            return new ResolveContext(memos, options, restrictTo, resolveStack, cycleMarkers);
+            return new ResolveContext(memos, options, restrictTo, resolveStack, cycleMarkers, dependencies);
     }
 
     ResolveContext unrestricted() {
@@ -116,20 +167,16 @@ final class ResolveContext {
         return sb.toString();
     }
 
-    private ResolveContext pushTrace(AbstractConfigValue value) {
+    private void pushTrace(AbstractConfigValue value) {
         if (ConfigImpl.traceSubstitutionsEnabled())
             ConfigImpl.trace(depth(), "pushing trace " + value);
-        List<AbstractConfigValue> copy = new ArrayList<AbstractConfigValue>(resolveStack);
-        copy.add(value);
-        return new ResolveContext(memos, options, restrictToChild, copy, cycleMarkers);
+        resolveStack.add(value);
     }
 
-    ResolveContext popTrace() {
-        List<AbstractConfigValue> copy = new ArrayList<AbstractConfigValue>(resolveStack);
-        AbstractConfigValue old = copy.remove(resolveStack.size() - 1);
+    private void popTrace() {
+        AbstractConfigValue old = resolveStack.remove(resolveStack.size() - 1);
         if (ConfigImpl.traceSubstitutionsEnabled())
-            ConfigImpl.trace(depth() - 1, "popped trace " + old);
-        return new ResolveContext(memos, options, restrictToChild, copy, cycleMarkers);
+            ConfigImpl.trace(depth(), "popped trace " + old);
     }
 
     int depth() {
@@ -140,10 +187,24 @@ final class ResolveContext {
 
     ResolveResult<? extends AbstractConfigValue> resolve(AbstractConfigValue original, ResolveSource source)
             throws NotPossibleToResolve {
+        // resolved values resolve to themselves; not memoizing them keeps
+        // resolving a mostly-resolved tree (say, a resolved config with a
+        // few unresolved overrides on top) proportional to the unresolved
+        // part
+        if (original.resolveStatus() == ResolveStatus.RESOLVED)
+            return ResolveResult.make(this, original);
+
         if (ConfigImpl.traceSubstitutionsEnabled())
             ConfigImpl
                     .trace(depth(), "resolving " + original + " restrictToChild=" + restrictToChild + " in " + source);
-        return pushTrace(original).realResolve(original, source).popTrace();
+        pushTrace(original);
+        try {
+            return realResolve(original, source);
+        } finally {
+            // popped on the way out of a cycle too, since whoever catches
+            // NotPossibleToResolve carries on with the same stack
+            popTrace();
+        }
     }
 
     private ResolveResult<? extends AbstractConfigValue> realResolve(AbstractConfigValue original, ResolveSource source)
@@ -161,6 +222,24 @@ final class ResolveContext {
         if (cached == null && isRestrictedToChild()) {
             restrictedKey = new MemoKey(original, restrictToChild());
             cached = memos.get(restrictedKey);
+            if (cached != null && dependencies != null)
+                dependencies.usedResult(restrictedKey);
+        } else if (cached != null && dependencies != null) {
+            dependencies.usedResult(fullKey);
+        }
+
+        // this resolves to the same thing it did last time; memoize it so
+        // lookups into it find it as they would have after resolving it.
+        // Restricted resolves, and resolves in the middle of resolving a
+        // substitution, still go the long way, since they can stop short of
+        // what a full resolve would find or run into a cycle.
+        if (cached == null && dependencies != null && !isRestrictedToChild() && cycleMarkers.isEmpty()) {
+            AbstractConfigValue reused = dependencies.reused(original);
+            if (reused != null) {
+                if (ConfigImpl.traceSubstitutionsEnabled())
+                    ConfigImpl.trace(depth(), "reusing last resolution " + reused + " for " + original);
+                return ResolveResult.make(memoizeReused(original, reused), reused);
+            }
         }
 
         if (cached != null) {
@@ -177,10 +256,22 @@ final class ResolveContext {
                 if (ConfigImpl.traceSubstitutionsEnabled())
                     ConfigImpl.trace(depth(),
                             "Cycle detected, can't resolve; " + original + "@" + System.identityHashCode(original));
+                if (dependencies != null)
+                    dependencies.unrepeatable();
                 throw new NotPossibleToResolve(this);
             }
 
-            ResolveResult<? extends AbstractConfigValue> result = original.resolveSubstitutions(this, source);
+            if (dependencies != null)
+                dependencies.begin();
+            ResolveResult<? extends AbstractConfigValue> result;
+            boolean resolvedOk = false;
+            try {
+                result = original.resolveSubstitutions(this, source);
+                resolvedOk = true;
+            } finally {
+                if (!resolvedOk && dependencies != null)
+                    dependencies.abandon();
+            }
             AbstractConfigValue resolved = result.value;
 
             if (ConfigImpl.traceSubstitutionsEnabled())
@@ -198,6 +289,8 @@ final class ResolveContext {
                     ConfigImpl.trace(depth(), "caching " + fullKey + " result " + resolved);
 
                 withMemo = withMemo.memoize(fullKey, resolved);
+                if (dependencies != null)
+                    dependencies.end(fullKey, original, resolved, true);
             } else {
                 // if we have an unresolved object then either we did a
                 // partial resolve restricted to a certain child, or we are
@@ -211,11 +304,15 @@ final class ResolveContext {
                         ConfigImpl.trace(depth(), "caching " + restrictedKey + " result " + resolved);
 
                     withMemo = withMemo.memoize(restrictedKey, resolved);
+                    if (dependencies != null)
+                        dependencies.end(restrictedKey, original, resolved, false);
                 } else if (options().getAllowUnresolved()) {
                     if (ConfigImpl.traceSubstitutionsEnabled())
                         ConfigImpl.trace(depth(), "caching " + fullKey + " result " + resolved);
 
                     withMemo = withMemo.memoize(fullKey, resolved);
+                    if (dependencies != null)
+                        dependencies.end(fullKey, original, resolved, true);
                 } else {
                     throw new ConfigException.BugOrBroken(
                             "resolveSubstitutions() did not give us a resolved object");
@@ -228,11 +325,33 @@ final class ResolveContext {
 
     static AbstractConfigValue resolve(AbstractConfigValue value, AbstractConfigObject root,
             ConfigResolveOptions options) {
+        // every value knows whether it contains a substitution or a delayed
+        // merge from when it was built, so a config of plain data (the usual
+        // result of load() with no ${} anywhere) needs none of the setup
+        // below, which costs more than a small config's merge
+        if (value.resolveStatus() == ResolveStatus.RESOLVED)
+            return value;
+
+        if (options.getParallelResolution() && value == root && root instanceof SimpleConfigObject) {
+            AbstractConfigObject resolved = ParallelResolve.resolve((SimpleConfigObject) root, options);
+            if (resolved != null)
+                return resolved;
+        }
+
         ResolveSource source = new ResolveSource(root);
-        ResolveContext context = new ResolveContext(options, null /* restrictToChild */);
+        // when resolving a config against itself with a session, keep track
+        // of what everything depended on so the session's next resolve of a
+        // similar config can skip the parts that can't have changed
+        ResolveDependencies dependencies = null;
+        if (value == root && !options.getAllowUnresolved() && options.getResolveSession() != null)
+            dependencies = ResolveDependencies.start(root, options);
+        ResolveContext context = new ResolveContext(options, null /* restrictToChild */, dependencies);
 
         try {
-            return context.resolve(value, source).value;
+            AbstractConfigValue resolved = context.resolve(value, source).value;
+            if (dependencies != null)
+                dependencies.finish();
+            return resolved;
         } catch (NotPossibleToResolve e) {
             // ConfigReference was supposed to catch NotPossibleToResolve
             throw new ConfigException.BugOrBroken(
@@ -0,0 +1,410 @@
+package com.typesafe.config.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.ConfigResolver;
+
+/**
+ * Tracks which paths each value's substitutions looked up while resolving a
+ * config against itself with a ConfigResolveSession, so that a later resolve
+ * with the session of a config sharing values with it (typically the same
+ * config with a few overrides added by withFallback() or withValue()) only
+ * has to redo the values whose lookups could now find something different.
+ *
+ * After a successful resolve, the session is given a Record for every
+ * unresolved value in the tree, of where it was, what it resolved to, and
+ * what was found at each path its resolution looked up, including lookups
+ * made while resolving whatever those lookups found. Before the next
+ * resolve, any value in the new tree that is at the same path and finds the
+ * same things at all of those paths is known to resolve the same way again,
+ * and ResolveContext uses the recorded result instead of descending into it.
+ * "The same" is by identity, which is cheap and safe since values are
+ * immutable and withFallback() and friends share every value they don't
+ * change. The records live in the session rather than on the values, so
+ * values stay immutable and a resolve without a session pays nothing.
+ *
+ * A self-referential value like "a = ${a} x" is resolved against a copy of
+ * the root with the value replaced by what it overrides, and so are the
+ * values its lookups find there. That's fine while those lookups only find
+ * what the value overrides, or things that are already resolved; but once
+ * they find some other unresolved value in the copy, what that value
+ * resolves to there can be memoized and used in the tree instead of what it
+ * would resolve to in the root. So a value whose resolution got that far
+ * into a copy, or ran into a cycle, is never recorded, since what it
+ * resolves to can then depend on the order things were resolved in rather
+ * than only on what is in the tree.
+ */
+final class ResolveDependencies {
+
+    /** What we know about the last time a value was resolved. */
+    static final class Record {
+        // null for the root
+        final private Path path;
+        final private AbstractConfigValue resolved;
+        final private Path[] lookups;
+        final private Found[] found;
+        final private boolean useSystemEnvironment;
+        final private ConfigResolver resolver;
+        final private AbstractConfigObject environment;
+
+        Record(Path path, AbstractConfigValue resolved, Path[] lookups, Found[] found,
+                ConfigResolveOptions options, AbstractConfigObject environment) {
+            this.path = path;
+            this.resolved = resolved;
+            this.lookups = lookups;
+            this.found = found;
+            this.useSystemEnvironment = options.getUseSystemEnvironment();
+            this.resolver = options.getResolver();
+            this.environment = environment;
+        }
+    }
+
+    // what a lookup of a path would start from: the value at the path, or
+    // the value part way along it if that isn't an object we can look
+    // inside without resolving, or null if there's nothing there
+    static final class Found {
+        final private AbstractConfigValue value;
+        final private int depth;
+
+        Found(AbstractConfigValue value, int depth) {
+            this.value = value;
+            this.depth = depth;
+        }
+
+        boolean sameAs(Found other) {
+            if (value == null || other.value == null)
+                return value == other.value;
+            else
+                return value == other.value && depth == other.depth;
+        }
+    }
+
+    private static final class Frame {
+        final Set<Path> lookups = new HashSet<Path>();
+        boolean unrepeatable = false;
+        // resolving something found in a replaced root other than the
+        // replacement, which may go on to resolve anything in that root
+        boolean escaped;
+        // in the middle of looking something up in a replaced root
+        boolean finding = false;
+
+        Frame(boolean escaped) {
+            this.escaped = escaped;
+        }
+
+        void add(Set<Path> moreLookups, boolean moreUnrepeatable) {
+            lookups.addAll(moreLookups);
+            unrepeatable |= moreUnrepeatable;
+        }
+    }
+
+    final private AbstractConfigObject root;
+    final private ConfigResolveOptions options;
+    final private ResolveSessionImpl session;
+    // what the session remembers from earlier resolves, newest first
+    final private List<Map<AbstractConfigValue, Record>> earlier;
+    // what this resolve will give the session
+    final private Map<AbstractConfigValue, Record> recorded;
+    final private AbstractConfigObject environment;
+    // Found for each path, in root
+    final private Map<Path, Found> foundCache;
+    // values in root that resolve the same as last time
+    final private Map<AbstractConfigValue, Record> reusable;
+
+    // one per value being resolved, innermost last
+    final private List<Frame> frames;
+    // lookups made for each memoized result; restricted results are only
+    // ever used within this resolve
+    final private Map<AbstractConfigValue, Set<Path>> fullLookups;
+    final private Map<MemoKey, Set<Path>> restrictedLookups;
+    final private Set<MemoKey> unrepeatable;
+    final private Map<AbstractConfigValue, AbstractConfigValue> results;
+    // values we can't record: those resolved in an unrepeatable way, and
+    // those resolved more than once, which happens when memos from the
+    // first time were thrown away or a restricted resolve happened to
+    // resolve them fully, since we can't know which resolution ended up in
+    // the tree
+    final private Set<AbstractConfigValue> unrecordable;
+    // copies of root made to resolve a self-referential value, and what
+    // replaced the value in each
+    final private Map<AbstractConfigObject, AbstractConfigValue> replacements;
+
+    private ResolveDependencies(AbstractConfigObject root, ConfigResolveOptions options, ResolveSessionImpl session) {
+        this.root = root;
+        this.options = options;
+        this.session = session;
+        this.earlier = session.generations();
+        this.recorded = new IdentityHashMap<AbstractConfigValue, Record>();
+        this.environment = options.getUseSystemEnvironment() ? ConfigImpl.envVariablesAsConfigObject() : null;
+        this.foundCache = new HashMap<Path, Found>();
+        this.reusable = new IdentityHashMap<AbstractConfigValue, Record>();
+        this.frames = new ArrayList<Frame>();
+        this.fullLookups = new IdentityHashMap<AbstractConfigValue, Set<Path>>();
+        this.restrictedLookups = new HashMap<MemoKey, Set<Path>>();
+        this.unrepeatable = new HashSet<MemoKey>();
+        this.results = new IdentityHashMap<AbstractConfigValue, AbstractConfigValue>();
+        this.unrecordable = Collections.newSetFromMap(new IdentityHashMap<AbstractConfigValue, Boolean>());
+        this.replacements = new IdentityHashMap<AbstractConfigObject, AbstractConfigValue>();
+    }
+
+    /**
+     * Starts tracking a resolve of root against itself with the options'
+     * session, finding every value in it that can reuse its last resolution.
+     */
+    static ResolveDependencies start(AbstractConfigObject root, ConfigResolveOptions options) {
+        ResolveDependencies dependencies = new ResolveDependencies(root, options,
+                (ResolveSessionImpl) options.getResolveSession());
+        dependencies.findReusable(root, null);
+        return dependencies;
+    }
+
+    private static Path child(Path parent, String key) {
+        Path k = Path.newKey(key);
+        return parent == null ? k : k.prepend(parent);
+    }
+
+    private static boolean samePath(Path a, Path b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private Found find(Path path) {
+        Found found = foundCache.get(path);
+        if (found == null) {
+            AbstractConfigValue value = root;
+            int depth = 0;
+            Path p = path;
+            while (p != null && value instanceof SimpleConfigObject) {
+                value = ((SimpleConfigObject) value).get(p.first());
+                depth += 1;
+                p = p.remainder();
+            }
+            found = new Found(value, depth);
+            foundCache.put(path, found);
+        }
+        return found;
+    }
+
+    private boolean stillValid(Record record, Path path) {
+        if (!samePath(record.path, path) || record.useSystemEnvironment != options.getUseSystemEnvironment()
+                || record.resolver != options.getResolver() || record.environment != environment)
+            return false;
+        for (int i = 0; i < record.lookups.length; ++i) {
+            if (!record.found[i].sameAs(find(record.lookups[i])))
+                return false;
+        }
+        return true;
+    }
+
+    private void findReusable(AbstractConfigValue value, Path path) {
+        if (value.resolveStatus() == ResolveStatus.RESOLVED)
+            return;
+        for (Map<AbstractConfigValue, Record> generation : earlier) {
+            Record record = generation.get(value);
+            if (record != null && stillValid(record, path)) {
+                reusable.put(value, record);
+                return;
+            }
+        }
+        if (value instanceof SimpleConfigObject) {
+            SimpleConfigObject obj = (SimpleConfigObject) value;
+            for (String key : obj.keySet())
+                findReusable(obj.get(key), child(path, key));
+        }
+    }
+
+    /** The last resolution of value, if it's still right; otherwise null. */
+    AbstractConfigValue reused(AbstractConfigValue value) {
+        Record record = reusable.get(value);
+        if (record == null)
+            return null;
+        usedResult(new MemoKey(value, null));
+        return record.resolved;
+    }
+
+    /**
+     * The values that lookups made while resolving value found, and that are
+     * still resolved the same as last time, which resolving value would have
+     * memoized.
+     */
+    List<AbstractConfigValue> reusedFound(AbstractConfigValue value) {
+        Record record = reusable.get(value);
+        List<AbstractConfigValue> found = new ArrayList<AbstractConfigValue>();
+        for (int i = 0; i < record.lookups.length; ++i) {
+            Found f = record.found[i];
+            // a lookup that stopped part way only partly resolved what it
+            // stopped at
+            if (f.value != null && f.depth == record.lookups[i].length() && reusable.containsKey(f.value))
+                found.add(f.value);
+        }
+        return found;
+    }
+
+    /** Called before resolving a value that wasn't memoized. */
+    void begin() {
+        boolean escaped = false;
+        if (!frames.isEmpty()) {
+            Frame parent = frames.get(frames.size() - 1);
+            escaped = parent.escaped || parent.finding;
+        }
+        frames.add(new Frame(escaped));
+    }
+
+    /** Called after resolving a value and memoizing it under key. */
+    void end(MemoKey key, AbstractConfigValue original, AbstractConfigValue resolved, boolean fullKey) {
+        Frame frame = frames.remove(frames.size() - 1);
+        if (frame.unrepeatable)
+            unrepeatable.add(key);
+        else if (fullKey)
+            fullLookups.put(original, frame.lookups);
+        else
+            restrictedLookups.put(key, frame.lookups);
+        if (fullKey) {
+            if (frame.unrepeatable || results.containsKey(original))
+                unrecordable.add(original);
+            results.put(original, resolved);
+        }
+        if (!frames.isEmpty())
+            frames.get(frames.size() - 1).add(frame.lookups, frame.unrepeatable);
+    }
+
+    /** Called if resolving a value threw. */
+    void abandon() {
+        Frame frame = frames.remove(frames.size() - 1);
+        if (!frames.isEmpty())
+            frames.get(frames.size() - 1).add(frame.lookups, true);
+    }
+
+    /** Called when a memoized result is used. */
+    void usedResult(MemoKey key) {
+        if (frames.isEmpty())
+            return;
+        Frame frame = frames.get(frames.size() - 1);
+        if (key.restrictToChild() == null) {
+            Record record = reusable.get(key.value());
+            if (record != null) {
+                for (Path p : record.lookups)
+                    frame.lookups.add(p);
+                return;
+            }
+        }
+        Set<Path> lookups = key.restrictToChild() == null ? fullLookups.get(key.value()) : restrictedLookups
+                .get(key);
+        if (lookups == null || unrepeatable.contains(key))
+            frame.unrepeatable = true;
+        else
+            frame.lookups.addAll(lookups);
+    }
+
+    /**
+     * Called when a self-referential value is about to be resolved against
+     * replacedRoot, a copy of sourceRoot with the value replaced by
+     * replacement (which may be null).
+     */
+    void replaced(AbstractConfigObject sourceRoot, AbstractConfigObject replacedRoot,
+            AbstractConfigValue replacement) {
+        // a copy of a copy is left unknown, so anything looked up in it
+        // makes the resolution unrepeatable
+        if (sourceRoot == root)
+            replacements.put(replacedRoot, replacement);
+    }
+
+    /** Called before a substitution looks up a path in sourceRoot. */
+    void lookingUp(AbstractConfigObject sourceRoot, Path path) {
+        if (frames.isEmpty())
+            return;
+        Frame frame = frames.get(frames.size() - 1);
+        if (sourceRoot == root) {
+            frame.lookups.add(path);
+        } else if (frame.escaped || !replacements.containsKey(sourceRoot)) {
+            unrepeatable();
+        } else {
+            // the copy only differs from root in what replaced the value
+            // we're resolving, so the path finds the same things in both
+            // as long as it finds the same things in root
+            frame.lookups.add(path);
+            frame.finding = true;
+        }
+    }
+
+    /** Called after a substitution looked something up in sourceRoot. */
+    void found(AbstractConfigObject sourceRoot, AbstractConfigValue value) {
+        if (frames.isEmpty())
+            return;
+        Frame frame = frames.get(frames.size() - 1);
+        if (frame.finding) {
+            frame.finding = false;
+            if (value != null && value != replacements.get(sourceRoot)
+                    && value.resolveStatus() != ResolveStatus.RESOLVED)
+                frame.escaped = true;
+        }
+    }
+
+    /**
+     * Called when what everything being resolved resolves to depends on
+     * more than the tree, such as when resolving hits a cycle.
+     */
+    void unrepeatable() {
+        for (Frame frame : frames)
+            frame.unrepeatable = true;
+    }
+
+    /** Called after the whole root resolved, to record what we learned. */
+    void finish() {
+        record(root, null);
+        session.add(recorded);
+    }
+
+    private void carryChildren(AbstractConfigValue value) {
+        if (!(value instanceof SimpleConfigObject))
+            return;
+        SimpleConfigObject obj = (SimpleConfigObject) value;
+        for (String key : obj.keySet()) {
+            AbstractConfigValue child = obj.get(key);
+            if (child.resolveStatus() == ResolveStatus.RESOLVED)
+                continue;
+            for (Map<AbstractConfigValue, Record> generation : earlier) {
+                Record record = generation.get(child);
+                if (record != null) {
+                    recorded.put(child, record);
+                    break;
+                }
+            }
+            carryChildren(child);
+        }
+    }
+
+    private void record(AbstractConfigValue value, Path path) {
+        if (value.resolveStatus() == ResolveStatus.RESOLVED)
+            return;
+        Record reused = reusable.get(value);
+        if (reused != null) {
+            // still right, so keep it, and what's inside it, for as long as
+            // this resolve is remembered
+            recorded.put(value, reused);
+            carryChildren(value);
+            return;
+        }
+        Set<Path> lookups = fullLookups.get(value);
+        AbstractConfigValue resolved = results.get(value);
+        if (lookups != null && resolved != null && !unrecordable.contains(value)) {
+            Path[] paths = lookups.toArray(new Path[lookups.size()]);
+            Found[] found = new Found[paths.length];
+            for (int i = 0; i < paths.length; ++i)
+                found[i] = find(paths[i]);
+            recorded.put(value, new Record(path, resolved, paths, found, options, environment));
+        }
+        if (value instanceof SimpleConfigObject) {
+            SimpleConfigObject obj = (SimpleConfigObject) value;
+            for (String key : obj.keySet())
+                record(obj.get(key), child(path, key));
+        }
+    }
+}
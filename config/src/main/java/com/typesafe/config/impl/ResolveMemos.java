@@ -1,28 +1,165 @@
 package com.typesafe.config.impl;
 
+import java.util.Arrays;
+
 /**
  * This exists because we have to memoize resolved substitutions as we go
  * through the config tree; otherwise we could end up creating multiple copies
  * of values or whole trees of values as we follow chains of substitutions.
+ *
+ * One of these is shared by every ResolveContext in a resolve, and like the
+ * rest of a resolve it's confined to the thread doing it. A substitution
+ * which turns out to be part of a cycle throws away what was memoized while
+ * trying to resolve it, so the memos can be rolled back to a mark.
+ *
+ * The memos are a hash table with open addressing and linear probing, so a
+ * put is amortized O(1) and doesn't allocate unless the table grows. While a
+ * mark is live each put also goes in an undo log, which rollback() replays
+ * backwards.
  */
 final class ResolveMemos {
+    private static final int INITIAL_CAPACITY = 16;
+
     // note that we can resolve things to undefined (represented as Java null,
-    // rather than ConfigNull) so this map can have null values.
-    final private BadMap<MemoKey, AbstractConfigValue> memos;
+    // rather than ConfigNull) so values can be null; an empty slot is one
+    // with a null key. The table is never more than half full.
+    private MemoKey[] keys;
+    private AbstractConfigValue[] values;
+    private int size;
 
-    private ResolveMemos(BadMap<MemoKey, AbstractConfigValue> memos) {
-        this.memos = memos;
-    }
+    // the undo log; for each put, the key, what it replaced, and whether it
+    // replaced anything
+    private boolean recording;
+    private MemoKey[] undoKeys;
+    private AbstractConfigValue[] undoValues;
+    private boolean[] undoReplaced;
+    private int undoSize;
 
     ResolveMemos() {
-        this(new BadMap<>());
+        this.keys = new MemoKey[INITIAL_CAPACITY];
+        this.values = new AbstractConfigValue[INITIAL_CAPACITY];
+        this.size = 0;
+        this.recording = false;
+        this.undoSize = 0;
+    }
+
+    private static int slot(MemoKey key, int mask) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // the slot holding the key, or the empty slot where it would go
+    private int find(MemoKey key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != null && !keys[i].equals(key))
+            i = (i + 1) & mask;
+        return i;
     }
 
     AbstractConfigValue get(MemoKey key) {
-        return memos.get(key);
+        return values[find(key)];
+    }
+
+    void put(MemoKey key, AbstractConfigValue value) {
+        int i = find(key);
+        if (recording)
+            record(key, values[i], keys[i] != null);
+        if (keys[i] == null) {
+            keys[i] = key;
+            size += 1;
+        }
+        values[i] = value;
+        if (size * 2 > keys.length)
+            grow();
+    }
+
+    private void grow() {
+        MemoKey[] oldKeys = keys;
+        AbstractConfigValue[] oldValues = values;
+        keys = new MemoKey[oldKeys.length * 2];
+        values = new AbstractConfigValue[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; ++j) {
+            if (oldKeys[j] != null) {
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != null)
+                    i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void remove(MemoKey key) {
+        int mask = keys.length - 1;
+        int i = find(key);
+        if (keys[i] == null)
+            return;
+        keys[i] = null;
+        values[i] = null;
+        size -= 1;
+        // shift back any later entries of the probe sequence which would
+        // no longer be found past the gap
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == null)
+                return;
+            int k = slot(keys[j], mask);
+            boolean stays = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+            if (!stays) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                keys[j] = null;
+                values[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    private void record(MemoKey key, AbstractConfigValue replaced, boolean didReplace) {
+        if (undoKeys == null) {
+            undoKeys = new MemoKey[INITIAL_CAPACITY];
+            undoValues = new AbstractConfigValue[INITIAL_CAPACITY];
+            undoReplaced = new boolean[INITIAL_CAPACITY];
+        } else if (undoSize == undoKeys.length) {
+            undoKeys = Arrays.copyOf(undoKeys, undoSize * 2);
+            undoValues = Arrays.copyOf(undoValues, undoSize * 2);
+            undoReplaced = Arrays.copyOf(undoReplaced, undoSize * 2);
+        }
+        undoKeys[undoSize] = key;
+        undoValues[undoSize] = replaced;
+        undoReplaced[undoSize] = didReplace;
+        undoSize += 1;
+    }
+
+    // a point to roll back to; puts are logged from now until commit()
+    int mark() {
+        recording = true;
+        return undoSize;
+    }
+
+    void rollback(int mark) {
+        while (undoSize > mark) {
+            undoSize -= 1;
+            MemoKey key = undoKeys[undoSize];
+            if (undoReplaced[undoSize])
+                values[find(key)] = undoValues[undoSize];
+            else
+                remove(key);
+            undoKeys[undoSize] = null;
+            undoValues[undoSize] = null;
+        }
     }
 
-    ResolveMemos put(MemoKey key, AbstractConfigValue value) {
-        return new ResolveMemos(memos.copyingPut(key, value));
+    // called when no mark can be rolled back to any more
+    void commit() {
+        if (undoSize > 0) {
+            Arrays.fill(undoKeys, 0, undoSize, null);
+            Arrays.fill(undoValues, 0, undoSize, null);
+            undoSize = 0;
+        }
+        recording = false;
     }
 }
@@ -32,10 +32,6 @@ final class ResolveResult<V extends AbstractConfigValue> {
         return (ResolveResult<AbstractConfigValue>) o;
     }
 
-    ResolveResult<V> popTrace() {
-        return make(context.popTrace(), value);
-    }
-
     @Override
     public String toString() {
         return "ResolveResult(" + value + ")";
@@ -0,0 +1,61 @@
+package com.typesafe.config.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.typesafe.config.ConfigResolveSession;
+
+/**
+ * Internal implementation detail, not ABI stable, do not touch.
+ * For use only by the {@link com.typesafe.config} package.
+ *
+ * <p>
+ * The records ResolveDependencies made in the last few resolves with this
+ * session, one identity map from unresolved value to record per resolve,
+ * newest first. Keeping whole resolves rather than a few records per value
+ * bounds what the session holds to a few trees, and a value reused from an
+ * older resolve is carried into the newer one so a base shared by several
+ * sets of overrides stays around.
+ */
+public final class ResolveSessionImpl implements ConfigResolveSession {
+
+    // how many resolves a session remembers
+    private static final int MAX_GENERATIONS = 4;
+
+    private final List<Map<AbstractConfigValue, ResolveDependencies.Record>> generations;
+
+    private ResolveSessionImpl() {
+        this.generations = new ArrayList<Map<AbstractConfigValue, ResolveDependencies.Record>>();
+    }
+
+    /**
+     * This is public ONLY for use by the "config" package, DO NOT USE this ABI
+     * may change.
+     * @return a new session
+     */
+    public static ResolveSessionImpl createInternal() {
+        return new ResolveSessionImpl();
+    }
+
+    // a copy, newest first, so a resolve can look through it unlocked
+    synchronized List<Map<AbstractConfigValue, ResolveDependencies.Record>> generations() {
+        return new ArrayList<Map<AbstractConfigValue, ResolveDependencies.Record>>(generations);
+    }
+
+    synchronized void add(Map<AbstractConfigValue, ResolveDependencies.Record> generation) {
+        generations.add(0, generation);
+        while (generations.size() > MAX_GENERATIONS)
+            generations.remove(generations.size() - 1);
+    }
+
+    @Override
+    public synchronized void clear() {
+        generations.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "ResolveSession(" + generations().size() + " resolves)";
+    }
+}
@@ -92,9 +92,15 @@ final class ResolveSource {
 
         if (ConfigImpl.traceSubstitutionsEnabled())
             ConfigImpl.trace(context.depth(), subst + " - looking up relative to file it occurred in");
+        // the environment lookup below goes on from the memos we have now,
+        // not from what the lookups in the root memoized
+        int memosMark = context.markMemos();
+
         // First we look up the full path, which means relative to the
         // included file if we were not a root file
+        context.lookingUp(root, subst.path());
         ResultWithPath result = findInObject(root, context, subst.path());
+        result.result.context.found(root, result.result.value);
 
         if (result.result.value == null) {
             // Then we want to check relative to the root file. We don't
@@ -106,13 +112,16 @@ final class ResolveSource {
                 if (ConfigImpl.traceSubstitutionsEnabled())
                     ConfigImpl.trace(result.result.context.depth(), unprefixed
                             + " - looking up relative to parent file");
+                result.result.context.lookingUp(root, unprefixed);
                 result = findInObject(root, result.result.context, unprefixed);
+                result.result.context.found(root, result.result.value);
             }
 
             if (result.result.value == null && result.result.context.options().getUseSystemEnvironment()) {
                 if (ConfigImpl.traceSubstitutionsEnabled())
                     ConfigImpl.trace(result.result.context.depth(), unprefixed + " - looking up in system environment");
-                result = findInObject(ConfigImpl.envVariablesAsConfigObject(), context, unprefixed);
+                result = findInObject(ConfigImpl.envVariablesAsConfigObject(), context.rollbackMemos(memosMark),
+                        unprefixed);
             }
         }
 
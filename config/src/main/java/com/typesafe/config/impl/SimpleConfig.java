@@ -23,13 +23,16 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigDiff;
 import com.typesafe.config.ConfigException;
 import com.typesafe.config.ConfigList;
 import com.typesafe.config.ConfigMemorySize;
 import com.typesafe.config.ConfigMergeable;
 import com.typesafe.config.ConfigObject;
 import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigPath;
 import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.ConfigSubstitutionGraph;
 import com.typesafe.config.ConfigValue;
 import com.typesafe.config.ConfigValueType;
 
@@ -44,9 +47,17 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
     private static final long serialVersionUID = 1L;
 
     final private AbstractConfigObject object;
+    // full path to value for every value in the tree, including objects and
+    // nulls; only present on a resolved config returned by toIndexed()
+    final private Map<Path, AbstractConfigValue> index;
 
     SimpleConfig(AbstractConfigObject object) {
+        this(object, null);
+    }
+
+    private SimpleConfig(AbstractConfigObject object, Map<Path, AbstractConfigValue> index) {
         this.object = object;
+        this.index = index;
     }
 
     @Override
@@ -85,7 +96,14 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
     }
 
     private ConfigValue hasPathPeek(String pathExpression) {
-        Path path = Path.newPath(pathExpression);
+        return hasPathPeek(Path.newPath(pathExpression));
+    }
+
+    private ConfigValue hasPathPeek(Path path) {
+        // anything missing from the index is also missing from the tree
+        if (index != null)
+            return index.get(path);
+
         ConfigValue peeked;
         try {
             peeked = object.peekPath(path);
@@ -130,6 +148,51 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
         }
     }
 
+    private static void indexPaths(Map<Path, AbstractConfigValue> index, Path parent,
+            AbstractConfigObject obj) {
+        for (Map.Entry<String, ConfigValue> entry : obj.entrySet()) {
+            Path path = Path.newKey(entry.getKey());
+            if (parent != null)
+                path = path.prepend(parent);
+            AbstractConfigValue v = (AbstractConfigValue) entry.getValue();
+            index.put(path, v);
+            if (v instanceof AbstractConfigObject)
+                indexPaths(index, path, (AbstractConfigObject) v);
+        }
+    }
+
+    @Override
+    public SimpleConfig toIndexed() {
+        if (index != null)
+            return this;
+
+        if (!isResolved())
+            throw new ConfigException.NotResolved(
+                    "need to Config#resolve() a config before calling Config#toIndexed(), see the API docs for Config#resolve()");
+
+        Map<Path, AbstractConfigValue> paths = new HashMap<Path, AbstractConfigValue>();
+        indexPaths(paths, null, object);
+        return new SimpleConfig(object, paths);
+    }
+
+    @Override
+    public SimpleConfig compact() {
+        if (!isResolved())
+            throw new ConfigException.NotResolved(
+                    "need to Config#resolve() a config before calling Config#compact(), see the API docs for Config#resolve()");
+
+        AbstractConfigObject compacted = ConfigCompactor.compactTree(object);
+        if (compacted == object)
+            return this;
+        else
+            return new SimpleConfig(compacted);
+    }
+
+    @Override
+    public ConfigSubstitutionGraph substitutionGraph() {
+        return SubstitutionGraph.build(object);
+    }
+
     @Override
     public Set<Map.Entry<String, ConfigValue>> entrySet() {
         Set<Map.Entry<String, ConfigValue>> entries = new HashSet<Map.Entry<String, ConfigValue>>();
@@ -137,6 +200,14 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
         return entries;
     }
 
+    @Override
+    public ConfigDiff diff(Config other) {
+        if (!isResolved() || !other.isResolved())
+            throw new ConfigException.NotResolved(
+                    "need to Config#resolve() both configs before calling Config#diff(), see the API docs for Config#resolve()");
+        return SimpleConfigDiff.diff(object, ((SimpleConfig) other).object);
+    }
+
     static private AbstractConfigValue throwIfNull(AbstractConfigValue v, ConfigValueType expected, Path originalPath) {
         if (v.valueType() == ConfigValueType.NULL)
             throw new ConfigException.Null(v.origin(), originalPath.render(),
@@ -156,6 +227,11 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
         if (v == null)
             throw new ConfigException.Missing(self.origin(), originalPath.render());
 
+        return checkType(v, expected, originalPath);
+    }
+
+    static private AbstractConfigValue checkType(AbstractConfigValue v, ConfigValueType expected,
+            Path originalPath) {
         if (expected != null)
             v = DefaultTransformer.transform(v, expected);
 
@@ -166,6 +242,25 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
             return v;
     }
 
+    // looks up an intermediate object along the path; the path prefix used in
+    // exception messages is only computed if we're going to throw, so a
+    // successful lookup doesn't allocate.
+    static private AbstractConfigObject findObjectKey(AbstractConfigObject self, String key,
+            Path next, Path originalPath) {
+        AbstractConfigValue v;
+        try {
+            v = self.attemptPeekWithPartialResolve(key);
+        } catch (ConfigException.NotResolved e) {
+            v = null;
+        }
+        if (v instanceof AbstractConfigObject)
+            return (AbstractConfigObject) v;
+
+        // missing, null, wrong type, or not resolved
+        return (AbstractConfigObject) findKey(self, key, ConfigValueType.OBJECT,
+                originalPath.subPath(0, originalPath.length() - next.length()));
+    }
+
     static private AbstractConfigValue findOrNull(AbstractConfigObject self, Path path,
             ConfigValueType expected, Path originalPath) {
         try {
@@ -174,9 +269,7 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
             if (next == null) {
                 return findKeyOrNull(self, key, expected, originalPath);
             } else {
-                AbstractConfigObject o = (AbstractConfigObject) findKey(self, key,
-                        ConfigValueType.OBJECT,
-                        originalPath.subPath(0, originalPath.length() - next.length()));
+                AbstractConfigObject o = findObjectKey(self, key, next, originalPath);
                 assert (o != null); // missing was supposed to throw
                 return findOrNull(o, next, expected, originalPath);
             }
@@ -186,7 +279,7 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
     }
 
     AbstractConfigValue find(Path pathExpression, ConfigValueType expected, Path originalPath) {
-        return throwIfNull(findOrNull(object, pathExpression, expected, originalPath), expected, originalPath);
+        return throwIfNull(findOrNull(pathExpression, expected, originalPath), expected, originalPath);
     }
 
     AbstractConfigValue find(String pathExpression, ConfigValueType expected) {
@@ -195,6 +288,13 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
     }
 
     private AbstractConfigValue findOrNull(Path pathExpression, ConfigValueType expected, Path originalPath) {
+        if (index != null) {
+            AbstractConfigValue v = index.get(pathExpression);
+            if (v != null)
+                return checkType(v, expected, originalPath);
+            // fall through to walk the tree, so we throw the same
+            // exception as an unindexed config would
+        }
         return findOrNull(object, pathExpression, expected, originalPath);
     }
 
@@ -203,6 +303,16 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
         return findOrNull(path, expected, path);
     }
 
+    private AbstractConfigValue find(ConfigPath pathExpression, ConfigValueType expected) {
+        Path path = ((SimpleConfigPath) pathExpression).path();
+        return find(path, expected, path);
+    }
+
+    private AbstractConfigValue findOrNull(ConfigPath pathExpression, ConfigValueType expected) {
+        Path path = ((SimpleConfigPath) pathExpression).path();
+        return findOrNull(path, expected, path);
+    }
+
     @Override
     public AbstractConfigValue getValue(String path) {
         return find(path, null);
@@ -283,19 +393,34 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
 
     @Override
     public Long getBytes(String path) {
-        BigInteger bytes = getBytesBigInteger(path);
-        ConfigValue v = find(path, ConfigValueType.STRING);
-        return toLong(bytes, v.origin(), path);
+        return getBytes(Path.newPath(path), path);
+    }
+
+    private Long getBytes(Path path, String pathForException) {
+        BigInteger bytes = getBytesBigInteger(path, pathForException);
+        ConfigValue v = find(path, ConfigValueType.STRING, path);
+        return toLong(bytes, v.origin(), pathForException);
     }
 
     private BigInteger getBytesBigInteger(String path) {
+        return getBytesBigInteger(Path.newPath(path), path);
+    }
+
+    private BigInteger getBytesBigInteger(Path originalPath, String path) {
         BigInteger bytes;
-        ConfigValue v = find(path, ConfigValueType.STRING);
-        try {
-            bytes = BigInteger.valueOf(getLong(path));
-        } catch (ConfigException.WrongType e) {
-            bytes = parseBytes((String) v.unwrapped(),
-                v.origin(), path);
+        ConfigValue v = find(originalPath, ConfigValueType.STRING, originalPath);
+        if (v instanceof ConfigString && ((ConfigString) v).decoded() instanceof BigInteger) {
+            bytes = (BigInteger) ((ConfigString) v).decoded();
+        } else {
+            try {
+                ConfigNumber n = (ConfigNumber) find(originalPath, ConfigValueType.NUMBER, originalPath);
+                bytes = BigInteger.valueOf(n.longValue());
+            } catch (ConfigException.WrongType e) {
+                bytes = parseBytes((String) v.unwrapped(),
+                    v.origin(), path);
+            }
+            if (v instanceof ConfigString)
+                ((ConfigString) v).setDecoded(bytes);
         }
         if (bytes.signum() < 0)
             throw new ConfigException.BadValue(v.origin(), path,
@@ -304,16 +429,18 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
     }
 
     private List<BigInteger> getBytesListBigInteger(String path){
+        return getBytesListBigInteger(getList(path), path);
+    }
+
+    private static List<BigInteger> getBytesListBigInteger(ConfigList list, String path){
         List<BigInteger> result = new ArrayList<>();
-        List<? extends ConfigValue> list = getList(path);
 
         for (ConfigValue v : list) {
             BigInteger bytes;
             if (v.valueType() == ConfigValueType.NUMBER) {
                 bytes = BigInteger.valueOf(((Number) v.unwrapped()).longValue());
             } else if (v.valueType() == ConfigValueType.STRING) {
-                String s = (String) v.unwrapped();
-                bytes = parseBytes(s, v.origin(), path);
+                bytes = decodeBytes(v, path);
             } else {
                 throw new ConfigException.WrongType(v.origin(), path,
                     "memory size string or number of bytes", v.valueType()
@@ -349,7 +476,7 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
     public long getDuration(String path, TimeUnit unit) {
         ConfigValue v = find(path, ConfigValueType.STRING);
         long result = unit.convert(
-                       parseDuration((String) v.unwrapped(), v.origin(), path),
+                       decodeDuration(v, path).toNanos(),
                        TimeUnit.NANOSECONDS);
         return result;
     }
@@ -357,14 +484,13 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
     @Override
     public Duration getDuration(String path) {
         ConfigValue v = find(path, ConfigValueType.STRING);
-        long nanos = parseDuration((String) v.unwrapped(), v.origin(), path);
-        return Duration.ofNanos(nanos);
+        return decodeDuration(v, path);
     }
 
     @Override
     public Period getPeriod(String path){
         ConfigValue v = find(path, ConfigValueType.STRING);
-        return parsePeriod((String) v.unwrapped(), v.origin(), path);
+        return decodePeriod(v, path);
     }
 
     @Override
@@ -376,11 +502,15 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
         }
     }
 
-    @SuppressWarnings("unchecked")
     private <T> List<T> getHomogeneousUnwrappedList(String path,
             ConfigValueType expected) {
+        return getHomogeneousUnwrappedList(getList(path), path, expected);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> getHomogeneousUnwrappedList(ConfigList list, String path,
+            ConfigValueType expected) {
         List<T> l = new ArrayList<T>();
-        List<? extends ConfigValue> list = getList(path);
         for (ConfigValue cv : list) {
             // variance would be nice, but stupid cast will do
             AbstractConfigValue v = (AbstractConfigValue) cv;
@@ -408,8 +538,12 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
 
     @Override
     public List<Integer> getIntList(String path) {
+        return getIntList(getList(path), path);
+    }
+
+    private static List<Integer> getIntList(ConfigList list, String path) {
         List<Integer> l = new ArrayList<Integer>();
-        List<AbstractConfigValue> numbers = getHomogeneousWrappedList(path, ConfigValueType.NUMBER);
+        List<AbstractConfigValue> numbers = getHomogeneousWrappedList(list, path, ConfigValueType.NUMBER);
         for (AbstractConfigValue v : numbers) {
             l.add(((ConfigNumber) v).intValueRangeChecked(path));
         }
@@ -418,8 +552,11 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
 
     @Override
     public List<Long> getLongList(String path) {
+        return toLongList(getNumberList(path));
+    }
+
+    private static List<Long> toLongList(List<Number> numbers) {
         List<Long> l = new ArrayList<Long>();
-        List<Number> numbers = getNumberList(path);
         for (Number n : numbers) {
             l.add(n.longValue());
         }
@@ -428,8 +565,11 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
 
     @Override
     public List<Double> getDoubleList(String path) {
+        return toDoubleList(getNumberList(path));
+    }
+
+    private static List<Double> toDoubleList(List<Number> numbers) {
         List<Double> l = new ArrayList<Double>();
-        List<Number> numbers = getNumberList(path);
         for (Number n : numbers) {
             l.add(n.doubleValue());
         }
@@ -443,7 +583,11 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
 
     @Override
     public <T extends Enum<T>> List<T> getEnumList(Class<T> enumClass, String path) {
-        List<ConfigString> enumNames = getHomogeneousWrappedList(path, ConfigValueType.STRING);
+        return getEnumList(enumClass, getList(path), path);
+    }
+
+    private <T extends Enum<T>> List<T> getEnumList(Class<T> enumClass, ConfigList list, String path) {
+        List<ConfigString> enumNames = getHomogeneousWrappedList(list, path, ConfigValueType.STRING);
         List<T> enumList = new ArrayList<T>();
         for (ConfigString enumName : enumNames) {
             enumList.add(getEnumValue(path, enumClass, enumName));
@@ -470,11 +614,15 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
         }
     }
 
-    @SuppressWarnings("unchecked")
     private <T extends ConfigValue> List<T> getHomogeneousWrappedList(
             String path, ConfigValueType expected) {
+        return getHomogeneousWrappedList(getList(path), path, expected);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends ConfigValue> List<T> getHomogeneousWrappedList(
+            ConfigList list, String path, ConfigValueType expected) {
         List<T> l = new ArrayList<T>();
-        List<? extends ConfigValue> list = getList(path);
         for (ConfigValue cv : list) {
             // variance would be nice, but stupid cast will do
             AbstractConfigValue v = (AbstractConfigValue) cv;
@@ -497,7 +645,10 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
 
     @Override
     public List<? extends Config> getConfigList(String path) {
-        List<ConfigObject> objects = getObjectList(path);
+        return toConfigList(getObjectList(path));
+    }
+
+    private static List<? extends Config> toConfigList(List<ConfigObject> objects) {
         List<Config> l = new ArrayList<Config>();
         for (ConfigObject o : objects) {
             l.add(o.toConfig());
@@ -507,8 +658,11 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
 
     @Override
     public List<? extends Object> getAnyRefList(String path) {
+        return toAnyRefList(getList(path));
+    }
+
+    private static List<? extends Object> toAnyRefList(ConfigList list) {
         List<Object> l = new ArrayList<Object>();
-        List<? extends ConfigValue> list = getList(path);
         for (ConfigValue v : list) {
             l.add(v.unwrapped());
         }
@@ -517,13 +671,16 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
 
     @Override
     public List<Long> getBytesList(String path) {
-        ConfigValue v = find(path, ConfigValueType.LIST);
-        return getBytesListBigInteger(path).stream()
-            .map(bytes -> toLong(bytes, v.origin(), path))
+        return getBytesList(getList(path), path);
+    }
+
+    private static List<Long> getBytesList(ConfigList list, String path) {
+        return getBytesListBigInteger(list, path).stream()
+            .map(bytes -> toLong(bytes, list.origin(), path))
             .collect(Collectors.toList());
     }
 
-    private Long toLong(BigInteger value, ConfigOrigin originForException,
+    private static Long toLong(BigInteger value, ConfigOrigin originForException,
         String pathForException){
         if (value.bitLength() < 64) {
             return value.longValue();
@@ -535,15 +692,22 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
 
     @Override
     public List<ConfigMemorySize> getMemorySizeList(String path) {
-        return getBytesListBigInteger(path).stream()
+        return toMemorySizeList(getBytesListBigInteger(path));
+    }
+
+    private static List<ConfigMemorySize> toMemorySizeList(List<BigInteger> bytes) {
+        return bytes.stream()
             .map(ConfigMemorySize::ofBytes)
             .collect(Collectors.toList());
     }
 
     @Override
     public List<Long> getDurationList(String path, TimeUnit unit) {
+        return getDurationList(getList(path), path, unit);
+    }
+
+    private static List<Long> getDurationList(ConfigList list, String path, TimeUnit unit) {
         List<Long> l = new ArrayList<Long>();
-        List<? extends ConfigValue> list = getList(path);
         for (ConfigValue v : list) {
             if (v.valueType() == ConfigValueType.NUMBER) {
                 Long n = unit.convert(
@@ -551,9 +715,8 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
                            TimeUnit.MILLISECONDS);
                 l.add(n);
             } else if (v.valueType() == ConfigValueType.STRING) {
-                String s = (String) v.unwrapped();
                 Long n = unit.convert(
-                           parseDuration(s, v.origin(), path),
+                           decodeDuration(v, path).toNanos(),
                            TimeUnit.NANOSECONDS);
                 l.add(n);
             } else {
@@ -567,7 +730,10 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
 
     @Override
     public List<Duration> getDurationList(String path) {
-        List<Long> l = getDurationList(path, TimeUnit.NANOSECONDS);
+        return toDurationList(getDurationList(path, TimeUnit.NANOSECONDS));
+    }
+
+    private static List<Duration> toDurationList(List<Long> l) {
         List<Duration> builder = new ArrayList<Duration>(l.size());
         for (Long value : l) {
             builder.add(Duration.ofNanos(value));
@@ -587,6 +753,207 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
         return getDurationList(path, TimeUnit.NANOSECONDS);
     }
 
+    @Override
+    public boolean hasPath(ConfigPath path) {
+        ConfigValue peeked = hasPathPeek(((SimpleConfigPath) path).path());
+        return peeked != null && peeked.valueType() != ConfigValueType.NULL;
+    }
+
+    @Override
+    public boolean hasPathOrNull(ConfigPath path) {
+        ConfigValue peeked = hasPathPeek(((SimpleConfigPath) path).path());
+        return peeked != null;
+    }
+
+    @Override
+    public boolean getIsNull(ConfigPath path) {
+        AbstractConfigValue v = findOrNull(path, null);
+        return (v.valueType() == ConfigValueType.NULL);
+    }
+
+    @Override
+    public boolean getBoolean(ConfigPath path) {
+        ConfigValue v = find(path, ConfigValueType.BOOLEAN);
+        return (Boolean) v.unwrapped();
+    }
+
+    private ConfigNumber getConfigNumber(ConfigPath path) {
+        ConfigValue v = find(path, ConfigValueType.NUMBER);
+        return (ConfigNumber) v;
+    }
+
+    @Override
+    public Number getNumber(ConfigPath path) {
+        return getConfigNumber(path).unwrapped();
+    }
+
+    @Override
+    public int getInt(ConfigPath path) {
+        ConfigNumber n = getConfigNumber(path);
+        return n.intValueRangeChecked(path.expression());
+    }
+
+    @Override
+    public long getLong(ConfigPath path) {
+        return getConfigNumber(path).longValue();
+    }
+
+    @Override
+    public double getDouble(ConfigPath path) {
+        return getConfigNumber(path).doubleValue();
+    }
+
+    @Override
+    public String getString(ConfigPath path) {
+        ConfigValue v = find(path, ConfigValueType.STRING);
+        return (String) v.unwrapped();
+    }
+
+    @Override
+    public <T extends Enum<T>> T getEnum(Class<T> enumClass, ConfigPath path) {
+        ConfigValue v = find(path, ConfigValueType.STRING);
+        return getEnumValue(path.expression(), enumClass, v);
+    }
+
+    @Override
+    public AbstractConfigObject getObject(ConfigPath path) {
+        AbstractConfigObject obj = (AbstractConfigObject) find(path, ConfigValueType.OBJECT);
+        return obj;
+    }
+
+    @Override
+    public SimpleConfig getConfig(ConfigPath path) {
+        return getObject(path).toConfig();
+    }
+
+    @Override
+    public Object getAnyRef(ConfigPath path) {
+        ConfigValue v = find(path, null);
+        return v.unwrapped();
+    }
+
+    @Override
+    public AbstractConfigValue getValue(ConfigPath path) {
+        return find(path, null);
+    }
+
+    @Override
+    public Long getBytes(ConfigPath path) {
+        return getBytes(((SimpleConfigPath) path).path(), path.expression());
+    }
+
+    @Override
+    public ConfigMemorySize getMemorySize(ConfigPath path) {
+        return ConfigMemorySize.ofBytes(getBytesBigInteger(((SimpleConfigPath) path).path(),
+                path.expression()));
+    }
+
+    @Override
+    public long getDuration(ConfigPath path, TimeUnit unit) {
+        ConfigValue v = find(path, ConfigValueType.STRING);
+        long result = unit.convert(
+                       decodeDuration(v, path.expression()).toNanos(),
+                       TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    @Override
+    public Duration getDuration(ConfigPath path) {
+        ConfigValue v = find(path, ConfigValueType.STRING);
+        return decodeDuration(v, path.expression());
+    }
+
+    @Override
+    public Period getPeriod(ConfigPath path) {
+        ConfigValue v = find(path, ConfigValueType.STRING);
+        return decodePeriod(v, path.expression());
+    }
+
+    @Override
+    public ConfigList getList(ConfigPath path) {
+        AbstractConfigValue v = find(path, ConfigValueType.LIST);
+        return (ConfigList) v;
+    }
+
+    @Override
+    public TemporalAmount getTemporal(ConfigPath path) {
+        try {
+            return getDuration(path);
+        } catch (ConfigException.BadValue e) {
+            return getPeriod(path);
+        }
+    }
+
+    @Override
+    public List<Boolean> getBooleanList(ConfigPath path) {
+        return getHomogeneousUnwrappedList(getList(path), path.expression(), ConfigValueType.BOOLEAN);
+    }
+
+    @Override
+    public List<Number> getNumberList(ConfigPath path) {
+        return getHomogeneousUnwrappedList(getList(path), path.expression(), ConfigValueType.NUMBER);
+    }
+
+    @Override
+    public List<Integer> getIntList(ConfigPath path) {
+        return getIntList(getList(path), path.expression());
+    }
+
+    @Override
+    public List<Long> getLongList(ConfigPath path) {
+        return toLongList(getNumberList(path));
+    }
+
+    @Override
+    public List<Double> getDoubleList(ConfigPath path) {
+        return toDoubleList(getNumberList(path));
+    }
+
+    @Override
+    public List<String> getStringList(ConfigPath path) {
+        return getHomogeneousUnwrappedList(getList(path), path.expression(), ConfigValueType.STRING);
+    }
+
+    @Override
+    public <T extends Enum<T>> List<T> getEnumList(Class<T> enumClass, ConfigPath path) {
+        return getEnumList(enumClass, getList(path), path.expression());
+    }
+
+    @Override
+    public List<ConfigObject> getObjectList(ConfigPath path) {
+        return getHomogeneousWrappedList(getList(path), path.expression(), ConfigValueType.OBJECT);
+    }
+
+    @Override
+    public List<? extends Config> getConfigList(ConfigPath path) {
+        return toConfigList(getObjectList(path));
+    }
+
+    @Override
+    public List<? extends Object> getAnyRefList(ConfigPath path) {
+        return toAnyRefList(getList(path));
+    }
+
+    @Override
+    public List<Long> getBytesList(ConfigPath path) {
+        return getBytesList(getList(path), path.expression());
+    }
+
+    @Override
+    public List<ConfigMemorySize> getMemorySizeList(ConfigPath path) {
+        return toMemorySizeList(getBytesListBigInteger(getList(path), path.expression()));
+    }
+
+    @Override
+    public List<Long> getDurationList(ConfigPath path, TimeUnit unit) {
+        return getDurationList(getList(path), path.expression(), unit);
+    }
+
+    @Override
+    public List<Duration> getDurationList(ConfigPath path) {
+        return toDurationList(getDurationList(path, TimeUnit.NANOSECONDS));
+    }
+
     @Override
     public AbstractConfigObject toFallbackValue() {
         return object;
@@ -632,6 +999,38 @@ final class SimpleConfig implements Config, MergeableValue, Serializable {
         return s.substring(i + 1);
     }
 
+    // these decode a string value, keeping the result on the value (see
+    // ConfigString.decoded()) so that decoding it again is free; only
+    // successful results are kept, so errors are reported with the path of
+    // each lookup
+
+    private static Duration decodeDuration(ConfigValue v, String pathForException) {
+        if (v instanceof ConfigString && ((ConfigString) v).decoded() instanceof Duration)
+            return (Duration) ((ConfigString) v).decoded();
+        Duration d = Duration.ofNanos(parseDuration((String) v.unwrapped(), v.origin(), pathForException));
+        if (v instanceof ConfigString)
+            ((ConfigString) v).setDecoded(d);
+        return d;
+    }
+
+    private static Period decodePeriod(ConfigValue v, String pathForException) {
+        if (v instanceof ConfigString && ((ConfigString) v).decoded() instanceof Period)
+            return (Period) ((ConfigString) v).decoded();
+        Period p = parsePeriod((String) v.unwrapped(), v.origin(), pathForException);
+        if (v instanceof ConfigString)
+            ((ConfigString) v).setDecoded(p);
+        return p;
+    }
+
+    private static BigInteger decodeBytes(ConfigValue v, String pathForException) {
+        if (v instanceof ConfigString && ((ConfigString) v).decoded() instanceof BigInteger)
+            return (BigInteger) ((ConfigString) v).decoded();
+        BigInteger bytes = parseBytes((String) v.unwrapped(), v.origin(), pathForException);
+        if (v instanceof ConfigString)
+            ((ConfigString) v).setDecoded(bytes);
+        return bytes;
+    }
+
     /**
      * Parses a period string. If no units are specified in the string, it is
      * assumed to be in days. The returned period is in days.
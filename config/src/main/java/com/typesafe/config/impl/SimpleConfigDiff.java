@@ -0,0 +1,184 @@
+package com.typesafe.config.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.typesafe.config.ConfigDiff;
+import com.typesafe.config.ConfigValue;
+
+/**
+ * Compares two object trees by walking them together. Subtrees which are the
+ * same instance in both trees (as they are when one config was derived from
+ * the other with withValue(), withFallback() and so on) are skipped without
+ * looking inside, so the cost is proportional to the parts of the trees which
+ * aren't shared rather than to their size.
+ */
+final class SimpleConfigDiff implements ConfigDiff {
+
+    final private Map<String, ConfigValue> before = new TreeMap<String, ConfigValue>();
+    final private Map<String, ConfigValue> after = new TreeMap<String, ConfigValue>();
+    final private SortedSet<String> added = new TreeSet<String>();
+    final private SortedSet<String> removed = new TreeSet<String>();
+    final private SortedSet<String> changed = new TreeSet<String>();
+    final private List<Path> paths = new ArrayList<Path>();
+
+    private SimpleConfigDiff() {
+    }
+
+    static SimpleConfigDiff diff(AbstractConfigObject first, AbstractConfigObject second) {
+        SimpleConfigDiff diff = new SimpleConfigDiff();
+        diff.compareObjects(null, first, second);
+        return diff;
+    }
+
+    private static Path child(Path parent, String key) {
+        Path path = Path.newKey(key);
+        return parent != null ? path.prepend(parent) : path;
+    }
+
+    private void compareObjects(Path parent, AbstractConfigObject first, AbstractConfigObject second) {
+        if (first == second)
+            return;
+        // the path is only made for children which differ, so an object
+        // with many keys and one change costs a lookup per key
+        for (String key : first.keySet()) {
+            AbstractConfigValue firstChild = (AbstractConfigValue) first.get(key);
+            AbstractConfigValue secondChild = (AbstractConfigValue) second.get(key);
+            if (firstChild != secondChild)
+                compare(child(parent, key), firstChild, secondChild);
+        }
+        for (String key : second.keySet()) {
+            if (!first.containsKey(key))
+                compare(child(parent, key), null, (AbstractConfigValue) second.get(key));
+        }
+    }
+
+    private void compare(Path path, AbstractConfigValue first, AbstractConfigValue second) {
+        if (first == second)
+            return;
+        // nulls are conceptually not in a Config
+        if (first instanceof ConfigNull)
+            first = null;
+        if (second instanceof ConfigNull)
+            second = null;
+
+        if (first instanceof AbstractConfigObject && second instanceof AbstractConfigObject) {
+            compareObjects(path, (AbstractConfigObject) first, (AbstractConfigObject) second);
+        } else if (first instanceof AbstractConfigObject) {
+            removeLeaves(path, (AbstractConfigObject) first);
+            if (second != null)
+                add(path, second);
+        } else if (second instanceof AbstractConfigObject) {
+            if (first != null)
+                remove(path, first);
+            addLeaves(path, (AbstractConfigObject) second);
+        } else if (first == null) {
+            if (second != null)
+                add(path, second);
+        } else if (second == null) {
+            remove(path, first);
+        } else if (!first.equals(second)) {
+            String rendered = path.render();
+            before.put(rendered, first);
+            after.put(rendered, second);
+            changed.add(rendered);
+            paths.add(path);
+        }
+    }
+
+    private void add(Path path, AbstractConfigValue value) {
+        String rendered = path.render();
+        after.put(rendered, value);
+        added.add(rendered);
+        paths.add(path);
+    }
+
+    private void remove(Path path, AbstractConfigValue value) {
+        String rendered = path.render();
+        before.put(rendered, value);
+        removed.add(rendered);
+        paths.add(path);
+    }
+
+    private void addLeaves(Path parent, AbstractConfigObject object) {
+        for (Map.Entry<String, ConfigValue> entry : object.entrySet()) {
+            Path path = child(parent, entry.getKey());
+            AbstractConfigValue value = (AbstractConfigValue) entry.getValue();
+            if (value instanceof AbstractConfigObject)
+                addLeaves(path, (AbstractConfigObject) value);
+            else if (!(value instanceof ConfigNull))
+                add(path, value);
+        }
+    }
+
+    private void removeLeaves(Path parent, AbstractConfigObject object) {
+        for (Map.Entry<String, ConfigValue> entry : object.entrySet()) {
+            Path path = child(parent, entry.getKey());
+            AbstractConfigValue value = (AbstractConfigValue) entry.getValue();
+            if (value instanceof AbstractConfigObject)
+                removeLeaves(path, (AbstractConfigObject) value);
+            else if (!(value instanceof ConfigNull))
+                remove(path, value);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return paths.isEmpty();
+    }
+
+    @Override
+    public Set<String> added() {
+        return Collections.unmodifiableSortedSet(added);
+    }
+
+    @Override
+    public Set<String> removed() {
+        return Collections.unmodifiableSortedSet(removed);
+    }
+
+    @Override
+    public Set<String> changed() {
+        return Collections.unmodifiableSortedSet(changed);
+    }
+
+    @Override
+    public Set<String> paths() {
+        SortedSet<String> all = new TreeSet<String>(added);
+        all.addAll(removed);
+        all.addAll(changed);
+        return Collections.unmodifiableSortedSet(all);
+    }
+
+    @Override
+    public boolean affects(String pathExpression) {
+        Path path = PathParser.parsePath(pathExpression);
+        for (Path p : paths) {
+            if (p.startsWith(path))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public ConfigValue before(String path) {
+        return before.get(path);
+    }
+
+    @Override
+    public ConfigValue after(String path) {
+        return after.get(path);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(added=" + added + ", removed=" + removed + ", changed=" + changed
+                + ")";
+    }
+}
@@ -27,6 +27,11 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
 
     private static final long serialVersionUID = 2L;
 
+    // objects with at least this many keys switch to a PersistentMap when
+    // edited with withValue() or withoutPath(), so each edit doesn't copy
+    // all of them; smaller ones are cheaper to copy than to look up in
+    private static final int PERSISTENT_MAP_SIZE = 32;
+
     // this map should never be modified - assume immutable
     final private Map<String, AbstractConfigValue> value;
     final private boolean resolved;
@@ -35,6 +40,15 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
     SimpleConfigObject(ConfigOrigin origin,
             Map<String, AbstractConfigValue> value, ResolveStatus status,
             boolean ignoresFallbacks) {
+        this(origin, value, status, ignoresFallbacks, false /* statusWorkedOut */);
+    }
+
+    // statusWorkedOut is true when the status was just worked out from the
+    // children in the map, one at a time (merging, edits, copies), so the
+    // check against all of them would only repeat that work
+    private SimpleConfigObject(ConfigOrigin origin,
+            Map<String, AbstractConfigValue> value, ResolveStatus status,
+            boolean ignoresFallbacks, boolean statusWorkedOut) {
         super(origin);
         if (value == null)
             throw new ConfigException.BugOrBroken(
@@ -43,14 +57,16 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
         this.resolved = status == ResolveStatus.RESOLVED;
         this.ignoresFallbacks = ignoresFallbacks;
 
-        // Kind of an expensive debug check. Comment out?
-        if (status != ResolveStatus.fromValues(value.values()))
+        // Kind of an expensive debug check, so only for a status which came
+        // from somewhere else.
+        if (!statusWorkedOut && status != ResolveStatus.fromValues(value.values()))
             throw new ConfigException.BugOrBroken("Wrong resolved status on " + this);
     }
 
     SimpleConfigObject(ConfigOrigin origin,
             Map<String, AbstractConfigValue> value) {
-        this(origin, value, ResolveStatus.fromValues(value.values()), false /* ignoresFallbacks */);
+        this(origin, value, ResolveStatus.fromValues(value.values()), false /* ignoresFallbacks */,
+                true /* statusWorkedOut */);
     }
 
     @Override
@@ -88,7 +104,7 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
             return null;
         } else {
             return new SimpleConfigObject(origin(), Collections.singletonMap(key, v),
-                    v.resolveStatus(), ignoresFallbacks);
+                    v.resolveStatus(), ignoresFallbacks, true /* statusWorkedOut */);
         }
     }
 
@@ -111,25 +127,75 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
         AbstractConfigValue v = value.get(key);
 
         if (v != null && next != null && v instanceof AbstractConfigObject) {
-            v = ((AbstractConfigObject) v).withoutPath(next);
-            Map<String, AbstractConfigValue> updated = new HashMap<String, AbstractConfigValue>(
-                    value);
-            updated.put(key, v);
-            return new SimpleConfigObject(origin(), updated, ResolveStatus.fromValues(updated
-                    .values()), ignoresFallbacks);
+            return withChild(key, ((AbstractConfigObject) v).withoutPath(next));
         } else if (next != null || v == null) {
             // can't descend, nothing to remove
             return this;
         } else {
-            Map<String, AbstractConfigValue> smaller = new HashMap<String, AbstractConfigValue>(
-                    value.size() - 1);
-            for (Map.Entry<String, AbstractConfigValue> old : value.entrySet()) {
-                if (!old.getKey().equals(key))
-                    smaller.put(old.getKey(), old.getValue());
+            return withChild(key, null);
+        }
+    }
+
+    private SimpleConfigObject withChild(String key, AbstractConfigValue child) {
+        return withChildren(Collections.singletonMap(key, child));
+    }
+
+    // replaces or removes (where the new child is null) several children at
+    // once, sharing the rest of the map if it's large
+    SimpleConfigObject withChildren(Map<String, AbstractConfigValue> children) {
+        Map<String, AbstractConfigValue> newMap = null;
+        PersistentMap<String, AbstractConfigValue> persistent = null;
+        boolean unresolvedAdded = false;
+        boolean unresolvedRemoved = false;
+        for (Map.Entry<String, AbstractConfigValue> e : children.entrySet()) {
+            String key = e.getKey();
+            AbstractConfigValue child = e.getValue();
+            AbstractConfigValue old = value.get(key);
+            if (child == old)
+                continue;
+
+            if (newMap == null) {
+                // a batch of edits is cheaper to apply to a plain copy,
+                // unless the map is persistent already
+                if (value instanceof PersistentMap
+                        || (value.size() >= PERSISTENT_MAP_SIZE && children.size() == 1)) {
+                    persistent = PersistentMap.copyOf(value);
+                    newMap = persistent;
+                } else if (!value.isEmpty() || children.size() > 1) {
+                    newMap = new HashMap<String, AbstractConfigValue>(value);
+                }
             }
-            return new SimpleConfigObject(origin(), smaller, ResolveStatus.fromValues(smaller
-                    .values()), ignoresFallbacks);
+            if (newMap == null) {
+                newMap = Collections.singletonMap(key, child);
+            } else if (persistent != null) {
+                persistent = child != null ? persistent.plus(key, child) : persistent.minus(key);
+                newMap = persistent;
+            } else if (child != null) {
+                newMap.put(key, child);
+            } else {
+                newMap.remove(key);
+            }
+
+            if (child != null && child.resolveStatus() == ResolveStatus.UNRESOLVED)
+                unresolvedAdded = true;
+            if (old != null && old.resolveStatus() == ResolveStatus.UNRESOLVED)
+                unresolvedRemoved = true;
         }
+        if (newMap == null)
+            return this;
+
+        // we're resolved if all children are, so we only need to look at all
+        // of them when an unresolved child goes away
+        ResolveStatus status;
+        if (unresolvedAdded)
+            status = ResolveStatus.UNRESOLVED;
+        else if (resolved)
+            status = ResolveStatus.RESOLVED;
+        else if (!unresolvedRemoved)
+            status = ResolveStatus.UNRESOLVED;
+        else
+            status = ResolveStatus.fromValues(newMap.values());
+        return new SimpleConfigObject(origin(), newMap, status, ignoresFallbacks, true /* statusWorkedOut */);
     }
 
     @Override
@@ -138,16 +204,7 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
             throw new ConfigException.BugOrBroken(
                     "Trying to store null ConfigValue in a ConfigObject");
 
-        Map<String, AbstractConfigValue> newMap;
-        if (value.isEmpty()) {
-            newMap = Collections.singletonMap(key, (AbstractConfigValue) v);
-        } else {
-            newMap = new HashMap<String, AbstractConfigValue>(value);
-            newMap.put(key, (AbstractConfigValue) v);
-        }
-
-        return new SimpleConfigObject(origin(), newMap, ResolveStatus.fromValues(newMap.values()),
-                ignoresFallbacks);
+        return withChild(key, (AbstractConfigValue) v);
     }
 
     @Override
@@ -171,6 +228,25 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
         }
     }
 
+    // this object with a CompactMap and compacted children, see
+    // ConfigCompactor
+    SimpleConfigObject compacted(ConfigCompactor compactor) {
+        Map<String, AbstractConfigValue> children = new HashMap<String, AbstractConfigValue>();
+        boolean changed = !(value instanceof CompactMap);
+        for (Map.Entry<String, AbstractConfigValue> e : value.entrySet()) {
+            AbstractConfigValue child = compactor.compact(e.getValue());
+            if (child != e.getValue())
+                changed = true;
+            children.put(e.getKey(), child);
+        }
+        ConfigOrigin newOrigin = compactor.origin(origin());
+        if (!changed && newOrigin == origin())
+            return this;
+        else
+            return new SimpleConfigObject(newOrigin, CompactMap.copyOf(children), resolveStatus(),
+                    ignoresFallbacks, true /* statusWorkedOut */);
+    }
+
     @Override
     protected AbstractConfigValue attemptPeekWithPartialResolve(String key) {
         return value.get(key);
@@ -178,7 +254,7 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
 
     private SimpleConfigObject newCopy(ResolveStatus newStatus, ConfigOrigin newOrigin,
             boolean newIgnoresFallbacks) {
-        return new SimpleConfigObject(newOrigin, value, newStatus, newIgnoresFallbacks);
+        return new SimpleConfigObject(newOrigin, value, newStatus, newIgnoresFallbacks, true /* statusWorkedOut */);
     }
 
     @Override
@@ -210,7 +286,7 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
                     newChildren.remove(old.getKey());
 
                 return new SimpleConfigObject(origin(), newChildren, ResolveStatus.fromValues(newChildren.values()),
-                        ignoresFallbacks);
+                        ignoresFallbacks, true /* statusWorkedOut */);
             }
         }
         throw new ConfigException.BugOrBroken("SimpleConfigObject.replaceChild did not find " + child + " in " + this);
@@ -249,6 +325,7 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
     protected SimpleConfigObject mergedWithObject(AbstractConfigObject abstractFallback) {
         requireNotIgnoringFallbacks();
 
+        abstractFallback = SnapshotConfigObject.realize(abstractFallback);
         if (!(abstractFallback instanceof SimpleConfigObject)) {
             throw new ConfigException.BugOrBroken(
                     "should not be reached (merging non-SimpleConfigObject)");
@@ -287,13 +364,25 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
 
         if (changed)
             return new SimpleConfigObject(mergeOrigins(this, fallback), merged, newResolveStatus,
-                    newIgnoresFallbacks);
+                    newIgnoresFallbacks, true /* statusWorkedOut */);
         else if (newResolveStatus != resolveStatus() || newIgnoresFallbacks != ignoresFallbacks())
             return newCopy(newResolveStatus, origin(), newIgnoresFallbacks);
         else
             return this;
     }
 
+    // replaces the children in the map, which may map a key to null to
+    // remove it, building the object resolveSubstitutions() would have if
+    // its children had resolved to those values
+    SimpleConfigObject replaceChildren(final Map<String, AbstractConfigValue> replacements) {
+        return modify(new NoExceptionsModifier() {
+            @Override
+            AbstractConfigValue modifyChild(String key, AbstractConfigValue v) {
+                return replacements.containsKey(key) ? replacements.get(key) : v;
+            }
+        });
+    }
+
     private SimpleConfigObject modify(NoExceptionsModifier modifier) {
         try {
             return modifyMayThrow(modifier);
@@ -341,7 +430,7 @@ final class SimpleConfigObject extends AbstractConfigObject implements Serializa
             }
             return new SimpleConfigObject(origin(), modified,
                     sawUnresolved ? ResolveStatus.UNRESOLVED : ResolveStatus.RESOLVED,
-                    ignoresFallbacks());
+                    ignoresFallbacks(), true /* statusWorkedOut */);
         }
     }
 
@@ -3,10 +3,12 @@
  */
 package com.typesafe.config.impl;
 
+import java.io.DataOutput;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -44,8 +46,35 @@ final class SimpleConfigOrigin implements ConfigOrigin {
         this.commentsOrNull = commentsOrNull;
     }
 
+    private static SimpleConfigOrigin make(String description, int lineNumber, int endLineNumber,
+            OriginType originType, String urlOrNull, String resourceOrNull, List<String> commentsOrNull) {
+        return new SimpleConfigOrigin(description, lineNumber, endLineNumber, originType, urlOrNull,
+                resourceOrNull, commentsOrNull);
+    }
+
+    // for the origins which are often made again equal to earlier ones (the
+    // file and resource origins of each load, merge origins, snapshot
+    // origins), so that equal ones can share an instance (see OriginPool);
+    // line origins only repeat within a parse, which shares them itself
+    private static SimpleConfigOrigin makePooled(String description, int lineNumber, int endLineNumber,
+            OriginType originType, String urlOrNull, String resourceOrNull, List<String> commentsOrNull) {
+        SimpleConfigOrigin origin = make(description, lineNumber, endLineNumber, originType, urlOrNull,
+                resourceOrNull, commentsOrNull);
+        if (commentsOrNull == null)
+            return OriginPool.share(origin);
+        else
+            return origin;
+    }
+
+    // for OriginPool, to keep one copy of each file name and so on
+    SimpleConfigOrigin withInternedStrings() {
+        return new SimpleConfigOrigin(description.intern(), lineNumber, endLineNumber, originType,
+                urlOrNull != null ? urlOrNull.intern() : null,
+                resourceOrNull != null ? resourceOrNull.intern() : null, commentsOrNull);
+    }
+
     static SimpleConfigOrigin newSimple(String description) {
-        return new SimpleConfigOrigin(description, -1, -1, OriginType.GENERIC, null, null, null);
+        return make(description, -1, -1, OriginType.GENERIC, null, null, null);
     }
 
     static SimpleConfigOrigin newFile(String filename) {
@@ -55,12 +84,12 @@ final class SimpleConfigOrigin implements ConfigOrigin {
         } catch (MalformedURLException e) {
             url = null;
         }
-        return new SimpleConfigOrigin(filename, -1, -1, OriginType.FILE, url, null, null);
+        return makePooled(filename, -1, -1, OriginType.FILE, url, null, null);
     }
 
     static SimpleConfigOrigin newURL(URL url) {
         String u = url.toExternalForm();
-        return new SimpleConfigOrigin(u, -1, -1, OriginType.URL, u, null, null);
+        return makePooled(u, -1, -1, OriginType.URL, u, null, null);
     }
 
     static SimpleConfigOrigin newResource(String resource, URL url) {
@@ -69,7 +98,7 @@ final class SimpleConfigOrigin implements ConfigOrigin {
             desc = resource + " @ " + url.toExternalForm();
         else
             desc = resource;
-        return new SimpleConfigOrigin(desc, -1, -1, OriginType.RESOURCE, url != null ? url.toExternalForm() : null,
+        return makePooled(desc, -1, -1, OriginType.RESOURCE, url != null ? url.toExternalForm() : null,
                 resource, null);
     }
 
@@ -78,7 +107,7 @@ final class SimpleConfigOrigin implements ConfigOrigin {
     }
 
     static SimpleConfigOrigin newEnvVariable(String description) {
-        return new SimpleConfigOrigin(description, -1, -1, OriginType.ENV_VARIABLE, null, null, null);
+        return make(description, -1, -1, OriginType.ENV_VARIABLE, null, null, null);
     }
 
     @Override
@@ -86,13 +115,13 @@ final class SimpleConfigOrigin implements ConfigOrigin {
         if (lineNumber == this.lineNumber && lineNumber == this.endLineNumber) {
             return this;
         } else {
-            return new SimpleConfigOrigin(this.description, lineNumber, lineNumber, this.originType, this.urlOrNull,
+            return make(this.description, lineNumber, lineNumber, this.originType, this.urlOrNull,
                     this.resourceOrNull, this.commentsOrNull);
         }
     }
 
     SimpleConfigOrigin addURL(URL url) {
-        return new SimpleConfigOrigin(this.description, this.lineNumber, this.endLineNumber, this.originType,
+        return make(this.description, this.lineNumber, this.endLineNumber, this.originType,
                 url != null ? url.toExternalForm() : null, this.resourceOrNull, this.commentsOrNull);
     }
 
@@ -101,13 +130,14 @@ final class SimpleConfigOrigin implements ConfigOrigin {
         if (ConfigImplUtil.equalsHandlingNull(comments, this.commentsOrNull)) {
             return this;
         } else {
-            return new SimpleConfigOrigin(this.description, this.lineNumber, this.endLineNumber, this.originType,
+            return make(this.description, this.lineNumber, this.endLineNumber, this.originType,
                     this.urlOrNull, this.resourceOrNull, comments);
         }
     }
 
     SimpleConfigOrigin prependComments(List<String> comments) {
-        if (ConfigImplUtil.equalsHandlingNull(comments, this.commentsOrNull) || comments == null) {
+        if (ConfigImplUtil.equalsHandlingNull(comments, this.commentsOrNull) || comments == null
+                || comments.isEmpty()) {
             return this;
         } else if (this.commentsOrNull == null) {
             return withComments(comments);
@@ -120,7 +150,8 @@ final class SimpleConfigOrigin implements ConfigOrigin {
     }
 
     SimpleConfigOrigin appendComments(List<String> comments) {
-        if (ConfigImplUtil.equalsHandlingNull(comments, this.commentsOrNull) || comments == null) {
+        if (ConfigImplUtil.equalsHandlingNull(comments, this.commentsOrNull) || comments == null
+                || comments.isEmpty()) {
             return this;
         } else if (this.commentsOrNull == null) {
             return withComments(comments);
@@ -311,7 +342,7 @@ final class SimpleConfigOrigin implements ConfigOrigin {
                 mergedComments.addAll(b.commentsOrNull);
         }
 
-        return new SimpleConfigOrigin(mergedDesc, mergedStartLine, mergedEndLine, mergedType, mergedURL,
+        return makePooled(mergedDesc, mergedStartLine, mergedEndLine, mergedType, mergedURL,
                 mergedResource, mergedComments);
     }
 
@@ -506,10 +537,54 @@ final class SimpleConfigOrigin implements ConfigOrigin {
         if (originType == OriginType.RESOURCE && resourceOrNull == null) {
             resourceOrNull = description;
         }
-        return new SimpleConfigOrigin(description, lineNumber != null ? lineNumber : -1,
+        return make(description, lineNumber != null ? lineNumber : -1,
                 endLineNumber != null ? endLineNumber : -1, originType, urlOrNull, resourceOrNull, commentsOrNull);
     }
 
+    // the snapshot format stores each distinct origin once in a table, with
+    // its strings as indexes into the snapshot's string table
+    void writeSnapshot(DataOutput out, ConfigSnapshotImpl.StringTable strings) throws IOException {
+        out.writeInt(strings.indexOf(description));
+        out.writeInt(lineNumber);
+        out.writeInt(endLineNumber);
+        out.writeByte(originType.ordinal());
+        out.writeInt(strings.indexOf(urlOrNull));
+        out.writeInt(strings.indexOf(resourceOrNull));
+        if (commentsOrNull == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(commentsOrNull.size());
+            for (String c : commentsOrNull)
+                out.writeInt(strings.indexOf(c));
+        }
+    }
+
+    static SimpleConfigOrigin readSnapshot(ByteBuffer in, ConfigSnapshotImpl.Data data) {
+        String description = data.key(in.getInt());
+        int lineNumber = in.getInt();
+        int endLineNumber = in.getInt();
+        int originTypeOrdinal = in.get() & 0xff;
+        if (originTypeOrdinal >= OriginType.values().length)
+            throw data.corrupt("unknown origin type " + originTypeOrdinal);
+        String urlOrNull = data.string(in.getInt());
+        String resourceOrNull = data.string(in.getInt());
+        int commentCount = in.getInt();
+        List<String> commentsOrNull = null;
+        if (commentCount >= 0) {
+            commentsOrNull = new ArrayList<String>(commentCount);
+            for (int i = 0; i < commentCount; ++i)
+                commentsOrNull.add(data.key(in.getInt()));
+        }
+        return makePooled(description, lineNumber, endLineNumber,
+                OriginType.values()[originTypeOrdinal], urlOrNull, resourceOrNull, commentsOrNull);
+    }
+
+    // equals() and hashCode() ignore comments, but a snapshot has to keep
+    // them, so it needs a stricter notion of "the same origin"
+    boolean equalsIncludingComments(SimpleConfigOrigin other) {
+        return equals(other) && ConfigImplUtil.equalsHandlingNull(commentsOrNull, other.commentsOrNull);
+    }
+
     static Map<SerializedField, Object> applyFieldsDelta(Map<SerializedField, Object> base,
             Map<SerializedField, Object> delta) throws IOException {
 
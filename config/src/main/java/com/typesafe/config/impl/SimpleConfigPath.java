@@ -0,0 +1,66 @@
+package com.typesafe.config.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.typesafe.config.ConfigPath;
+
+/**
+ * The implementation of ConfigPath; holds the already-parsed Path so
+ * SimpleConfig can skip the path parser, and the original expression so
+ * exception messages are the same as with a string path.
+ */
+final class SimpleConfigPath implements ConfigPath {
+
+    final private String expression;
+    final private Path path;
+
+    private SimpleConfigPath(String expression, Path path) {
+        this.expression = expression;
+        this.path = path;
+    }
+
+    static SimpleConfigPath newPath(String expression) {
+        return new SimpleConfigPath(expression, Path.newPath(expression));
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public String expression() {
+        return expression;
+    }
+
+    @Override
+    public List<String> keys() {
+        List<String> elements = new ArrayList<String>();
+        Path p = path;
+        while (p != null) {
+            elements.add(p.first());
+            p = p.remainder();
+        }
+        return Collections.unmodifiableList(elements);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof SimpleConfigPath) {
+            return path.equals(((SimpleConfigPath) other).path);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigPath(" + path.render() + ")";
+    }
+}
@@ -0,0 +1,261 @@
+package com.typesafe.config.impl;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.ConfigValue;
+
+/**
+ * A resolved object in a memory-mapped snapshot, which decodes a child only
+ * when it's looked up. Looking up a key is a binary search over the sorted key
+ * table in the snapshot, so walking a path only decodes the objects along that
+ * path.
+ *
+ * Everything that needs the whole object (merging, rendering, iterating over
+ * values, modifying) goes through an equivalent SimpleConfigObject, built on
+ * first use, whose children are still lazy where they are objects.
+ */
+final class SnapshotConfigObject extends AbstractConfigObject implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    final private ConfigSnapshotImpl.Data data;
+    // position of the table of (key, offset) pairs in the snapshot
+    final private int table;
+    final private int size;
+    final private boolean ignoresFallbacks;
+    final private AtomicReferenceArray<AbstractConfigValue> children;
+    private volatile SimpleConfigObject realized;
+
+    SnapshotConfigObject(ConfigOrigin origin, ConfigSnapshotImpl.Data data, int table, int size,
+            boolean ignoresFallbacks) {
+        super(origin);
+        this.data = data;
+        this.table = table;
+        this.size = size;
+        this.ignoresFallbacks = ignoresFallbacks;
+        this.children = new AtomicReferenceArray<AbstractConfigValue>(size);
+    }
+
+    private String keyAt(int i) {
+        return data.key(data.intAt(table + 8 * i));
+    }
+
+    private AbstractConfigValue childAt(int i) {
+        AbstractConfigValue child = children.get(i);
+        if (child == null) {
+            child = data.valueAt(data.intAt(table + 8 * i + 4));
+            // if another thread got here first, use its copy so we always
+            // hand out the same instance
+            if (!children.compareAndSet(i, null, child))
+                child = children.get(i);
+        }
+        return child;
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String))
+            return -1;
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = keyAt(mid).compareTo((String) key);
+            if (c < 0)
+                low = mid + 1;
+            else if (c > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    private SimpleConfigObject realized() {
+        SimpleConfigObject r = realized;
+        if (r == null) {
+            Map<String, AbstractConfigValue> map = new HashMap<String, AbstractConfigValue>(size * 2);
+            for (int i = 0; i < size; ++i)
+                map.put(keyAt(i), childAt(i));
+            r = new SimpleConfigObject(origin(), map, ResolveStatus.RESOLVED, ignoresFallbacks);
+            realized = r;
+        }
+        return r;
+    }
+
+    // SimpleConfigObject only merges with its own kind
+    static AbstractConfigObject realize(AbstractConfigObject obj) {
+        if (obj instanceof SnapshotConfigObject)
+            return ((SnapshotConfigObject) obj).realized();
+        else
+            return obj;
+    }
+
+    @Override
+    public AbstractConfigValue get(Object key) {
+        int i = indexOf(key);
+        return i < 0 ? null : childAt(i);
+    }
+
+    @Override
+    protected AbstractConfigValue attemptPeekWithPartialResolve(String key) {
+        return get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        Set<String> keys = new LinkedHashSet<String>(size * 2);
+        for (int i = 0; i < size; ++i)
+            keys.add(keyAt(i));
+        return Collections.unmodifiableSet(keys);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    ResolveStatus resolveStatus() {
+        return ResolveStatus.RESOLVED;
+    }
+
+    @Override
+    protected boolean ignoresFallbacks() {
+        return ignoresFallbacks;
+    }
+
+    @Override
+    ResolveResult<? extends AbstractConfigObject> resolveSubstitutions(ResolveContext context, ResolveSource source) {
+        return ResolveResult.make(context, this);
+    }
+
+    @Override
+    public boolean containsValue(Object v) {
+        return realized().containsValue(v);
+    }
+
+    @Override
+    public Set<Map.Entry<String, ConfigValue>> entrySet() {
+        return realized().entrySet();
+    }
+
+    @Override
+    public Collection<ConfigValue> values() {
+        return realized().values();
+    }
+
+    @Override
+    public Map<String, Object> unwrapped() {
+        return realized().unwrapped();
+    }
+
+    @Override
+    public SimpleConfigObject withOnlyKey(String key) {
+        return realized().withOnlyKey(key);
+    }
+
+    @Override
+    public SimpleConfigObject withoutKey(String key) {
+        return realized().withoutKey(key);
+    }
+
+    @Override
+    public SimpleConfigObject withValue(String key, ConfigValue value) {
+        return realized().withValue(key, value);
+    }
+
+    @Override
+    protected SimpleConfigObject withOnlyPathOrNull(Path path) {
+        return realized().withOnlyPathOrNull(path);
+    }
+
+    @Override
+    SimpleConfigObject withOnlyPath(Path path) {
+        return realized().withOnlyPath(path);
+    }
+
+    @Override
+    SimpleConfigObject withoutPath(Path path) {
+        return realized().withoutPath(path);
+    }
+
+    @Override
+    SimpleConfigObject withValue(Path path, ConfigValue value) {
+        return realized().withValue(path, value);
+    }
+
+    @Override
+    protected SimpleConfigObject newCopy(ResolveStatus status, ConfigOrigin origin) {
+        return realized().newCopy(status, origin);
+    }
+
+    @Override
+    protected SimpleConfigObject withFallbacksIgnored() {
+        return realized().withFallbacksIgnored();
+    }
+
+    @Override
+    protected SimpleConfigObject mergedWithObject(AbstractConfigObject fallback) {
+        return realized().mergedWithObject(fallback);
+    }
+
+    @Override
+    SimpleConfigObject relativized(Path prefix) {
+        return realized().relativized(prefix);
+    }
+
+    @Override
+    public SimpleConfigObject replaceChild(AbstractConfigValue child, AbstractConfigValue replacement) {
+        return realized().replaceChild(child, replacement);
+    }
+
+    @Override
+    public boolean hasDescendant(AbstractConfigValue descendant) {
+        return realized().hasDescendant(descendant);
+    }
+
+    @Override
+    protected void render(StringBuilder sb, int indent, boolean atRoot, ConfigRenderOptions options) {
+        realized().render(sb, indent, atRoot, options);
+    }
+
+    @Override
+    protected boolean canEqual(Object other) {
+        return realized().canEqual(other);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return realized().equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return realized().hashCode();
+    }
+
+    // serialization all goes through SerializedConfigValue
+    private Object writeReplace() throws ObjectStreamException {
+        return new SerializedConfigValue(this);
+    }
+}
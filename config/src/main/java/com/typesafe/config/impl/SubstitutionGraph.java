@@ -0,0 +1,330 @@
+package com.typesafe.config.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigSubstitutionGraph;
+import com.typesafe.config.ConfigValue;
+
+/**
+ * The graph behind Config.substitutionGraph(). Each node is the outermost
+ * value at a path, below the objects, which contains substitutions; edges
+ * come from the paths those substitutions refer to. The nodes are numbered
+ * in the order of a walk through the config with each object's keys sorted,
+ * and the strongly connected components are found with Tarjan's algorithm,
+ * which finishes each component after every component it depends on, so
+ * they come out in an order the settings could be resolved in.
+ *
+ * Tarjan's algorithm runs with an explicit stack rather than recursing,
+ * because chains of thousands of substitutions are what people want this
+ * for, and those would overflow the thread's stack.
+ */
+final class SubstitutionGraph implements ConfigSubstitutionGraph {
+
+    private static final SubstitutionGraph EMPTY = new SubstitutionGraph(Collections.<String> emptyList(),
+            Collections.<String, Node> emptyMap(), Collections.<List<String>> emptyList());
+
+    private static final class Node {
+        final Path path;
+        final Set<String> substitutions = new LinkedHashSet<String>();
+        // the references in the value, in the order they appear
+        final List<ConfigReference> references = new ArrayList<ConfigReference>();
+        Set<String> dependencies;
+        int depth;
+
+        Node(Path path) {
+            this.path = path;
+        }
+    }
+
+    // in resolution order
+    private final List<String> paths;
+    private final Map<String, Node> nodes;
+    private final List<List<String>> cycles;
+
+    private SubstitutionGraph(List<String> paths, Map<String, Node> nodes, List<List<String>> cycles) {
+        this.paths = paths;
+        this.nodes = nodes;
+        this.cycles = cycles;
+    }
+
+    static SubstitutionGraph build(AbstractConfigObject root) {
+        if (root.resolveStatus() == ResolveStatus.RESOLVED)
+            return EMPTY;
+
+        if (!(root instanceof SimpleConfigObject))
+            return buildMergedRoot(root);
+
+        List<Node> found = new ArrayList<Node>();
+        findNodes((SimpleConfigObject) root, null, found);
+
+        int count = found.size();
+        Node[] nodeArray = found.toArray(new Node[count]);
+        Map<Path, Integer> byPath = new HashMap<Path, Integer>();
+        // every node below each path which has nodes below it
+        Map<Path, List<Integer>> below = new HashMap<Path, List<Integer>>();
+        for (int i = 0; i < count; ++i) {
+            Path path = nodeArray[i].path;
+            byPath.put(path, i);
+            for (Path parent = path.parent(); parent != null; parent = parent.parent()) {
+                List<Integer> under = below.get(parent);
+                if (under == null) {
+                    under = new ArrayList<Integer>();
+                    below.put(parent, under);
+                }
+                under.add(i);
+            }
+        }
+
+        int[][] edges = new int[count][];
+        Set<Integer> targets = new LinkedHashSet<Integer>();
+        for (int i = 0; i < count; ++i) {
+            targets.clear();
+            for (ConfigReference reference : nodeArray[i].references) {
+                Path path = reference.expression().path();
+                addTargets(i, nodeArray[i].path, path, byPath, below, targets);
+                Path unprefixed = path.subPath(reference.prefixLength());
+                if (reference.prefixLength() > 0 && unprefixed != null)
+                    addTargets(i, nodeArray[i].path, unprefixed, byPath, below, targets);
+            }
+            edges[i] = new int[targets.size()];
+            int e = 0;
+            for (int target : targets)
+                edges[i][e++] = target;
+        }
+
+        List<int[]> components = stronglyConnectedComponents(edges);
+
+        List<String> paths = new ArrayList<String>(count);
+        Map<String, Node> nodes = new HashMap<String, Node>();
+        List<List<String>> cycles = new ArrayList<List<String>>();
+        int[] componentOf = new int[count];
+        int[] position = new int[count];
+        int[] componentDepth = new int[components.size()];
+        for (int c = 0; c < components.size(); ++c) {
+            int[] members = components.get(c);
+            Arrays.sort(members);
+            int deepest = 0;
+            for (int i : members) {
+                componentOf[i] = c;
+                position[i] = paths.size();
+                String rendered = nodeArray[i].path.render();
+                paths.add(rendered);
+                nodes.put(rendered, nodeArray[i]);
+            }
+            boolean cycle = members.length > 1;
+            for (int i : members) {
+                for (int target : edges[i]) {
+                    if (componentOf[target] != c)
+                        deepest = Math.max(deepest, componentDepth[componentOf[target]]);
+                    else if (target == i)
+                        cycle = true;
+                }
+            }
+            componentDepth[c] = deepest + members.length;
+            for (int i : members)
+                nodeArray[i].depth = componentDepth[c];
+            if (cycle) {
+                List<String> cyclePaths = new ArrayList<String>(members.length);
+                for (int i : members)
+                    cyclePaths.add(paths.get(position[i]));
+                cycles.add(Collections.unmodifiableList(cyclePaths));
+            }
+        }
+
+        for (int i = 0; i < count; ++i) {
+            int[] sorted = new int[edges[i].length];
+            for (int e = 0; e < sorted.length; ++e)
+                sorted[e] = position[edges[i][e]];
+            Arrays.sort(sorted);
+            Set<String> dependencies = new LinkedHashSet<String>();
+            for (int p : sorted)
+                dependencies.add(paths.get(p));
+            nodeArray[i].dependencies = Collections.unmodifiableSet(dependencies);
+        }
+
+        return new SubstitutionGraph(Collections.unmodifiableList(paths), nodes,
+                Collections.unmodifiableList(cycles));
+    }
+
+    // a root which is still a merge, as from getConfig() on a setting
+    // defined as ${x} { ... }, is one setting at the empty path; all its
+    // substitutions are inside it, so it depends on nothing
+    private static SubstitutionGraph buildMergedRoot(AbstractConfigObject root) {
+        Node node = new Node(null);
+        findReferences(root, node);
+        node.dependencies = Collections.emptySet();
+        node.depth = 1;
+        return new SubstitutionGraph(Collections.singletonList(""), Collections.singletonMap("", node),
+                Collections.<List<String>> emptyList());
+    }
+
+    private static void findNodes(SimpleConfigObject object, Path path, List<Node> into) {
+        List<String> keys = new ArrayList<String>(object.keySet());
+        Collections.sort(keys);
+        for (String key : keys) {
+            AbstractConfigValue child = object.get(key);
+            if (child.resolveStatus() == ResolveStatus.RESOLVED)
+                continue;
+            Path childPath = path == null ? Path.newKey(key) : Path.newKey(key).prepend(path);
+            if (child instanceof SimpleConfigObject) {
+                findNodes((SimpleConfigObject) child, childPath, into);
+            } else {
+                Node node = new Node(childPath);
+                findReferences(child, node);
+                into.add(node);
+            }
+        }
+    }
+
+    private static void findReferences(AbstractConfigValue value, Node node) {
+        if (value.resolveStatus() == ResolveStatus.RESOLVED) {
+            return;
+        } else if (value instanceof ConfigReference) {
+            ConfigReference reference = (ConfigReference) value;
+            node.references.add(reference);
+            node.substitutions.add(reference.expression().path().render());
+        } else if (value instanceof ConfigConcatenation) {
+            findAll(((ConfigConcatenation) value).pieces(), node);
+        } else if (value instanceof ReplaceableMergeStack) {
+            findAll(((Unmergeable) value).unmergedValues(), node);
+        } else if (value instanceof SimpleConfigObject) {
+            findAll(((SimpleConfigObject) value).values(), node);
+        } else if (value instanceof SimpleConfigList) {
+            findAll((SimpleConfigList) value, node);
+        } else {
+            throw new ConfigException.BugOrBroken("unexpected unresolved value " + value.getClass().getName());
+        }
+    }
+
+    private static void findAll(Iterable<? extends ConfigValue> values, Node node) {
+        for (ConfigValue value : values)
+            findReferences((AbstractConfigValue) value, node);
+    }
+
+    // the nodes a substitution of the path in node "from" at "fromPath"
+    // depends on: the node at the path, the node the path is inside, and
+    // the nodes inside the path
+    private static void addTargets(int from, Path fromPath, Path path, Map<Path, Integer> byPath,
+            Map<Path, List<Integer>> below, Set<Integer> into) {
+        // a substitution of the setting's own path, or a path inside it,
+        // looks at what the setting overrides instead of at the setting
+        boolean selfReference = path.startsWith(fromPath);
+        for (Path prefix = path; prefix != null; prefix = prefix.parent()) {
+            Integer target = byPath.get(prefix);
+            if (target != null && !(selfReference && target == from))
+                into.add(target);
+        }
+        List<Integer> under = below.get(path);
+        if (under != null)
+            into.addAll(under);
+    }
+
+    // Tarjan's algorithm, with an explicit stack; components are returned
+    // with each one after every component it has an edge to
+    private static List<int[]> stronglyConnectedComponents(int[][] edges) {
+        int count = edges.length;
+        int[] index = new int[count];
+        int[] lowLink = new int[count];
+        boolean[] onStack = new boolean[count];
+        Arrays.fill(index, -1);
+        int[] componentStack = new int[count];
+        int componentStackSize = 0;
+        // the nodes being visited, and how many of each one's edges are done
+        int[] callStack = new int[count];
+        int[] nextEdge = new int[count];
+        int nextIndex = 0;
+        List<int[]> components = new ArrayList<int[]>();
+
+        for (int start = 0; start < count; ++start) {
+            if (index[start] >= 0)
+                continue;
+            int depth = 0;
+            callStack[depth] = start;
+            nextEdge[start] = 0;
+            index[start] = lowLink[start] = nextIndex++;
+            componentStack[componentStackSize++] = start;
+            onStack[start] = true;
+            while (depth >= 0) {
+                int v = callStack[depth];
+                if (nextEdge[v] < edges[v].length) {
+                    int w = edges[v][nextEdge[v]++];
+                    if (index[w] < 0) {
+                        index[w] = lowLink[w] = nextIndex++;
+                        componentStack[componentStackSize++] = w;
+                        onStack[w] = true;
+                        nextEdge[w] = 0;
+                        callStack[++depth] = w;
+                    } else if (onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                } else {
+                    if (lowLink[v] == index[v]) {
+                        int size = 0;
+                        while (componentStack[componentStackSize - 1 - size] != v)
+                            ++size;
+                        ++size;
+                        int[] members = new int[size];
+                        for (int m = 0; m < size; ++m) {
+                            int w = componentStack[--componentStackSize];
+                            onStack[w] = false;
+                            members[m] = w;
+                        }
+                        components.add(members);
+                    }
+                    --depth;
+                    if (depth >= 0) {
+                        int parent = callStack[depth];
+                        lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    // paths as rendered in paths(); "" is the root
+    private static String key(String path) {
+        return path.isEmpty() ? "" : Path.newPath(path).render();
+    }
+
+    @Override
+    public List<String> paths() {
+        return paths;
+    }
+
+    @Override
+    public Set<String> substitutions(String path) {
+        Node node = nodes.get(key(path));
+        return node == null ? Collections.<String> emptySet() : Collections.unmodifiableSet(node.substitutions);
+    }
+
+    @Override
+    public Set<String> dependencies(String path) {
+        Node node = nodes.get(key(path));
+        return node == null ? Collections.<String> emptySet() : node.dependencies;
+    }
+
+    @Override
+    public int depth(String path) {
+        Node node = nodes.get(key(path));
+        return node == null ? 0 : node.depth;
+    }
+
+    @Override
+    public List<List<String>> cycles() {
+        return cycles;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + paths + ")";
+    }
+}
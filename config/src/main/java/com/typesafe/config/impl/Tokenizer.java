@@ -5,9 +5,9 @@ package com.typesafe.config.impl;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 
@@ -49,7 +49,18 @@ final class Tokenizer {
      * that after you're done with the returned iterator.
      */
     static Iterator<Token> tokenize(ConfigOrigin origin, Reader input, ConfigSyntax flavor) {
-        return new TokenIterator(origin, input, flavor != ConfigSyntax.JSON);
+        return tokenize(origin, input, flavor, null);
+    }
+
+    /**
+     * Like tokenize(origin, input, flavor) but gives every value token the
+     * same origin, rather than one with its line number, unless
+     * sharedValueOrigin is null. Other tokens, including newlines and
+     * problems, still have line numbers.
+     */
+    static Iterator<Token> tokenize(ConfigOrigin origin, Reader input, ConfigSyntax flavor,
+            ConfigOrigin sharedValueOrigin) {
+        return new TokenIterator(origin, input, flavor != ConfigSyntax.JSON, sharedValueOrigin);
     }
 
     static String render(Iterator<Token> tokens) {
@@ -77,45 +88,45 @@ final class Tokenizer {
                 whitespace.appendCodePoint(c);
             }
 
-            Token check(Token t, ConfigOrigin baseOrigin, int lineNumber) {
+            void add(char[] chars, int offset, int length) {
+                whitespace.append(chars, offset, length);
+            }
+
+            // origin is for the whitespace token, if one is created
+            Token check(Token t, ConfigOrigin origin) {
                 if (isSimpleValue(t)) {
-                    return nextIsASimpleValue(baseOrigin, lineNumber);
+                    return nextIsASimpleValue(origin);
                 } else {
-                    return nextIsNotASimpleValue(baseOrigin, lineNumber);
+                    return nextIsNotASimpleValue(origin);
                 }
             }
 
             // called if the next token is not a simple value;
             // discards any whitespace we were saving between
             // simple values.
-            private Token nextIsNotASimpleValue(ConfigOrigin baseOrigin, int lineNumber) {
+            private Token nextIsNotASimpleValue(ConfigOrigin origin) {
                 lastTokenWasSimpleValue = false;
-                return createWhitespaceTokenFromSaver(baseOrigin, lineNumber);
+                return createWhitespaceTokenFromSaver(origin);
             }
 
             // called if the next token IS a simple value,
             // so creates a whitespace token if the previous
             // token also was.
-            private Token nextIsASimpleValue(ConfigOrigin baseOrigin,
-                    int lineNumber) {
-                Token t = createWhitespaceTokenFromSaver(baseOrigin, lineNumber);
+            private Token nextIsASimpleValue(ConfigOrigin origin) {
+                Token t = createWhitespaceTokenFromSaver(origin);
                 if (!lastTokenWasSimpleValue) {
                     lastTokenWasSimpleValue = true;
                 }
                 return t;
             }
 
-            private Token createWhitespaceTokenFromSaver(ConfigOrigin baseOrigin,
-                                                         int lineNumber) {
+            private Token createWhitespaceTokenFromSaver(ConfigOrigin origin) {
                 if (whitespace.length() > 0) {
                     Token t;
                     if (lastTokenWasSimpleValue) {
-                        t = Tokens.newUnquotedText(
-                            lineOrigin(baseOrigin, lineNumber),
-                            whitespace.toString());
+                        t = Tokens.newUnquotedText(origin, whitespace.toString());
                     } else {
-                        t = Tokens.newIgnoredWhitespace(lineOrigin(baseOrigin, lineNumber),
-                                                        whitespace.toString());
+                        t = Tokens.newIgnoredWhitespace(origin, whitespace.toString());
                     }
                     whitespace.setLength(0); // reset
                     return t;
@@ -126,50 +137,96 @@ final class Tokenizer {
 
         final private SimpleConfigOrigin origin;
         final private Reader input;
-        final private LinkedList<Integer> buffer;
+        // we read the input a window at a time; chars[pos] through
+        // chars[limit - 1] have not been consumed yet. The hot loops
+        // scan runs of ordinary chars directly in the window rather than
+        // going through nextCharRaw() for each one.
+        final private char[] chars;
+        private int pos;
+        private int limit;
+        private boolean eof;
+        // chars that were put back, most recent last; these come before
+        // anything left in the window
+        final private int[] putBacks;
+        private int putBackCount;
+        // reused for the text of each token, which is copied out
+        // with toString() once the token is complete
+        final private StringBuilder text;
+        final private StringBuilder originalText;
         private int lineNumber;
         private ConfigOrigin lineOrigin;
+        // if not null, the origin of every value token, instead of lineOrigin
+        final private ConfigOrigin sharedValueOrigin;
         final private Queue<Token> tokens;
         final private WhitespaceSaver whitespaceSaver;
         final private boolean allowComments;
 
-        TokenIterator(ConfigOrigin origin, Reader input, boolean allowComments) {
+        TokenIterator(ConfigOrigin origin, Reader input, boolean allowComments, ConfigOrigin sharedValueOrigin) {
             this.origin = (SimpleConfigOrigin) origin;
+            this.sharedValueOrigin = sharedValueOrigin;
             this.input = input;
             this.allowComments = allowComments;
-            this.buffer = new LinkedList<Integer>();
+            this.chars = new char[8192];
+            this.pos = 0;
+            this.limit = 0;
+            this.eof = false;
+            this.putBacks = new int[3];
+            this.putBackCount = 0;
+            this.text = new StringBuilder();
+            this.originalText = new StringBuilder();
             lineNumber = 1;
             lineOrigin = this.origin.withLineNumber(lineNumber);
-            tokens = new LinkedList<Token>();
+            tokens = new ArrayDeque<Token>();
             tokens.add(Tokens.START);
             whitespaceSaver = new WhitespaceSaver();
         }
 
+        // refills the window, returning false at end of input
+        private boolean fill() {
+            if (eof)
+                return false;
+            try {
+                int n;
+                do {
+                    n = input.read(chars, 0, chars.length);
+                } while (n == 0);
+                if (n < 0) {
+                    eof = true;
+                    return false;
+                }
+                pos = 0;
+                limit = n;
+                return true;
+            } catch (IOException e) {
+                throw new ConfigException.IO(origin, "read error: "
+                        + e.getMessage(), e);
+            }
+        }
+
+        // true if the next chars come from the window rather than
+        // from putBack(), so the bulk scans below can be used
+        private boolean inWindow() {
+            return putBackCount == 0 && (pos < limit || fill());
+        }
 
         // this should ONLY be called from nextCharSkippingComments
         // or when inside a quoted string, or when parsing a sequence
         // like ${ or +=, everything else should use
         // nextCharSkippingComments().
         private int nextCharRaw() {
-            if (buffer.isEmpty()) {
-                try {
-                    return input.read();
-                } catch (IOException e) {
-                    throw new ConfigException.IO(origin, "read error: "
-                            + e.getMessage(), e);
-                }
-            } else {
-                int c = buffer.pop();
-                return c;
-            }
+            if (putBackCount > 0)
+                return putBacks[--putBackCount];
+            if (pos == limit && !fill())
+                return -1;
+            return chars[pos++];
         }
 
         private void putBack(int c) {
-            if (buffer.size() > 2) {
+            if (putBackCount > 2) {
                 throw new ConfigException.BugOrBroken(
                         "bug: putBack() three times, undesirable look-ahead");
             }
-            buffer.push(c);
+            putBacks[putBackCount++] = c;
         }
 
         static boolean isWhitespace(int c) {
@@ -208,6 +265,14 @@ final class Tokenizer {
         // get next char, skipping non-newline whitespace
         private int nextCharAfterWhitespace(WhitespaceSaver saver) {
             for (;;) {
+                if (inWindow()) {
+                    int start = pos;
+                    while (pos < limit && (chars[pos] == ' ' || chars[pos] == '\t'))
+                        ++pos;
+                    if (pos > start)
+                        saver.add(chars, start, pos - start);
+                }
+
                 int c = nextCharRaw();
 
                 if (c == -1) {
@@ -223,6 +288,11 @@ final class Tokenizer {
             }
         }
 
+        // the origin for a value token on the current line
+        private ConfigOrigin valueOrigin() {
+            return sharedValueOrigin != null ? sharedValueOrigin : lineOrigin;
+        }
+
         private ProblemException problem(String message) {
             return problem("", message, null);
         }
@@ -263,11 +333,6 @@ final class Tokenizer {
             return problem(origin, "", message, null);
         }
 
-        private static ConfigOrigin lineOrigin(ConfigOrigin baseOrigin,
-                int lineNumber) {
-            return ((SimpleConfigOrigin) baseOrigin).withLineNumber(lineNumber);
-        }
-
         // ONE char has always been consumed, either the # or the first /, but
         // not both slashes
         private Token pullComment(int firstChar) {
@@ -279,8 +344,16 @@ final class Tokenizer {
                 doubleSlash = true;
             }
 
-            StringBuilder sb = new StringBuilder();
+            StringBuilder sb = text;
+            sb.setLength(0);
             for (;;) {
+                if (inWindow()) {
+                    int start = pos;
+                    while (pos < limit && chars[pos] != '\n')
+                        ++pos;
+                    sb.append(chars, start, pos - start);
+                }
+
                 int c = nextCharRaw();
                 if (c == -1 || c == '\n') {
                     putBack(c);
@@ -301,14 +374,36 @@ final class Tokenizer {
         // chars that stop an unquoted string
         static final String notInUnquotedText = "$\"{}[]:=,+#`^?!@*&\\";
 
+        // ASCII chars that can't continue an unquoted string, either
+        // because they end it or, for '/', because they might start a
+        // comment; these need the full checks in pullUnquotedText()
+        private static final boolean[] endsUnquotedRun = new boolean[128];
+
+        static {
+            for (int c = 0; c < 128; ++c)
+                endsUnquotedRun[c] = notInUnquotedText.indexOf(c) >= 0 || isWhitespace(c) || c == '/';
+        }
+
+        // true if c certainly continues an unquoted string
+        private static boolean continuesUnquotedText(char c) {
+            if (c < 128)
+                return !endsUnquotedRun[c];
+            else
+                return !isWhitespace(c);
+        }
+
         // The rules here are intended to maximize convenience while
         // avoiding confusion with real valid JSON. Basically anything
         // that parses as JSON is treated the JSON way and otherwise
         // we assume it's a string and let the parser sort it out.
-        private Token pullUnquotedText() {
-            ConfigOrigin origin = lineOrigin;
-            StringBuilder sb = new StringBuilder();
-            int c = nextCharRaw();
+        private Token pullUnquotedText(int firstChar) {
+            ConfigOrigin origin = valueOrigin();
+            StringBuilder sb = text;
+            sb.setLength(0);
+            // only text starting like true, false or null needs checking
+            // one char at a time
+            boolean mayBeKeyword = firstChar == 't' || firstChar == 'f' || firstChar == 'n';
+            int c = firstChar;
             while (true) {
                 if (c == -1) {
                     break;
@@ -337,6 +432,13 @@ final class Tokenizer {
                         return Tokens.newBoolean(origin, false);
                 }
 
+                if ((!mayBeKeyword || sb.length() >= 5) && inWindow()) {
+                    int start = pos;
+                    while (pos < limit && continuesUnquotedText(chars[pos]))
+                        ++pos;
+                    sb.append(chars, start, pos - start);
+                }
+
                 c = nextCharRaw();
             }
 
@@ -365,10 +467,10 @@ final class Tokenizer {
             try {
                 if (containedDecimalOrE) {
                     // force floating point representation
-                    return Tokens.newDouble(lineOrigin, Double.parseDouble(s), s);
+                    return Tokens.newDouble(valueOrigin(), Double.parseDouble(s), s);
                 } else {
                     // this should throw if the integer is too large for Long
-                    return Tokens.newLong(lineOrigin, Long.parseLong(s), s);
+                    return Tokens.newLong(valueOrigin(), Long.parseLong(s), s);
                 }
             } catch (NumberFormatException e) {
                 // not a number after all, see if it's an unquoted string.
@@ -379,7 +481,7 @@ final class Tokenizer {
                 }
                 // no evil chars so we just decide this was a string and
                 // not a number.
-                return Tokens.newUnquotedText(lineOrigin, s);
+                return Tokens.newUnquotedText(valueOrigin(), s);
             }
         }
 
@@ -479,16 +581,27 @@ final class Tokenizer {
 
         private Token pullQuotedString() throws ProblemException {
             // the open quote has already been consumed
-            StringBuilder sb = new StringBuilder();
+            StringBuilder sb = text;
+            sb.setLength(0);
 
             // We need a second string builder to keep track of escape characters.
             // We want to return them exactly as they appeared in the original text,
             // which means we will need a new StringBuilder to escape escape characters
             // so we can also keep the actual value of the string. This is gross.
-            StringBuilder sbOrig = new StringBuilder();
+            StringBuilder sbOrig = originalText;
+            sbOrig.setLength(0);
             sbOrig.appendCodePoint('"');
 
             while (true) {
+                if (inWindow()) {
+                    int start = pos;
+                    while (pos < limit && chars[pos] != '"' && chars[pos] != '\\'
+                            && !ConfigImplUtil.isC0Control(chars[pos]))
+                        ++pos;
+                    sb.append(chars, start, pos - start);
+                    sbOrig.append(chars, start, pos - start);
+                }
+
                 int c = nextCharRaw();
                 if (c == -1)
                     throw problem("End of input but string quote was still open");
@@ -518,7 +631,7 @@ final class Tokenizer {
                 }
 
             }
-            return Tokens.newString(lineOrigin, sb.toString(), sbOrig.toString());
+            return Tokens.newString(valueOrigin(), sb.toString(), sbOrig.toString());
         }
 
         private Token pullPlusEquals() throws ProblemException {
@@ -534,6 +647,7 @@ final class Tokenizer {
         private Token pullSubstitution() throws ProblemException {
             // the initial '$' has already been consumed
             ConfigOrigin origin = lineOrigin;
+            ConfigOrigin substitutionOrigin = valueOrigin();
             int c = nextCharRaw();
             if (c != '{') {
                 throw problem(asString(c), "'$' not followed by {, '" + asString(c)
@@ -565,14 +679,14 @@ final class Tokenizer {
                     throw problem(origin,
                             "Substitution ${ was not closed with a }");
                 } else {
-                    Token whitespace = saver.check(t, origin, lineNumber);
+                    Token whitespace = saver.check(t, valueOrigin());
                     if (whitespace != null)
                         expression.add(whitespace);
                     expression.add(t);
                 }
             } while (true);
 
-            return Tokens.newSubstitution(origin, optional, expression);
+            return Tokens.newSubstitution(substitutionOrigin, optional, expression);
         }
 
         private Token pullNextToken(WhitespaceSaver saver) throws ProblemException {
@@ -633,8 +747,7 @@ final class Tokenizer {
                             throw problem(asString(c), "Reserved character '" + asString(c)
                                     + "' is not allowed outside quotes", true /* suggestQuotes */);
                         } else {
-                            putBack(c);
-                            t = pullUnquotedText();
+                            t = pullUnquotedText(c);
                         }
                     }
                 }
@@ -658,7 +771,7 @@ final class Tokenizer {
 
         private void queueNextToken() throws ProblemException {
             Token t = pullNextToken(whitespaceSaver);
-            Token whitespace = whitespaceSaver.check(t, origin, lineNumber);
+            Token whitespace = whitespaceSaver.check(t, valueOrigin());
             if (whitespace != null)
                 tokens.add(whitespace);
 
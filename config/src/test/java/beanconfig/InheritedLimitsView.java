@@ -0,0 +1,6 @@
+package beanconfig;
+
+// inherits getMaxConnections from both parents, and narrows getName
+public interface InheritedLimitsView extends LimitsView, MoreLimitsView {
+    String getName();
+}
@@ -0,0 +1,7 @@
+package beanconfig;
+
+public interface LimitsView {
+    int getMaxConnections();
+
+    long maxRequests();
+}
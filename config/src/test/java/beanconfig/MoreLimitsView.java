@@ -0,0 +1,7 @@
+package beanconfig;
+
+public interface MoreLimitsView {
+    int getMaxConnections();
+
+    Object getName();
+}
@@ -0,0 +1,7 @@
+package beanconfig;
+
+public interface SamePropertyTwiceView {
+    int getPort();
+
+    int port();
+}
@@ -0,0 +1,28 @@
+package beanconfig;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.typesafe.config.ConfigMemorySize;
+import com.typesafe.config.Optional;
+
+public interface ServerView {
+    String getHost();
+
+    int port();
+
+    boolean isSecure();
+
+    Duration timeout();
+
+    ConfigMemorySize getBufferSize();
+
+    List<String> getAliases();
+
+    @Optional
+    String getDescription();
+
+    LimitsView limits();
+
+    List<LimitsView> getUserLimits();
+}
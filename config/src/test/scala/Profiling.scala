@@ -63,6 +63,28 @@ object FileLoad extends App {
     Util.loop(args, () => task())
 }
 
+object ParseString extends App {
+    // parse without the classpath lookup and file IO of FileLoad,
+    // so this is mostly the tokenizer and parser
+    val text = {
+        val stream = getClass.getClassLoader.getResourceAsStream("test04.conf")
+        try scala.io.Source.fromInputStream(stream, "UTF-8").mkString
+        finally stream.close()
+    }
+
+    def task() {
+        val conf = ConfigFactory.parseString(text)
+        if (!conf.hasPath("akka.version")) {
+            throw new Exception("broken parse")
+        }
+    }
+
+    val ms = Util.time(() => task(), 4000)
+    println("parse string: " + ms + "ms")
+
+    Util.loop(args, () => task())
+}
+
 object Resolve extends App {
     val conf = ConfigFactory.load("test02")
 
@@ -671,6 +671,77 @@ class ConfParserTest extends TestUtils {
         assertComments(Seq(), conf8, "a")
     }
 
+    @Test
+    def originTrackingLevels() {
+        val text = """
+            # before a
+            a = 1 # after a
+            b = [
+                # goes with 0
+                0 ]
+            c { d = ${a} }
+            """
+        val options = ConfigParseOptions.defaults().setOriginDescription("test string")
+        def parse(tracking: ConfigOriginTracking) =
+            ConfigFactory.parseString(text, options.setOriginTracking(tracking))
+        val full = parse(ConfigOriginTracking.FULL)
+        val line = parse(ConfigOriginTracking.LINE)
+        val file = parse(ConfigOriginTracking.FILE)
+        val none = parse(ConfigOriginTracking.NONE)
+
+        for (conf <- Seq(line, file, none)) {
+            assertEquals(full, conf)
+            assertEquals(full.resolve(), conf.resolve())
+        }
+
+        assertComments(Seq(" before a", " after a"), full, "a")
+        assertEquals(3, full.getValue("a").origin.lineNumber)
+
+        // LINE drops comments
+        assertComments(Seq(), line, "a")
+        assertComments(Seq(), line, "b", 0)
+        assertEquals(full.getValue("a").origin.description, line.getValue("a").origin.description)
+
+        // FILE shares the file's origin
+        for (path <- Seq("a", "b", "c")) {
+            assertEquals(-1, file.getValue(path).origin.lineNumber)
+            assertEquals("test string", file.getValue(path).origin.description)
+        }
+        assertSame(file.getValue("a").origin, file.getValue("c").origin)
+        assertSame(file.getValue("a").origin, file.getList("b").get(0).origin)
+
+        // NONE doesn't even keep the file
+        assertSame(none.getValue("a").origin, none.getValue("b").origin)
+        assertFalse(none.getValue("a").origin.description.contains("test string"))
+
+        // parse errors still have line numbers
+        val e = intercept[ConfigException.Parse] {
+            ConfigFactory.parseString("a = 1\nb = }", options.setOriginTracking(ConfigOriginTracking.NONE))
+        }
+        assertEquals(2, e.origin.lineNumber)
+    }
+
+    @Test
+    def equalOriginsAreShared() {
+        val text = "a = 1, b = 2, o = {}, p = {}\nc = 3"
+        val first = parseConfig(text)
+        val second = parseConfig(text)
+
+        // values on the same line share an origin within a parse, unless
+        // there are comments on it, but not with another parse
+        assertSame(first.getValue("a").origin, first.getValue("b").origin)
+        assertSame(first.getValue("o").origin, first.getValue("p").origin)
+        assertNotSame(first.getValue("a").origin, first.getValue("c").origin)
+        assertNotSame(first.getValue("c").origin, second.getValue("c").origin)
+        assertNotSame(parseConfig("d = 4 # comment").getValue("d").origin,
+            parseConfig("d = 4").getValue("d").origin)
+
+        // file origins, and merges of equal origins, are shared by everyone
+        assertSame(SimpleConfigOrigin.newFile("foo.conf"), SimpleConfigOrigin.newFile("foo.conf"))
+        assertSame(SimpleConfigOrigin.mergeOrigins(first.getValue("a").origin, first.getValue("c").origin),
+            SimpleConfigOrigin.mergeOrigins(second.getValue("a").origin, second.getValue("c").origin))
+    }
+
     @Test
     def includeFile() {
         val conf = ConfigFactory.parseString("include file(" + jsonQuotedResourceFile("test01") + ")")
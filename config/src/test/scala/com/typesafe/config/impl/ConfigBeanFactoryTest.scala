@@ -192,6 +192,29 @@ class ConfigBeanFactoryTest extends TestUtils {
         assertEquals("yes", beanConfig.getBazBar)
     }
 
+    @Test
+    def testCreateSameClassFromDifferentKeys() {
+        // what we know about the class is kept between calls, but which
+        // key goes with which property is worked out for each config
+        val hyphens = ConfigBeanFactory.create(parseConfig("foo-bar=a, baz-bar=b"), classOf[PreferCamelNamesConfig])
+        assertEquals("a", hyphens.getFooBar)
+        assertEquals("b", hyphens.getBazBar)
+
+        val camels = ConfigBeanFactory.create(parseConfig("fooBar=c, bazBar=d"), classOf[PreferCamelNamesConfig])
+        assertEquals("c", camels.getFooBar)
+        assertEquals("d", camels.getBazBar)
+
+        val both = ConfigBeanFactory.create(parseConfig("bazBar=e, baz-bar=f, foo-bar=g, fooBar=h"),
+            classOf[PreferCamelNamesConfig])
+        assertEquals("h", both.getFooBar)
+        assertEquals("e", both.getBazBar)
+
+        val e = intercept[ConfigException.ValidationFailed] {
+            ConfigBeanFactory.create(parseConfig("foo-bar=a"), classOf[PreferCamelNamesConfig])
+        }
+        assertTrue("missing bazBar: " + e.getMessage, e.getMessage.contains("bazBar"))
+    }
+
     @Test
     def testValues() {
         val beanConfig = ConfigBeanFactory.create(loadConfig().getConfig("values"), classOf[ValuesConfig])
@@ -279,6 +302,67 @@ class ConfigBeanFactoryTest extends TestUtils {
         assertTrue("only one missing value error", e.getMessage.contains("No setting"))
     }
 
+    @Test
+    def testCreateView() {
+        val config = parseConfig("""host=h, port=80, secure=true, timeout=2s, buffer-size=1K, aliases=[a, b],
+            limits { max-connections=5, maxRequests=7 }, userLimits=[{ maxConnections=1, maxRequests=2 }]""").resolve()
+        val view = ConfigViews.create(config, classOf[ServerView])
+        assertEquals("h", view.getHost)
+        assertEquals(80, view.port)
+        assertTrue(view.isSecure)
+        assertEquals(Duration.ofSeconds(2), view.timeout)
+        assertEquals(ConfigMemorySize.ofBytes(1024), view.getBufferSize)
+        assertEquals(List("a", "b").asJava, view.getAliases)
+        assertNull(view.getDescription)
+        assertEquals(5, view.limits.getMaxConnections)
+        assertEquals(7L, view.limits.maxRequests)
+        assertEquals(1, view.getUserLimits.size)
+        assertEquals(2L, view.getUserLimits.get(0).maxRequests)
+
+        // the getters return what was decoded when the view was made
+        assertSame(view.timeout, view.timeout)
+        intercept[UnsupportedOperationException] {
+            view.getAliases.add("c")
+        }
+
+        val again = ConfigViews.create(config, classOf[ServerView])
+        assertEquals(view, again)
+        assertEquals(view.hashCode, again.hashCode)
+        assertEquals("LimitsView(maxConnections=5, maxRequests=7)", view.limits.toString)
+    }
+
+    @Test
+    def testViewValidation() {
+        val e = intercept[ConfigException.ValidationFailed] {
+            ConfigViews.create(parseConfig("host=h, port=true"), classOf[ServerView])
+        }
+        assertTrue("wrong type for port: " + e.getMessage, e.getMessage.contains("port"))
+        assertTrue("missing limits: " + e.getMessage, e.getMessage.contains("limits"))
+
+        intercept[ConfigException.BadBean] {
+            ConfigViews.create(parseConfig("host=h"), classOf[StringsConfig])
+        }
+        intercept[ConfigException.NotResolved] {
+            ConfigViews.create(parseConfig("host=${x}"), classOf[ServerView])
+        }
+    }
+
+    @Test
+    def testViewWithInheritedGetters() {
+        val config = parseConfig("maxConnections=5, maxRequests=7, name=n").resolve()
+        val view = ConfigViews.create(config, classOf[InheritedLimitsView])
+        assertEquals(5, view.getMaxConnections)
+        assertEquals(5, (view: MoreLimitsView).getMaxConnections)
+        assertEquals("n", view.getName)
+        assertEquals("n", (view: MoreLimitsView).getName)
+        assertEquals("InheritedLimitsView(maxConnections=5, maxRequests=7, name=n)", view.toString)
+
+        val e = intercept[ConfigException.BadBean] {
+            ConfigViews.create(parseConfig("port=1"), classOf[SamePropertyTwiceView])
+        }
+        assertTrue("same property twice: " + e.getMessage, e.getMessage.contains("same property port"))
+    }
+
     private def loadConfig(): Config = {
         val configIs: InputStream = this.getClass().getClassLoader().getResourceAsStream("beanconfig/beanconfig01.conf")
         try {
@@ -8,6 +8,7 @@ import org.junit._
 import com.typesafe.config.ConfigValue
 import com.typesafe.config.ConfigException
 import com.typesafe.config.ConfigResolveOptions
+import com.typesafe.config.ConfigResolveSession
 import com.typesafe.config.Config
 import com.typesafe.config.ConfigFactory
 import scala.collection.JavaConverters._
@@ -267,6 +268,18 @@ class ConfigSubstitutionTest extends TestUtils {
         assertNull("Cycle with optional links in it resolves to null if it's a cycle", v)
     }
 
+    @Test
+    def cycleTraceLeavesOutAbandonedCycles() {
+        // an optional cycle which was given up on shouldn't show up in the
+        // trace of another cycle found later
+        val obj = parseObject("""x : ${?y}, y : ${?x}, a : ${b}, b : ${a}""")
+        val e = intercept[ConfigException.UnresolvedSubstitution] {
+            resolve(obj)
+        }
+        assertTrue("Wrong exception: " + e.getMessage, e.getMessage().contains("cycle"))
+        assertFalse("Wrong exception: " + e.getMessage, e.getMessage().contains("${?"))
+    }
+
     @Test
     def throwOnTwoKeyCycle() {
         val obj = parseObject("""a:${b},b:${a}""")
@@ -1277,4 +1290,154 @@ class ConfigSubstitutionTest extends TestUtils {
         val resolved2 = resolve(obj2)
         assertEquals(parseObject("{ x : 42, y : 42 }"), resolved2.getConfig("a").root)
     }
+
+    private val layeredBase = """
+        defaults { timeout = 30s, host = example.com }
+        a { timeout = ${defaults.timeout}, tags = [x], tags += a }
+        b { host = ${defaults.host}, url = "http://"${b.host} }
+        """
+
+    private def withSession() =
+        ConfigResolveOptions.defaults().setResolveSession(ConfigResolveSession.create())
+
+    @Test
+    def resolveAgainReusesEarlierResolution() {
+        val conf = parseConfig(layeredBase)
+        val options = withSession()
+        val resolved = conf.resolve(options)
+        val again = conf.resolve(options)
+        assertEquals(resolved, again)
+        assertTrue("whole resolution was reused", resolved.root eq again.root)
+
+        options.getResolveSession().clear()
+        assertTrue("cleared session starts over", resolved.root ne conf.resolve(options).root)
+    }
+
+    @Test
+    def resolveWithoutSessionStartsOver() {
+        val conf = parseConfig(layeredBase)
+        val resolved = conf.resolve()
+        val again = conf.resolve()
+        assertEquals(resolved, again)
+        assertTrue("nothing was remembered", resolved.root ne again.root)
+        assertTrue("nothing was remembered", resolved.getValue("b") ne again.getValue("b"))
+    }
+
+    @Test
+    def resolveWithOverridesOnlyRedoesAffectedValues() {
+        val base = parseConfig(layeredBase)
+        val options = withSession()
+        val resolvedBase = base.resolve(options)
+
+        val overrides = parseConfig("defaults.timeout = 10s")
+        val merged = overrides.withFallback(base).resolve(options)
+        assertEquals(overrides.withFallback(parseConfig(layeredBase)).resolve(), merged)
+        assertEquals("10s", merged.getString("a.timeout"))
+        // b doesn't depend on defaults.timeout, and neither does the
+        // self-referential a.tags
+        assertTrue("b was reused", resolvedBase.getValue("b") eq merged.getValue("b"))
+        assertTrue("a.tags was reused", resolvedBase.getValue("a.tags") eq merged.getValue("a.tags"))
+
+        val withValue = base.withValue("defaults.host", intValue(42)).resolve(options)
+        assertEquals("http://42", withValue.getString("b.url"))
+        assertEquals("30s", withValue.getString("a.timeout"))
+        assertTrue("a was reused", resolvedBase.getValue("a") eq withValue.getValue("a"))
+    }
+
+    @Test
+    def resolveWithOverridesOfSelfReferentialValue() {
+        val base = parseConfig(layeredBase)
+        val options = withSession()
+        base.resolve(options)
+        val merged = parseConfig("a.tags += b, defaults.host = ${b.url}x").withFallback(base)
+        val fresh = parseConfig("a.tags += b, defaults.host = ${b.url}x").withFallback(parseConfig(layeredBase))
+        val e1 = intercept[ConfigException.UnresolvedSubstitution] { merged.resolve(options) }
+        val e2 = intercept[ConfigException.UnresolvedSubstitution] { fresh.resolve() }
+        assertEquals(e2.getMessage, e1.getMessage)
+
+        val tags = parseConfig("a.tags += b").withFallback(base).resolve(options)
+        assertEquals(Seq("x", "a", "b"), tags.getStringList("a.tags").asScala)
+    }
+
+    private val tenants = """
+        defaults { timeout = 30s }
+        a { name = a, timeout = ${defaults.timeout}, tags = [${a.name}, x], tags += y }
+        b { name = b, url = "http://"${b.name}, nested { url = ${b.url}"/nested" } }
+        c = ${?missing} 42
+        d { self = [1], self = ${d.self} [2] }
+        """
+
+    @Test
+    def parallelResolveGivesSameResult() {
+        val conf = parseConfig(tenants)
+        val parallel = conf.resolve(ConfigResolveOptions.defaults().setParallelResolution(true))
+        assertEquals(conf.resolve(), parallel)
+        assertEquals("http://b/nested", parallel.getString("b.nested.url"))
+        assertEquals(Seq(1, 2), parallel.getIntList("d.self").asScala)
+    }
+
+    @Test
+    def parallelResolveThrowsFirstFailure() {
+        // e and f fail independently; whichever the sequential resolve
+        // gets to first is the one both should report
+        val conf = parseConfig(tenants + "e = ${nope.e}, f = ${nope.f}")
+        val sequential = intercept[ConfigException.UnresolvedSubstitution] {
+            conf.resolve()
+        }
+        val parallel = intercept[ConfigException.UnresolvedSubstitution] {
+            conf.resolve(ConfigResolveOptions.defaults().setParallelResolution(true))
+        }
+        assertEquals(sequential.getMessage, parallel.getMessage)
+    }
+
+    @Test
+    def substitutionGraphOrdersDependenciesFirst() {
+        val graph = parseConfig("a = ${b}, b = ${c.d}, c { d = ${e}, f = 1 }, e = 1, g = ${c} { h = 2 }").substitutionGraph()
+        assertEquals(Seq("c.d", "b", "a", "g"), graph.paths().asScala)
+        assertEquals(Set("c.d"), graph.substitutions("b").asScala)
+        assertEquals(Set("c.d"), graph.dependencies("g").asScala)
+        assertEquals(3, graph.depth("a"))
+        assertEquals(0, graph.depth("e"))
+        assertEquals(Seq(), graph.cycles().asScala)
+    }
+
+    @Test
+    def substitutionGraphFindsCycles() {
+        val graph = parseConfig("x = ${y}, y = ${x}, z = ${?x}, a { b = ${a} }").substitutionGraph()
+        assertEquals(Seq(Seq("a.b"), Seq("x", "y")), graph.cycles().asScala.map(_.asScala))
+        assertEquals(Set("x"), graph.dependencies("z").asScala)
+        assertEquals(3, graph.depth("z"))
+    }
+
+    @Test
+    def substitutionGraphSkipsSelfReferences() {
+        val graph = parseConfig("a = [1], a = ${a} [2], foo { b = 1 }, foo = ${foo.b}").substitutionGraph()
+        assertEquals(Seq("a", "foo"), graph.paths().asScala)
+        assertEquals(Set(), graph.dependencies("a").asScala)
+        assertEquals(Seq(), graph.cycles().asScala)
+        assertEquals(Seq(), parseConfig("a = ${b}, b = 1").resolve().substitutionGraph().paths().asScala)
+    }
+
+    @Test
+    def substitutionGraphOfMergedRoot() {
+        val conf = parseConfig("defaults { a = 1 }, x = 2, item1 = ${defaults} { c = ${x} }, item1.b = 3")
+        val item1 = conf.getConfig("item1")
+        assertTrue(item1.root.isInstanceOf[ConfigDelayedMergeObject])
+        val graph = item1.substitutionGraph()
+        assertEquals(Seq(""), graph.paths().asScala)
+        assertEquals(Set("defaults", "x"), graph.substitutions("").asScala)
+        assertEquals(Set(), graph.dependencies("").asScala)
+        assertEquals(1, graph.depth(""))
+        assertEquals(Seq(), graph.cycles().asScala)
+    }
+
+    @Test
+    def resolvingPlainDataReturnsSameConfig() {
+        val conf = parseConfig("a = 1, b { c = [1, 2], d = \"x\" }")
+        assertTrue(conf.resolve() eq conf)
+        assertTrue(conf.resolveWith(parseConfig("e = ${a}")) eq conf)
+        assertTrue(conf.resolve(ConfigResolveOptions.defaults().setParallelResolution(true)) eq conf)
+        val merged = parseConfig("b.c = [3]").withFallback(conf)
+        assertTrue(merged.resolve() eq merged)
+    }
 }
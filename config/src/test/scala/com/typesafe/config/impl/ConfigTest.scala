@@ -5,6 +5,7 @@ package com.typesafe.config.impl
 
 import java.math.BigInteger
 import java.time.temporal.{ ChronoUnit, TemporalUnit }
+import java.time.{ Duration, Period }
 
 import org.junit.Assert._
 import org.junit._
@@ -1391,4 +1392,208 @@ class ConfigTest extends TestUtils {
         assertTrue(e.getMessage.contains("${a.b.c}"))
     }
 
+    @Test
+    def indexedConfigBehavesLikeTree() {
+        val plain = ConfigFactory.load("test01")
+        val indexed = plain.toIndexed()
+
+        assertSame(indexed, indexed.toIndexed())
+        assertEquals(plain, indexed)
+
+        def outcome(block: => Any): String = {
+            try {
+                val v = block
+                v.toString + (v match {
+                    case cv: ConfigValue => " " + cv.origin.description
+                    case _ => ""
+                })
+            } catch {
+                case e: ConfigException => e.getClass.getName + ": " + e.getMessage
+            }
+        }
+
+        val paths = plain.entrySet.asScala.map(_.getKey).toSeq ++
+            Seq("ints", "nulls.null", "nulls.null.foo", "ints.fortyTwo.foo", "nonexistent.path", "ints.nope")
+        for (p <- paths) {
+            assertEquals(p, outcome(plain.getValue(p)), outcome(indexed.getValue(p)))
+            assertEquals(p, outcome(plain.getInt(p)), outcome(indexed.getInt(p)))
+            assertEquals(p, outcome(plain.getString(p)), outcome(indexed.getString(p)))
+            assertEquals(p, outcome(plain.getIsNull(p)), outcome(indexed.getIsNull(p)))
+            assertEquals(p, outcome(plain.getConfig(p)), outcome(indexed.getConfig(p)))
+            assertEquals(p, plain.hasPath(p), indexed.hasPath(p))
+            assertEquals(p, plain.hasPathOrNull(p), indexed.hasPathOrNull(p))
+        }
+
+        intercept[ConfigException.NotResolved] {
+            parseConfig("a=${b}, b=1").toIndexed()
+        }
+    }
+
+    @Test
+    def diffFindsChangedPaths() {
+        val before = parseConfig("a { b = 1, c = [1, 2], d { e = x } }, f = null, g = 1, h { i = 1 }, q = y").resolve()
+        val after = parseConfig("a { b = 2, c = [1, 2], d { e = x, n = 3 } }, f = 5, h = 7, q { r = 1, s = null }").resolve()
+        val diff = before.diff(after)
+
+        assertEquals(Set("a.d.n", "f", "h", "q.r"), diff.added.asScala)
+        assertEquals(Set("g", "h.i", "q"), diff.removed.asScala)
+        assertEquals(Set("a.b"), diff.changed.asScala)
+        assertEquals(intValue(1), diff.before("a.b"))
+        assertEquals(intValue(2), diff.after("a.b"))
+        assertNull(diff.after("g"))
+        assertFalse(diff.isEmpty)
+
+        // same as comparing entrySet
+        val beforeMap = before.entrySet.asScala.map(e => e.getKey -> e.getValue).toMap
+        val afterMap = after.entrySet.asScala.map(e => e.getKey -> e.getValue).toMap
+        val expected = (beforeMap.keySet ++ afterMap.keySet).filter(k => beforeMap.get(k) != afterMap.get(k))
+        assertEquals(expected, diff.paths.asScala)
+
+        for (p <- Seq("a", "a.b", "a.d", "h", "h.i", "q.r", "g"))
+            assertTrue(p, diff.affects(p))
+        for (p <- Seq("a.c", "a.d.e", "a.b.z", "nonexistent"))
+            assertFalse(p, diff.affects(p))
+
+        assertTrue(before.diff(before).isEmpty)
+        assertTrue(before.diff(parseConfig(before.root.render)).isEmpty)
+        intercept[ConfigException.NotResolved] {
+            parseConfig("a=${b}, b=1").diff(before)
+        }
+    }
+
+    @Test
+    def diffSkipsSharedSubtrees() {
+        val big = parseConfig((0 until 1000).map(i => s"s$i { k = $i, l = [$i] }").mkString("\n")).resolve()
+        val changed = big.withValue("s5.k", intValue(99))
+        val diff = big.diff(changed)
+        assertEquals(Set("s5.k"), diff.paths.asScala)
+        assertTrue(diff.affects("s5"))
+        assertFalse(diff.affects("s6"))
+        assertEquals(Set("s5.k"), changed.diff(big).paths.asScala)
+    }
+
+    @Test
+    def editsOfLargeObjectsShareUnchangedValues() {
+        val big = parseConfig((0 until 100).map(i => s"s$i { k = $i, r = $${s0.k} }").mkString("\n"))
+        var edited = big
+        for (i <- 0 until 100 by 2)
+            edited = edited.withValue(s"s$i.k", intValue(i + 1))
+        for (i <- 1 until 100 by 2)
+            edited = edited.withoutPath(s"s$i")
+        edited = edited.withoutPath("s0.r")
+
+        val expected = parseConfig((0 until 100 by 2).map(i =>
+            if (i == 0) "s0 { k = 1 }" else s"s$i { k = ${i + 1}, r = $${s0.k} }").mkString("\n"))
+        assertEquals(expected, edited)
+        assertEquals(expected.resolve(), edited.resolve())
+        assertFalse(edited.isResolved)
+        assertTrue(edited.withoutPath("s2.r").getConfig("s2").isResolved)
+        assertSame(big.getValue("s3"), big.withValue("s4.k", intValue(7)).getValue("s3"))
+        assertSame(big.root, big.withValue("s4.k", big.getValue("s4.k")).root)
+    }
+
+    @Test
+    def builderMatchesChainedEdits() {
+        val start = parseConfig("a { b = 1, c { d = 2 } }, b = 3, c = ${a.b}, e = null")
+        val edits: Seq[Either[String, (String, ConfigValue)]] = Seq(
+            Right("a.b" -> intValue(10)),
+            Right("a.c.x.y" -> intValue(11)),
+            Left("a.c.d"),
+            Right("b.q" -> intValue(12)),
+            Right("c" -> stringValue("replaced")),
+            Left("nonexistent.path"),
+            Left("e"),
+            Right("f.g.h" -> intValue(13)),
+            Left("f.g.h"),
+            Right("f.i" -> intValue(14)))
+
+        val builder = ConfigBuilder.from(start)
+        var chained = start
+        for (edit <- edits) edit match {
+            case Left(path) =>
+                builder.remove(path)
+                chained = chained.withoutPath(path)
+            case Right((path, value)) =>
+                builder.set(path, value)
+                chained = chained.withValue(path, value)
+        }
+        val built = builder.build()
+
+        assertEquals(chained, built)
+        // including the origins of the objects created along the way
+        assertEquals(chained.root.render(), built.root.render())
+        assertTrue(built.isResolved)
+        assertEquals(parseConfig("a { b = 1, c { d = 2 } }, b = 3, c = ${a.b}, e = null"), start)
+
+        // unchanged objects are shared
+        assertSame(start.root, ConfigBuilder.from(start).build().root)
+        val onlyB = ConfigBuilder.from(start).set("b", intValue(4)).build()
+        assertSame(start.getValue("a"), onlyB.getValue("a"))
+
+        // edits after build() don't change what was built
+        val again = ConfigBuilder.from(start)
+        val first = again.set("x", intValue(1)).build()
+        again.set("x", intValue(2))
+        assertEquals(1, first.getInt("x"))
+        assertEquals(2, again.build().getInt("x"))
+    }
+
+    @Test
+    def compactConfigBehavesTheSame() {
+        val conf = parseConfig("""
+            # about a
+            a { b = 1, c = "hello", d = [1, 2, { e = ${x} }] }
+            f { b = 2, g = null }, x = true
+            """).resolve()
+        val compact = conf.compact()
+
+        assertEquals(conf, compact)
+        assertEquals(conf.hashCode, compact.hashCode)
+        assertEquals(conf.root.render(), compact.root.render())
+        assertEquals(conf.entrySet, compact.entrySet)
+        assertEquals(1, compact.getInt("a.b"))
+        assertEquals(conf.getList("a.d"), compact.getList("a.d"))
+        assertTrue(compact.getIsNull("f.g"))
+        assertEquals(Seq(" about a"), compact.getValue("a").origin.comments.asScala)
+        assertSame(compact, compact.compact())
+
+        // values on one line share an origin
+        assertSame(compact.getValue("f.b").origin, compact.getValue("x").origin)
+
+        // edits keep the compact representation of what they don't change
+        val edited = compact.withValue("f.b", intValue(3))
+        assertEquals(conf.withValue("f.b", intValue(3)), edited)
+        assertSame(compact.getValue("a"), edited.getValue("a"))
+
+        intercept[ConfigException.NotResolved] {
+            parseConfig("a = ${b}, b = 1").compact()
+        }
+    }
+
+    @Test
+    def decodedDurationsAndSizesAreReused() {
+        val conf = parseConfig("t = 30s, u = ${t}, s = 512M, p = 3 months, bad = 5 parsecs").resolve()
+
+        assertEquals(Duration.ofSeconds(30), conf.getDuration("t"))
+        // u and t are the same value, decoded once
+        assertSame(conf.getDuration("t"), conf.getDuration("u"))
+        assertEquals(30000L, conf.getDuration("u", TimeUnit.MILLISECONDS))
+        assertEquals(512L * 1024 * 1024, conf.getBytes("s").longValue)
+        assertEquals(conf.getMemorySize("s"), conf.getMemorySize("s"))
+        assertSame(conf.getPeriod("p"), conf.getPeriod("p"))
+
+        // the same string can be decoded as different things
+        val d = parseConfig("d = 30d")
+        assertEquals(Period.ofDays(30), d.getPeriod("d"))
+        assertEquals(Duration.ofDays(30), d.getDuration("d"))
+        assertEquals(Duration.ofDays(30), d.getTemporal("d"))
+
+        // errors aren't cached
+        for (i <- 1 to 2) {
+            val e = intercept[ConfigException.BadValue] {
+                conf.getDuration("bad")
+            }
+            assertTrue(e.getMessage.contains("parsecs"))
+        }
+    }
 }
@@ -130,4 +130,26 @@ class PathTest extends TestUtils {
             Path.newPath("..")
         }
     }
+
+    @Test
+    def parsedPathsAreCached() {
+        assertTrue("path cache should be on by default", PathParser.pathCacheSize() > 0)
+        PathParser.clearPathCache()
+
+        val hits = PathParser.pathCacheHits()
+        val misses = PathParser.pathCacheMisses()
+        val first = Path.newPath("cache.me.\"if you can\"")
+        assertEquals(misses + 1, PathParser.pathCacheMisses())
+        val second = Path.newPath("cache.me.\"if you can\"")
+        assertEquals(hits + 1, PathParser.pathCacheHits())
+        assertSame(first, second)
+        assertEquals(path("cache", "me", "if you can"), second)
+
+        // invalid paths still throw every time
+        for (i <- 1 to 2) {
+            intercept[ConfigException.BadPath] {
+                Path.newPath("cache..me")
+            }
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package com.typesafe.config.impl
+
+import org.junit.Assert._
+import org.junit.Test
+
+class PersistentMapTest extends TestUtils {
+    @Test
+    def plusDoesNotChangeOriginal(): Unit = {
+        val map = PersistentMap.empty[String, String]()
+        val copy = map.plus("key", "value")
+
+        assertNull(map.get("key"))
+        assertEquals("value", copy.get("key"))
+        assertEquals(0, map.size)
+        assertEquals(1, copy.size)
+    }
+
+    @Test
+    def minusDoesNotChangeOriginal(): Unit = {
+        val map = PersistentMap.empty[String, String]().plus("a", "1").plus("b", "2")
+        val smaller = map.minus("a")
+
+        assertEquals("1", map.get("a"))
+        assertNull(smaller.get("a"))
+        assertEquals("2", smaller.get("b"))
+        assertEquals(1, smaller.size)
+        assertSame(smaller, smaller.minus("a"))
+        assertTrue(smaller.minus("b").isEmpty)
+    }
+
+    @Test
+    def putSameHash(): Unit = {
+        // "Aa" and "BB" have the same hash code
+        assertEquals("Aa".hashCode, "BB".hashCode)
+        val map = PersistentMap.empty[String, String]().plus("Aa", "1").plus("BB", "2").plus("AaAa", "3")
+
+        assertEquals("1", map.get("Aa"))
+        assertEquals("2", map.get("BB"))
+        assertEquals("3", map.get("AaAa"))
+        assertEquals("2", map.minus("Aa").get("BB"))
+        assertNull(map.minus("Aa").get("Aa"))
+        assertEquals(3, map.size)
+    }
+
+    @Test
+    def behavesLikeHashMap(): Unit = {
+        val random = new java.util.Random(42)
+        val keys = (0 until 200).map(i => if (i % 2 == 0) s"Aa$i" else s"BB${i - 1}")
+        var map = PersistentMap.empty[String, Integer]()
+        val expected = new java.util.HashMap[String, Integer]()
+
+        for (i <- 0 until 5000) {
+            val key = keys(random.nextInt(keys.size))
+            if (random.nextInt(3) == 0) {
+                map = map.minus(key)
+                expected.remove(key)
+            } else {
+                map = map.plus(key, i)
+                expected.put(key, i)
+            }
+            if (i % 100 == 0) {
+                assertEquals(expected, map)
+                assertEquals(map, expected)
+                assertEquals(expected.hashCode, map.hashCode)
+                assertEquals(expected.size, map.size)
+                assertEquals(expected.size, map.entrySet.size)
+            }
+        }
+    }
+
+    @Test
+    def copyOfIsEqual(): Unit = {
+        val hashMap = new java.util.HashMap[String, String]()
+        for (i <- 1 to 1000)
+            hashMap.put(s"key$i", s"value$i")
+        val map = PersistentMap.copyOf(hashMap)
+
+        assertEquals(hashMap, map)
+        assertSame(map, PersistentMap.copyOf(map))
+    }
+
+    @Test
+    def cannotBeModified(): Unit = {
+        val map = PersistentMap.empty[String, String]().plus("a", "1")
+        intercept[UnsupportedOperationException] {
+            map.put("b", "2")
+        }
+        intercept[UnsupportedOperationException] {
+            map.entrySet.iterator.next.setValue("2")
+        }
+    }
+}
@@ -14,6 +14,7 @@ import equiv03.SomethingInEquiv03
 import java.io.StringReader
 import java.net.URL
 import java.time.Duration
+import java.util.concurrent.TimeUnit
 
 class PublicApiTest extends TestUtils {
 
@@ -598,6 +599,83 @@ class PublicApiTest extends TestUtils {
         }
     }
 
+    @Test
+    def compiledPathLookups() {
+        val conf = ConfigFactory.parseString("""a { b { int = 42, str = "foo", dur = 10s, mem = 1k, nul = null, "q.k" = 1 } }""")
+        val int = ConfigUtil.compilePath("a.b.int")
+
+        assertEquals("a.b.int", int.expression)
+        assertEquals(Seq("a", "b", "int"), int.keys.asScala)
+        assertEquals(Seq("a", "b", "q.k"), ConfigUtil.compilePath("a.b.\"q.k\"").keys.asScala)
+        assertEquals(ConfigUtil.compilePath("a.b.int"), int)
+
+        assertEquals(42, conf.getInt(int))
+        assertEquals(42L, conf.getLong(int))
+        assertEquals("42", conf.getString(int))
+        assertEquals("foo", conf.getString(ConfigUtil.compilePath("a.b.str")))
+        assertEquals(Duration.ofSeconds(10), conf.getDuration(ConfigUtil.compilePath("a.b.dur")))
+        assertEquals(1024L, conf.getBytes(ConfigUtil.compilePath("a.b.mem")))
+        assertEquals(1, conf.getInt(ConfigUtil.compilePath("a.b.\"q.k\"")))
+        assertTrue(conf.hasPath(int))
+        assertFalse(conf.hasPath(ConfigUtil.compilePath("a.b.nul")))
+        assertTrue(conf.hasPathOrNull(ConfigUtil.compilePath("a.b.nul")))
+        assertTrue(conf.getIsNull(ConfigUtil.compilePath("a.b.nul")))
+
+        // errors should look just like the ones for a string path
+        val missing = intercept[ConfigException.Missing] {
+            conf.getInt(ConfigUtil.compilePath("a.c.int"))
+        }
+        assertEquals(intercept[ConfigException.Missing] { conf.getInt("a.c.int") }.getMessage, missing.getMessage)
+        val wrongType = intercept[ConfigException.WrongType] {
+            conf.getInt(ConfigUtil.compilePath("a.b.int.x"))
+        }
+        assertEquals(intercept[ConfigException.WrongType] { conf.getInt("a.b.int.x") }.getMessage, wrongType.getMessage)
+        val nul = intercept[ConfigException.Null] {
+            conf.getInt(ConfigUtil.compilePath("a.b.nul"))
+        }
+        assertEquals(intercept[ConfigException.Null] { conf.getInt("a.b.nul") }.getMessage, nul.getMessage)
+
+        intercept[ConfigException.BadPath] {
+            ConfigUtil.compilePath("a..b")
+        }
+    }
+
+    @Test
+    def compiledPathListLookups() {
+        val conf = ConfigFactory.parseString("""l { ints = [1, 2], bools = [true, false], strs = ["a", "b"], durs = [1s, 2s], mems = [1k, 2k], objs = [{ x = 1 }], mixed = [1, "b"], time = 3d, dur = 5s, big = [3000000000] }""")
+        def p(key: String) = ConfigUtil.compilePath("l." + key)
+
+        assertEquals(conf.getIntList("l.ints"), conf.getIntList(p("ints")))
+        assertEquals(conf.getLongList("l.ints"), conf.getLongList(p("ints")))
+        assertEquals(conf.getDoubleList("l.ints"), conf.getDoubleList(p("ints")))
+        assertEquals(conf.getNumberList("l.ints"), conf.getNumberList(p("ints")))
+        assertEquals(conf.getBooleanList("l.bools"), conf.getBooleanList(p("bools")))
+        assertEquals(conf.getStringList("l.strs"), conf.getStringList(p("strs")))
+        assertEquals(conf.getObjectList("l.objs"), conf.getObjectList(p("objs")))
+        assertEquals(conf.getConfigList("l.objs"), conf.getConfigList(p("objs")))
+        assertEquals(conf.getAnyRefList("l.mixed"), conf.getAnyRefList(p("mixed")))
+        assertEquals(conf.getBytesList("l.mems"), conf.getBytesList(p("mems")))
+        assertEquals(conf.getMemorySizeList("l.mems"), conf.getMemorySizeList(p("mems")))
+        assertEquals(conf.getDurationList("l.durs"), conf.getDurationList(p("durs")))
+        assertEquals(conf.getDurationList("l.durs", TimeUnit.MILLISECONDS), conf.getDurationList(p("durs"), TimeUnit.MILLISECONDS))
+        assertEquals(conf.getTemporal("l.dur"), conf.getTemporal(p("dur")))
+        assertEquals(conf.getTemporal("l.time"), conf.getTemporal(p("time")))
+
+        // errors should look just like the ones for a string path
+        val wrongType = intercept[ConfigException.WrongType] {
+            conf.getIntList(p("strs"))
+        }
+        assertEquals(intercept[ConfigException.WrongType] { conf.getIntList("l.strs") }.getMessage, wrongType.getMessage)
+        val outOfRange = intercept[ConfigException.WrongType] {
+            conf.getIntList(p("big"))
+        }
+        assertEquals(intercept[ConfigException.WrongType] { conf.getIntList("l.big") }.getMessage, outOfRange.getMessage)
+        val badEnum = intercept[ConfigException.BadValue] {
+            conf.getEnumList(classOf[TimeUnit], p("strs"))
+        }
+        assertEquals(intercept[ConfigException.BadValue] { conf.getEnumList(classOf[TimeUnit], "l.strs") }.getMessage, badEnum.getMessage)
+    }
+
     @Test
     def quoteString() {
         // the actual quote logic should be tested OK in the non-public-API tests,
@@ -632,6 +710,283 @@ class PublicApiTest extends TestUtils {
         assertFalse("no b", configPlain.hasPath("b"))
     }
 
+    @Test
+    def parallelResourceParsingMatchesSequential() {
+        // a loader where several jars provide the same resource name
+        def loaderProviding(files: String*) = new ClassLoader(this.getClass().getClassLoader()) {
+            override def findResources(name: String) = {
+                import scala.collection.JavaConverters._
+                if (name == "multi.conf") files.map(resourceFile(_).toURI.toURL).iterator.asJavaEnumeration
+                else super.findResources(name)
+            }
+        }
+        val options = ConfigParseOptions.defaults()
+            .setClassLoader(loaderProviding("test01.conf", "test03.conf", "a_1.conf", "b_2.conf", "test04.conf"))
+        assertFalse(options.getParallelResourceParsing)
+
+        val sequential = ConfigFactory.parseResources("multi.conf", options)
+        val parallel = ConfigFactory.parseResources("multi.conf", options.setParallelResourceParsing(true))
+        assertEquals(sequential, parallel)
+        // same merge order means the same origins too
+        assertEquals(sequential.root.render(), parallel.root.render())
+        assertEquals(1, parallel.getInt("a"))
+        assertEquals(2, parallel.getInt("b"))
+
+        // with more than one broken resource, we throw for the first one
+        val brokenOptions = ConfigParseOptions.defaults().setSyntax(ConfigSyntax.JSON)
+            .setClassLoader(loaderProviding("test01.json", "test01.conf", "test03.conf"))
+        val sequentialError = intercept[ConfigException.Parse] {
+            ConfigFactory.parseResources("multi.conf", brokenOptions)
+        }
+        val parallelError = intercept[ConfigException.Parse] {
+            ConfigFactory.parseResources("multi.conf", brokenOptions.setParallelResourceParsing(true))
+        }
+        assertEquals(sequentialError.getMessage, parallelError.getMessage)
+    }
+
+    @Test
+    def snapshotRoundTrip() {
+        withScratchDirectory("snapshotRoundTrip") { dir =>
+            val snapshot = new File(dir, "test01.snapshot")
+            // unresolved, with includes, concatenations and comments
+            val conf = ConfigFactory.parseFile(resourceFile("test01.conf"))
+            ConfigSnapshot.write(conf, snapshot)
+
+            val copy = ConfigSnapshot.read(snapshot)
+            assertEquals(conf, copy)
+            assertEquals(conf.root.render(), copy.root.render())
+            assertEquals(conf.resolve(), copy.resolve())
+            assertTrue(ConfigSnapshot.isCurrent(snapshot, null))
+
+            // the inputs are the files values came from, including includes
+            val included = new File(dir, "included.conf")
+            writeFile(included, "x = 1\n")
+            val withInclude = new File(dir, "main.conf")
+            writeFile(withInclude, "include \"included.conf\"\ny = ${x}\n")
+            ConfigSnapshot.write(ConfigFactory.parseFile(withInclude), snapshot)
+            assertTrue(ConfigSnapshot.isCurrent(snapshot, null))
+            writeFile(included, "x = 2\n")
+            assertFalse(ConfigSnapshot.isCurrent(snapshot, null))
+
+            writeFile(snapshot, "not a snapshot")
+            intercept[ConfigException.IO] {
+                ConfigSnapshot.read(snapshot)
+            }
+        }
+    }
+
+    @Test
+    def snapshotFromOtherFormatVersionIsNotCurrent() {
+        withScratchDirectory("snapshotFromOtherFormatVersionIsNotCurrent") { dir =>
+            val snapshot = new File(dir, "old.snapshot")
+            ConfigSnapshot.write(ConfigFactory.parseString("a = 1"), snapshot)
+            // the version is the int after the magic number
+            val bytes = java.nio.file.Files.readAllBytes(snapshot.toPath)
+            java.nio.ByteBuffer.wrap(bytes).putInt(4, 1)
+            java.nio.file.Files.write(snapshot.toPath, bytes)
+
+            assertFalse(ConfigSnapshot.isCurrent(snapshot, null))
+            assertNull(ConfigSnapshotImpl.readIfCurrentInternal(snapshot, null))
+            intercept[ConfigException.IO] {
+                ConfigSnapshot.read(snapshot)
+            }
+        }
+    }
+
+    @Test
+    def loadUsesCurrentSnapshot() {
+        withScratchDirectory("loadUsesCurrentSnapshot") { dir =>
+            val app = new File(dir, "application.conf")
+            writeFile(app, "a = ${b}\nb = 1\n")
+            def loader() = new TestClassLoader(this.getClass().getClassLoader(),
+                Map("application.conf" -> app.toURI.toURL()))
+
+            val snapshot = new File(dir, "default.snapshot")
+            ConfigSnapshot.writeDefault(loader(), snapshot)
+            assertTrue(ConfigSnapshot.isCurrent(snapshot, loader()))
+
+            System.setProperty("config.snapshot", snapshot.getPath)
+            try {
+                // substitutions and overrides are still applied at load time
+                val fromSnapshot = ConfigFactory.load(loader())
+                assertEquals(1, fromSnapshot.getInt("a"))
+                assertTrue(fromSnapshot.hasPath("java.version"))
+
+                // a snapshot with no inputs never goes out of date, so this
+                // shows load() really read it rather than application.conf
+                ConfigSnapshot.write(ConfigFactory.parseString("a = 42"), snapshot)
+                assertEquals(42, ConfigFactory.load(loader()).getInt("a"))
+
+                // a stale snapshot is ignored
+                ConfigSnapshot.writeDefault(loader(), snapshot)
+                writeFile(app, "a = 3\n")
+                assertFalse(ConfigSnapshot.isCurrent(snapshot, loader()))
+                assertEquals(3, ConfigFactory.load(loader()).getInt("a"))
+            } finally {
+                System.clearProperty("config.snapshot")
+                ConfigFactory.invalidateCaches()
+            }
+        }
+    }
+
+    @Test
+    def mappedSnapshotDecodesLazily() {
+        withScratchDirectory("mappedSnapshotDecodesLazily") { dir =>
+            val snapshot = new File(dir, "test01.snapshot")
+            val conf = ConfigFactory.parseFile(resourceFile("test01.conf")).resolve()
+            ConfigSnapshot.write(conf, snapshot)
+
+            val mapped = ConfigSnapshot.map(snapshot)
+            assertTrue(mapped.root.isInstanceOf[SnapshotConfigObject])
+            assertEquals(conf.getInt("ints.fortyTwo"), mapped.getInt("ints.fortyTwo"))
+            assertEquals(conf, mapped)
+            assertEquals(mapped, conf)
+            assertEquals(conf.hashCode, mapped.hashCode)
+            assertEquals(conf.root.render(), mapped.root.render())
+
+            // merging works in both directions
+            val other = parseConfig("ints { fortyTwo = 43 }, extra = true")
+            assertEquals(other.withFallback(conf), other.withFallback(mapped))
+            assertEquals(conf.withFallback(other), mapped.withFallback(other))
+
+            // an unresolved snapshot maps too, and resolves the same
+            val unresolved = ConfigFactory.parseFile(resourceFile("test01.conf"))
+            ConfigSnapshot.write(unresolved, snapshot)
+            assertEquals(conf, ConfigSnapshot.map(snapshot).resolve())
+
+            // a truncated file may only be noticed once a value is decoded
+            ConfigSnapshot.write(conf, snapshot)
+            val bytes = java.nio.file.Files.readAllBytes(snapshot.toPath)
+            java.nio.file.Files.write(snapshot.toPath, java.util.Arrays.copyOf(bytes, bytes.length - 100))
+            intercept[ConfigException.IO] {
+                ConfigSnapshot.map(snapshot).root.render()
+            }
+        }
+    }
+
+    private class RecordingListener extends ConfigWatcher.Listener {
+        val changes = new java.util.concurrent.LinkedBlockingQueue[Config]()
+        val failures = new java.util.concurrent.LinkedBlockingQueue[ConfigException]()
+        override def configChanged(previous: Config, current: Config): Unit = changes.add(current)
+        override def reloadFailed(e: ConfigException): Unit = failures.add(e)
+    }
+
+    @Test
+    def watcherReloadsChangedFiles() {
+        withScratchDirectory("watcherReloadsChangedFiles") { dir =>
+            val main = new File(dir, "main.conf")
+            val other = new File(dir, "other.conf")
+            val included = new File(dir, "included.conf")
+            writeFile(main, "a = 1\ninclude \"included.conf\"\n")
+            writeFile(other, "b = ${a}\n")
+            // a long debounce keeps the watcher's own thread from reloading
+            // while the test does
+            val watcher = ConfigWatcher.watch(new java.util.concurrent.Callable[Config] {
+                override def call() = ConfigFactory.parseFile(main).withFallback(ConfigFactory.parseFile(other)).resolve()
+            }, 1, java.util.concurrent.TimeUnit.HOURS)
+            try {
+                val listener = new RecordingListener
+                watcher.addListener(listener)
+                val first = watcher.current
+                assertEquals(parseConfig("a = 1, b = 1"), first)
+
+                // nothing changed, so nothing is published
+                assertSame(first, watcher.reload())
+                assertTrue(listener.changes.isEmpty)
+
+                writeFile(other, "b = ${a}\nc = 2\n")
+                val second = watcher.reload()
+                assertEquals(parseConfig("a = 1, b = 1, c = 2"), second)
+                assertSame(second, listener.changes.poll())
+
+                // an include which didn't exist is picked up once it does
+                writeFile(included, "d = 3\n")
+                assertEquals(3, watcher.reload().getInt("d"))
+                assertEquals(1, listener.changes.size)
+
+                // a failed reload keeps the current config
+                writeFile(main, "a = {\n")
+                intercept[ConfigException.Parse] {
+                    watcher.reload()
+                }
+                assertEquals(3, watcher.current.getInt("d"))
+                writeFile(main, "a = 4\n")
+                assertEquals(parseConfig("a = 4, b = 4, c = 2"), watcher.reload())
+            } finally {
+                watcher.close()
+            }
+        }
+    }
+
+    @Test
+    def watcherReloadsSameSizeEditWithSameModificationTime() {
+        withScratchDirectory("watcherReloadsSameSizeEdit") { dir =>
+            val file = new File(dir, "main.conf")
+            writeFile(file, "a = 1\n")
+            val modified = file.lastModified
+            val watcher = ConfigWatcher.watch(new java.util.concurrent.Callable[Config] {
+                override def call() = ConfigFactory.parseFile(file)
+            }, 1, java.util.concurrent.TimeUnit.HOURS)
+            try {
+                assertEquals(1, watcher.current.getInt("a"))
+                writeFile(file, "a = 2\n")
+                file.setLastModified(modified)
+                assertEquals(2, watcher.reload().getInt("a"))
+            } finally {
+                watcher.close()
+            }
+        }
+    }
+
+    @Test
+    def watcherLeavesGlobalCachesAlone() {
+        withScratchDirectory("watcherLeavesGlobalCachesAlone") { dir =>
+            val file = new File(dir, "main.conf")
+            writeFile(file, "a = 1\n")
+            val loaded = ConfigFactory.load()
+            val systemProperties = ConfigFactory.systemProperties()
+            val watcher = ConfigWatcher.watch(new java.util.concurrent.Callable[Config] {
+                override def call() = ConfigFactory.parseFile(file).withFallback(ConfigFactory.load())
+            }, 1, java.util.concurrent.TimeUnit.HOURS)
+            try {
+                writeFile(file, "a = 22\n")
+                assertEquals(22, watcher.reload().getInt("a"))
+                assertSame(loaded, ConfigFactory.load())
+                assertSame(systemProperties, ConfigFactory.systemProperties())
+            } finally {
+                watcher.close()
+            }
+        }
+    }
+
+    @Test
+    def watcherNoticesFileChanges() {
+        withScratchDirectory("watcherNoticesFileChanges") { dir =>
+            val file = new File(dir, "watched.conf")
+            writeFile(file, "a = 1\n")
+            val watcher = ConfigWatcher.watch(new java.util.concurrent.Callable[Config] {
+                override def call() = ConfigFactory.parseFile(file)
+            })
+            try {
+                val listener = new RecordingListener
+                watcher.addListener(listener)
+
+                writeFile(file, "a = 22\n")
+                val changed = listener.changes.poll(30, java.util.concurrent.TimeUnit.SECONDS)
+                assertNotNull("watcher did not notice the change", changed)
+                assertEquals(22, changed.getInt("a"))
+                assertSame(changed, watcher.current)
+
+                writeFile(file, "a = \n")
+                assertNotNull("watcher did not report the failure",
+                    listener.failures.poll(30, java.util.concurrent.TimeUnit.SECONDS))
+                assertEquals(22, watcher.current.getInt("a"))
+            } finally {
+                watcher.close()
+            }
+        }
+    }
+
     @Test
     def supportsConfigLoadingStrategyAlteration(): Unit = {
         assertEquals("config.strategy is not set", null, System.getProperty("config.strategy"))
@@ -884,8 +1239,54 @@ class PublicApiTest extends TestUtils {
         assertEquals(load1, load5)
 
         val load7 = ConfigFactory.load(otherLoader)
-        assertTrue("cache was dropped when switching loaders", load3 ne load7)
-        assertEquals(load3, load7)
+        assertTrue("each loader keeps its own cache", load3 eq load7)
+        assertTrue("each loader keeps its own cache", load1 eq load5)
+    }
+
+    @Test
+    def loaderCacheStats() {
+        val otherLoader = new TestClassLoader(this.getClass().getClassLoader(),
+            Map("reference.conf" -> resourceFile("a_1.conf").toURI.toURL()))
+        ConfigFactory.invalidateCaches()
+        val misses = ConfigImpl.loaderCacheMisses()
+        val evictions = ConfigImpl.loaderCacheEvictions()
+
+        ConfigFactory.defaultReference(otherLoader)
+        val hits = ConfigImpl.loaderCacheHits()
+        val missesAfterFirstLoad = ConfigImpl.loaderCacheMisses()
+        assertTrue("first load was a miss", missesAfterFirstLoad > misses)
+
+        ConfigFactory.defaultReference()
+        ConfigFactory.defaultReference(otherLoader)
+        assertEquals("cached after switching loaders", hits + 1, ConfigImpl.loaderCacheHits())
+
+        ConfigFactory.invalidateCaches()
+        ConfigFactory.defaultReference(otherLoader)
+        assertTrue("invalidating evicts", ConfigImpl.loaderCacheEvictions() > evictions)
+        assertTrue("reloaded after invalidating", ConfigImpl.loaderCacheMisses() > missesAfterFirstLoad)
+    }
+
+    @Test
+    def loaderCacheRecomputesReentrantKey() {
+        // a resolver or includer calling load() while load() is running
+        // asks for the key being computed on the same thread
+        val loader = this.getClass().getClassLoader()
+        val key = "reentrant-" + System.nanoTime()
+        var inner: Config = null
+        val outer = ConfigImpl.computeCachedConfig(loader, key, new java.util.concurrent.Callable[Config] {
+            override def call() = {
+                inner = ConfigImpl.computeCachedConfig(loader, key, new java.util.concurrent.Callable[Config] {
+                    override def call() = ConfigFactory.parseString("inner = true")
+                })
+                ConfigFactory.parseString("outer = true")
+            }
+        })
+        assertTrue(inner.getBoolean("inner"))
+        assertTrue(outer.getBoolean("outer"))
+        val again = ConfigImpl.computeCachedConfig(loader, key, new java.util.concurrent.Callable[Config] {
+            override def call() = throw new Exception("should have been cached")
+        })
+        assertTrue("outer result was cached", outer eq again)
     }
 
     @Test
@@ -912,8 +1313,8 @@ class PublicApiTest extends TestUtils {
         assertEquals(load1, load5)
 
         val load7 = ConfigFactory.defaultReference(otherLoader)
-        assertTrue("cache was dropped when switching loaders", load3 ne load7)
-        assertEquals(load3, load7)
+        assertTrue("each loader keeps its own cache", load3 eq load7)
+        assertTrue("each loader keeps its own cache", load1 eq load5)
     }
 
     @Test
@@ -0,0 +1,115 @@
+package com.typesafe.config.impl
+
+import org.junit.Assert._
+import org.junit.Test
+
+class ResolveMemosTest extends TestUtils {
+    private def key(i: Int) = new MemoKey(intValue(i), null)
+
+    @Test
+    def putAndGet(): Unit = {
+        val memos = new ResolveMemos()
+        val k = key(1)
+        memos.put(k, intValue(2))
+
+        assertEquals(intValue(2), memos.get(k))
+        // keys are compared by value identity, not equality
+        assertNull(memos.get(key(1)))
+    }
+
+    @Test
+    def restrictedKeys(): Unit = {
+        val memos = new ResolveMemos()
+        val v = intValue(1)
+        memos.put(new MemoKey(v, null), intValue(2))
+        memos.put(new MemoKey(v, path("a", "b")), intValue(3))
+
+        assertEquals(intValue(2), memos.get(new MemoKey(v, null)))
+        assertEquals(intValue(3), memos.get(new MemoKey(v, path("a", "b"))))
+        assertNull(memos.get(new MemoKey(v, path("a"))))
+    }
+
+    @Test
+    def putOverride(): Unit = {
+        val memos = new ResolveMemos()
+        val k = key(1)
+        memos.put(k, intValue(1))
+        memos.put(k, intValue(2))
+        memos.put(k, null)
+
+        assertNull(memos.get(k))
+        memos.put(k, intValue(3))
+        assertEquals(intValue(3), memos.get(k))
+    }
+
+    @Test
+    def putMany(): Unit = {
+        val memos = new ResolveMemos()
+        val entries = (1 to 10000).map(i => (key(i), intValue(i)))
+
+        for ((k, v) <- entries) {
+            memos.put(k, v)
+        }
+
+        for ((k, v) <- entries) {
+            assertEquals(v, memos.get(k))
+        }
+    }
+
+    @Test
+    def rollback(): Unit = {
+        val memos = new ResolveMemos()
+        val kept = (1 to 100).map(key(_))
+        for (k <- kept)
+            memos.put(k, intValue(1))
+
+        val mark = memos.mark()
+        val dropped = (1 to 1000).map(key(_))
+        for (k <- dropped)
+            memos.put(k, intValue(2))
+        for (k <- kept.take(10))
+            memos.put(k, intValue(3))
+        memos.rollback(mark)
+
+        for (k <- kept)
+            assertEquals(intValue(1), memos.get(k))
+        for (k <- dropped)
+            assertNull(memos.get(k))
+    }
+
+    @Test
+    def nestedRollback(): Unit = {
+        val memos = new ResolveMemos()
+        val a = key(1)
+        val b = key(2)
+        val c = key(3)
+
+        val outer = memos.mark()
+        memos.put(a, intValue(1))
+        val inner = memos.mark()
+        memos.put(b, intValue(2))
+        memos.put(a, intValue(3))
+        memos.rollback(inner)
+
+        assertEquals(intValue(1), memos.get(a))
+        assertNull(memos.get(b))
+
+        memos.put(c, intValue(4))
+        memos.rollback(outer)
+        assertNull(memos.get(a))
+        assertNull(memos.get(c))
+    }
+
+    @Test
+    def commitForgetsMarks(): Unit = {
+        val memos = new ResolveMemos()
+        val k = key(1)
+
+        val mark = memos.mark()
+        memos.put(k, intValue(1))
+        memos.commit()
+        memos.rollback(mark)
+
+        assertEquals(intValue(1), memos.get(k))
+    }
+}
@@ -312,4 +312,42 @@ class TokenizerTest extends TestUtils {
                 assertEquals("" + invalid, Tokens.getProblemWhat(problem))
         }
     }
+
+    @Test
+    def tokenizeAcrossReadBoundaries() {
+        // the tokenizer reads in chunks, so make sure tokens that span
+        // chunks, or are longer than a chunk, come out the same
+        class ChunkedReader(s: String, chunk: Int) extends java.io.Reader {
+            private var pos = 0
+            override def read(buf: Array[Char], off: Int, len: Int): Int = {
+                if (pos == s.length) {
+                    -1
+                } else {
+                    val n = Math.min(Math.min(len, chunk), s.length - pos)
+                    s.getChars(pos, pos + n, buf, off)
+                    pos += n
+                    n
+                }
+            }
+            override def close() {}
+        }
+
+        val long = "x" * 20000
+        val s = "a.b = " + long + " // " + long + "\n" +
+            "c : \"" + long + "\\n\" \t" + long + "${?foo.bar}\n" +
+            "d = true" + long + ", e = nullx, f = [1, 2.5, \"\"\"" + long + "\"\"\"]\n" +
+            "g = a/b\u00A0\uFEFFtrue"
+
+        def tokens(chunk: Int) = {
+            import scala.collection.JavaConverters._
+            tokenize(new ChunkedReader(s, chunk)).asScala.toList
+        }
+
+        val expected = tokenizeAsList(s)
+        assertTrue(expected.contains(tokenUnquoted(long)))
+        assertTrue(expected.contains(tokenCommentDoubleSlash(" " + long)))
+        assertTrue(expected.contains(tokenString(long + "\n")))
+        for (chunk <- Seq(1, 2, 3, 7, 8191, 8192, 8193))
+            assertEquals("chunk size " + chunk, expected, tokens(chunk))
+    }
 }